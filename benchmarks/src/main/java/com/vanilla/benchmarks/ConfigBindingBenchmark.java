@@ -0,0 +1,122 @@
+package com.vanilla.benchmarks;
+
+import com.vanilla.config.Config;
+import com.vanilla.yamlParser.YamlParser;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Reading {@code services} blocks of five values each into records: with {@link Config#bind(String, Class)}, with
+ * the typed getters of {@link Config}, and with string keys and casts on the map returned by
+ * {@link YamlParser#parseYaml(String)}, as application code did before. {@code bindAll} binds the whole tree into
+ * one record holding a map of the services.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigBindingBenchmark {
+
+    public enum Protocol { HTTP, HTTPS }
+
+    public record Service(String host, int port, long timeoutMs, boolean enabled, Protocol protocol) {
+    }
+
+    public record Services(Map<String, Service> services) {
+    }
+
+    @Param({ "10", "1000" })
+    public int services;
+
+    private Map<String, Object> map;
+    private Config config;
+    private Config serviceConfig;
+    private String[] names;
+
+    @Setup
+    public void generate() {
+        StringBuilder yaml = new StringBuilder("services:\n");
+        names = new String[services];
+        for (int i = 0; i < services; i++) {
+            names[i] = "service" + i;
+            yaml.append("  ").append(names[i]).append(":\n")
+                    .append("    host: host").append(i).append(".internal\n")
+                    .append("    port: ").append(8000 + i).append('\n')
+                    .append("    timeout-ms: ").append(1000 + i).append('\n')
+                    .append("    enabled: ").append(i % 2 == 0).append('\n')
+                    .append("    protocol: ").append(i % 3 == 0 ? "https" : "http").append('\n');
+        }
+        map = new YamlParser().parseYaml(yaml.toString());
+        config = Config.of(map);
+        serviceConfig = config.subtree("services");
+        List.of(bind(), getters(), mapLookups()).forEach(services -> {
+            if (services.length != this.services || !services[0].equals(bind()[0])) {
+                throw new IllegalStateException("The three ways disagree");
+            }
+        });
+    }
+
+    @Benchmark
+    public void binder(Blackhole blackhole) {
+        blackhole.consume(bind());
+    }
+
+    @Benchmark
+    public void configGetters(Blackhole blackhole) {
+        blackhole.consume(getters());
+    }
+
+    @Benchmark
+    public void mapLookups(Blackhole blackhole) {
+        blackhole.consume(mapLookups());
+    }
+
+    @Benchmark
+    public Services bindAll() {
+        return config.bind(Services.class);
+    }
+
+    private Service[] bind() {
+        Service[] bound = new Service[names.length];
+        for (int i = 0; i < names.length; i++) {
+            bound[i] = serviceConfig.bind(names[i], Service.class);
+        }
+        return bound;
+    }
+
+    private Service[] getters() {
+        Service[] bound = new Service[names.length];
+        for (int i = 0; i < names.length; i++) {
+            Config service = serviceConfig.subtree(names[i]);
+            bound[i] = new Service(service.getString("host"), service.getInt("port"), service.getLong("timeout-ms"),
+                    service.getBoolean("enabled"), Protocol.valueOf(service.getString("protocol").toUpperCase()));
+        }
+        return bound;
+    }
+
+    private Service[] mapLookups() {
+        Service[] bound = new Service[names.length];
+        for (int i = 0; i < names.length; i++) {
+            String prefix = "services." + names[i] + ".";
+            bound[i] = new Service((String) map.get(prefix + "host"), (Integer) map.get(prefix + "port"),
+                    ((Number) map.get(prefix + "timeout-ms")).longValue(), (Boolean) map.get(prefix + "enabled"),
+                    Protocol.valueOf(((String) map.get(prefix + "protocol")).toUpperCase()));
+        }
+        return bound;
+    }
+}
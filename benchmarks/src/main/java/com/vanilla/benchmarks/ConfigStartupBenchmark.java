@@ -0,0 +1,74 @@
+package com.vanilla.benchmarks;
+
+import com.vanilla.config.Config;
+import com.vanilla.config.MappedConfig;
+import com.vanilla.yamlParser.YamlParser;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * What a service pays at startup to answer its first lookup: parsing the YAML file into a {@link Config}, mapping a
+ * ready snapshot with {@link MappedConfig#open}, or {@link MappedConfig#load}, which also hashes the YAML source to
+ * check that the snapshot is current.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConfigStartupBenchmark {
+
+    @Param({ "1000", "100000" })
+    public int lines;
+
+    private final YamlParser yamlParser = new YamlParser();
+    private Path directory;
+    private Path yaml;
+    private Path snapshot;
+
+    @Setup
+    public void write() throws IOException {
+        directory = Files.createTempDirectory("config-startup");
+        yaml = directory.resolve("config.yml");
+        snapshot = directory.resolve("config.snapshot");
+        Files.writeString(yaml, SyntheticYaml.generate(lines, 3, 25, true));
+        MappedConfig.load(yaml, snapshot, yamlParser);
+    }
+
+    @TearDown
+    public void delete() throws IOException {
+        Files.deleteIfExists(snapshot);
+        Files.deleteIfExists(yaml);
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public int parseText() throws IOException {
+        return Config.of(yamlParser.parseYaml(yaml)).getInt("block0.level1.level2.port");
+    }
+
+    @Benchmark
+    public int openSnapshot() throws IOException {
+        return MappedConfig.open(snapshot).getInt("block0.level1.level2.port");
+    }
+
+    @Benchmark
+    public int loadCheckingSourceHash() throws IOException {
+        return MappedConfig.load(yaml, snapshot, yamlParser).getInt("block0.level1.level2.port");
+    }
+}
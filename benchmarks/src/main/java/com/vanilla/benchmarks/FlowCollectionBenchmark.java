@@ -0,0 +1,110 @@
+package com.vanilla.benchmarks;
+
+import com.vanilla.yamlParser.FlowParser;
+import com.vanilla.yamlParser.ScalarResolver;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing an inline {@code [...]} list or {@code {...}} map of {@code elements} entries with {@link FlowParser},
+ * against the comma splitting it replaced. The old map parser copied the rest of the text for every entry and
+ * recursed once per entry, so its time grows with the square of the length.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xss16m")
+public class FlowCollectionBenchmark {
+
+    @Param({ "100", "10000" })
+    public int elements;
+
+    @Param({ "list", "map" })
+    public String shape;
+
+    private String text;
+    private FlowParser flowParser;
+    private ScalarResolver legacyResolver;
+
+    @Setup
+    public void generate() {
+        boolean map = "map".equals(shape);
+        StringBuilder collection = new StringBuilder(map ? "{" : "[");
+        for (int i = 0; i < elements; i++) {
+            collection.append(i == 0 ? "" : ", ").append(map ? "key" + i + ": " : "")
+                    .append(i % 2 == 0 ? String.valueOf(i) : "value-" + i);
+        }
+        text = collection.append(map ? '}' : ']').toString();
+        flowParser = new FlowParser(new ScalarResolver(valueString -> flowParser.parse(valueString)));
+        legacyResolver = new ScalarResolver(this::legacyFlowCollection);
+    }
+
+    @Benchmark
+    public Object flowParser() {
+        return flowParser.parse(text);
+    }
+
+    @Benchmark
+    public Object legacy() {
+        return legacyFlowCollection(text);
+    }
+
+    /**
+     * {@code YamlParser.parseList} and {@code parseMapHelper} as they were before {@link FlowParser}, kept here as
+     * the baseline.
+     */
+    private Object legacyFlowCollection(String valueString) {
+        return valueString.startsWith("{") ? legacyParseMap(valueString, new HashMap<>())
+                : legacyParseList(valueString);
+    }
+
+    private List<Object> legacyParseList(String valueString) {
+        if (valueString.startsWith("[") && valueString.endsWith("]")) {
+            return legacyParseList(valueString.substring(1, valueString.length() - 1));
+        }
+        return Stream.of(valueString.split(",")).map(String::trim).map(legacyResolver::resolve)
+                .collect(Collectors.toList());
+    }
+
+    private Map<String, Object> legacyParseMap(String input, Map<String, Object> map) {
+        if (input == null || input.isEmpty() || input.isBlank()) {
+            return map;
+        }
+        input = input.trim();
+        if (input.charAt(0) == '{' && input.charAt(input.length() - 1) == '}') {
+            input = input.substring(1, input.length() - 1);
+        }
+        String[] splitComma = input.split(",", 2);
+        String[] split = splitComma[0].split(":", 2);
+        String key = split[0].trim();
+        String value = split.length > 1 ? split[1].trim() : "";
+        if (value.startsWith("{")) {
+            int indexOCurly = input.indexOf("{");
+            int indexCCurly = input.indexOf("}");
+            Map<String, Object> nestedMap = new HashMap<>();
+            legacyParseMap(input.substring(indexOCurly, indexCCurly + 1), nestedMap);
+            map.put(key, nestedMap);
+            return legacyParseMap(input.substring(indexCCurly + 1), map);
+        } else {
+            map.put(key, legacyResolver.resolve(value));
+        }
+        return splitComma.length > 1 ? legacyParseMap(splitComma[1], map) : map;
+    }
+}
@@ -0,0 +1,77 @@
+package com.vanilla.benchmarks;
+
+import com.vanilla.yamlParser.YamlParser;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.function.Supplier;
+
+/**
+ * Measures the heap retained by a parsed anchor-heavy document: the flattened map of
+ * {@link YamlParser#parseYaml(String)} against the shared tree of {@link YamlParser#parseTree(String)}. JMH measures
+ * allocation rates, not what stays reachable, so this runs on its own:
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.vanilla.benchmarks.HeapFootprint [blocks] [anchor keys]
+ * </pre>
+ */
+public class HeapFootprint {
+
+    private static final int COPIES = 10;
+
+    public static void main(String[] args) {
+        int blocks = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int anchorKeys = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+        String document = anchorHeavy(blocks, anchorKeys);
+        YamlParser yamlParser = new YamlParser();
+
+        System.out.printf("%d blocks merging a %d-key anchor, %d lines%n", blocks, anchorKeys,
+                document.lines().count());
+        long flat = retained(() -> yamlParser.parseYaml(document));
+        long tree = retained(() -> yamlParser.parseTree(document));
+        System.out.printf("parseYaml  %,12d bytes%n", flat);
+        System.out.printf("parseTree  %,12d bytes (%.1f%% of parseYaml)%n", tree, 100.0 * tree / flat);
+    }
+
+    /**
+     * Every block merges the same anchored service definition and overrides two of its keys.
+     */
+    static String anchorHeavy(int blocks, int anchorKeys) {
+        StringBuilder yaml = new StringBuilder();
+        yaml.append("defaults: &defaults\n");
+        for (int key = 0; key < anchorKeys; key++) {
+            yaml.append("  setting").append(key).append(": value-").append(key).append('\n');
+        }
+        for (int block = 0; block < blocks; block++) {
+            yaml.append("service").append(block).append(":\n")
+                    .append("  <<: *defaults\n")
+                    .append("  setting0: ").append(block).append('\n')
+                    .append("  name: service-").append(block).append('\n');
+        }
+        return yaml.toString();
+    }
+
+    /**
+     * @return the average heap still reachable from one parse result, over {@value #COPIES} results kept alive
+     */
+    private static long retained(Supplier<Object> parse) {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        parse.get();
+        long before = usedAfterGc(memory);
+        Object[] results = new Object[COPIES];
+        for (int i = 0; i < COPIES; i++) {
+            results[i] = parse.get();
+        }
+        long after = usedAfterGc(memory);
+        if (results[COPIES - 1] == null) {
+            throw new IllegalStateException();
+        }
+        return (after - before) / COPIES;
+    }
+
+    private static long usedAfterGc(MemoryMXBean memory) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,94 @@
+package com.vanilla.benchmarks;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.vanilla.httpServer.ApplicationHttpServer;
+import com.vanilla.httpServer.ExecutionMode;
+import com.vanilla.httpServer.HttpServerSettings;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Load test of {@link ApplicationHttpServer} over loopback, for each {@link ExecutionMode}. Throughput reports
+ * requests per second across the concurrent client threads, SampleTime the latency percentiles (p99 included) of a
+ * single request. {@code /slow} answers after a short sleep, showing how one slow handler affects each mode.
+ * Nagle's algorithm is disabled on the server sockets, otherwise delayed ACKs cap every mode at ~40ms per request.
+ * {@link ExecutionMode#VIRTUAL} needs Java 21; add it there with {@code -p executionMode=VIRTUAL}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+public class HttpServerBenchmark {
+
+    private static final long SLOW_HANDLER_MILLIS = 2;
+
+    @Param({ "DISPATCHER", "PLATFORM_POOL" })
+    public ExecutionMode executionMode;
+
+    @Param({ "/users", "/slow" })
+    public String path;
+
+    private HttpServer server;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        HttpServerSettings settings = HttpServerSettings.DEFAULT.withExecutionMode(executionMode);
+        server = ApplicationHttpServer.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), settings);
+        server.createContext("/slow", HttpServerBenchmark::slowHandler);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path))
+                .GET()
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        server.stop(0);
+    }
+
+    private static void slowHandler(HttpExchange exchange) throws IOException {
+        try {
+            Thread.sleep(SLOW_HANDLER_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] response = "{}".getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, response.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(response);
+        }
+    }
+
+    @Benchmark
+    public byte[] get() throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray()).body();
+    }
+}
@@ -0,0 +1,65 @@
+package com.vanilla.benchmarks;
+
+import com.vanilla.yamlParser.IncrementalYamlParser;
+import com.vanilla.yamlParser.YamlParser;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Re-parses a document after a one-line edit in its middle, with {@link IncrementalYamlParser} against a full
+ * {@link YamlParser} parse. Each invocation toggles the edited value, so the incremental parser always has one
+ * changed block to parse.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IncrementalParseBenchmark {
+
+    @Param({ "10000", "100000" })
+    public int lines;
+
+    @Param({ "0", "25" })
+    public int anchorPercent;
+
+    private final YamlParser yamlParser = new YamlParser();
+    private IncrementalYamlParser incremental;
+    private String[] versions;
+    private int next;
+
+    @Setup
+    public void generate() {
+        String document = SyntheticYaml.generate(lines, 3, anchorPercent, false);
+        int middle = document.indexOf("    port: ", document.length() / 2);
+        int end = document.indexOf('\n', middle);
+        versions = new String[] { document,
+                document.substring(0, middle) + "    port: 1" + document.substring(end) };
+        incremental = new IncrementalYamlParser(yamlParser);
+        incremental.parse(document);
+    }
+
+    @Benchmark
+    public IncrementalYamlParser.Result incrementalAfterEdit() {
+        next ^= 1;
+        return incremental.parse(versions[next]);
+    }
+
+    @Benchmark
+    public Map<String, Object> fullAfterEdit() {
+        next ^= 1;
+        return yamlParser.parseYaml(versions[next]);
+    }
+}
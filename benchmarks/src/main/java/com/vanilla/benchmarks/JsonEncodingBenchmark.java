@@ -0,0 +1,120 @@
+package com.vanilla.benchmarks;
+
+import com.vanilla.json.JsonWriter;
+import com.vanilla.yamlParser.YamlParser;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Sends a parsed config as a JSON body: built as a String with a {@link StringBuilder}, as
+ * {@code RouteDefinition.responseJson()} does, then encoded and written; against {@link JsonWriter} streaming into
+ * the same stream. Run with {@code -prof gc}; {@code gc.alloc.rate.norm} is the allocation per body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonEncodingBenchmark {
+
+    @Param({ "100", "10000" })
+    public int lines;
+
+    private final CountingOutputStream os = new CountingOutputStream();
+    private Map<String, Object> config;
+
+    @Setup
+    public void generate() {
+        config = new TreeMap<>(new YamlParser().parseYaml(SyntheticYaml.generate(lines, 4, 0, true)));
+    }
+
+    @Benchmark
+    public long stringConcatenation() throws IOException {
+        StringBuilder json = new StringBuilder();
+        append(json, config);
+        os.write(json.toString().getBytes(StandardCharsets.UTF_8));
+        return os.count;
+    }
+
+    @Benchmark
+    public long jsonWriter() throws IOException {
+        try (JsonWriter json = new JsonWriter(os)) {
+            json.value(config);
+        }
+        return os.count;
+    }
+
+    private static void append(StringBuilder json, Object value) {
+        if (value instanceof Map<?, ?> map) {
+            json.append('{');
+            String separator = "";
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                json.append(separator);
+                append(json, String.valueOf(entry.getKey()));
+                json.append(':');
+                append(json, entry.getValue());
+                separator = ",";
+            }
+            json.append('}');
+        } else if (value instanceof List<?> list) {
+            json.append('[');
+            for (int i = 0; i < list.size(); i++) {
+                json.append(i == 0 ? "" : ",");
+                append(json, list.get(i));
+            }
+            json.append(']');
+        } else if (value == null || value instanceof Number || value instanceof Boolean) {
+            json.append(value);
+        } else {
+            json.append('"');
+            String text = value.toString();
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                switch (c) {
+                    case '"' -> json.append("\\\"");
+                    case '\\' -> json.append("\\\\");
+                    case '\n' -> json.append("\\n");
+                    default -> json.append(c);
+                }
+            }
+            json.append('"');
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void close() {
+            // reused across invocations
+        }
+    }
+}
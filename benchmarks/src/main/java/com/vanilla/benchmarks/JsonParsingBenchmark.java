@@ -0,0 +1,93 @@
+package com.vanilla.benchmarks;
+
+import com.vanilla.json.JsonLimits;
+import com.vanilla.json.JsonReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reads a request body of {@code orders} orders, about 230 bytes each (one order is a typical small body, 20000 are
+ * about 4.5 MB): streamed into maps and lists, streamed into records, and into maps after buffering the whole body
+ * first, as a handler without an incremental parser would. Run with {@code -prof gc}; {@code gc.alloc.rate.norm}
+ * is the allocation per body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonParsingBenchmark {
+
+    public record Item(String sku, int quantity, double price) {
+    }
+
+    public record Order(String id, String customer, boolean paid, long placedAt, List<Item> items) {
+    }
+
+    private static final JsonLimits LIMITS = new JsonLimits(Long.MAX_VALUE, 64);
+
+    @Param({ "1", "20000" })
+    public int orders;
+
+    private byte[] body;
+
+    @Setup
+    public void generate() {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < orders; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"id\": \"order-").append(i)
+                    .append("\", \"customer\": \"Customer \\\"").append(i % 97).append("\\\" S\\u00e3o Paulo\", ")
+                    .append("\"paid\": ").append(i % 2 == 0).append(", \"placedAt\": ").append(1_700_000_000_000L + i)
+                    .append(", \"items\": [{\"sku\": \"sku-").append(i % 13).append("\", \"quantity\": ").append(i % 5)
+                    .append(", \"price\": ").append(i % 100).append(".99}, {\"sku\": \"gift\", \"quantity\": 1, ")
+                    .append("\"price\": 0}]}");
+        }
+        body = json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Object streamToValues() throws IOException {
+        try (JsonReader json = new JsonReader(new ByteArrayInputStream(body), LIMITS)) {
+            return json.readValue();
+        }
+    }
+
+    @Benchmark
+    public List<Order> streamToRecords() throws IOException {
+        List<Order> result = new ArrayList<>();
+        try (JsonReader json = new JsonReader(new ByteArrayInputStream(body), LIMITS)) {
+            json.beginArray();
+            while (json.hasNext()) {
+                result.add(json.read(Order.class));
+            }
+            json.endArray();
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Object bufferedToValues() throws IOException {
+        InputStream in = new ByteArrayInputStream(body);
+        try (JsonReader json = new JsonReader(ByteBuffer.wrap(in.readAllBytes()), LIMITS)) {
+            return json.readValue();
+        }
+    }
+}
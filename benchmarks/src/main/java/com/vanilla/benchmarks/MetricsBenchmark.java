@@ -0,0 +1,61 @@
+package com.vanilla.benchmarks;
+
+import com.vanilla.metrics.Counter;
+import com.vanilla.metrics.Histogram;
+import com.vanilla.metrics.MetricsRegistry;
+import com.vanilla.metrics.RequestEvent;
+import com.vanilla.metrics.RequestMetrics;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of recording on the hot path: a counter increment, a histogram sample, and everything a server records per
+ * request. Run with {@code -t 4} to see contention, and with {@code -prof gc} to check that recording does not
+ * allocate while no Flight Recorder recording is running.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+
+    private final MetricsRegistry registry = new MetricsRegistry();
+    private Counter counter;
+    private Histogram histogram;
+    private RequestMetrics requests;
+
+    @Setup
+    public void register() {
+        counter = registry.counter("bench_total");
+        histogram = registry.timer("bench_seconds");
+        requests = new RequestMetrics(registry, "bench");
+    }
+
+    @Benchmark
+    public void counterIncrement() {
+        counter.increment();
+    }
+
+    @Benchmark
+    public void histogramRecord() {
+        histogram.record(ThreadLocalRandom.current().nextLong(1_000, 10_000_000));
+    }
+
+    @Benchmark
+    public void requestRecord() {
+        RequestEvent event = requests.start();
+        requests.record(event, "GET", "/users", 200, 512);
+    }
+}
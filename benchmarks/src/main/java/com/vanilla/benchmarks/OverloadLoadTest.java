@@ -0,0 +1,121 @@
+package com.vanilla.benchmarks;
+
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import com.vanilla.httpServer.ApplicationHttpServer;
+import com.vanilla.httpServer.ExecutionMode;
+import com.vanilla.httpServer.HttpServerSettings;
+import com.vanilla.httpServer.admission.AdmissionController;
+import com.vanilla.httpServer.admission.AdmissionSettings;
+import com.vanilla.httpServer.routing.Router;
+import com.vanilla.metrics.MetricsRegistry;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Offers a route backed by 4 slots of 20 ms each, about 200 requests per second, a fixed rate above its capacity and
+ * reports the latency of served and turned away requests, with and without admission control. Requests are sent on
+ * schedule whether or not earlier ones have answered, as real clients do, so the backlog of an unlimited server
+ * shows up in its latency. JMH drives a closed loop that cannot overload a server, so this runs on its own:
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.vanilla.benchmarks.OverloadLoadTest [requests/s] [seconds]
+ * </pre>
+ */
+public class OverloadLoadTest {
+
+    private static final int SLOTS = 4;
+    private static final long SERVICE_MILLIS = 20;
+
+    public static void main(String[] args) throws IOException {
+        int rate = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        Router<HttpHandler> router = Router.<HttpHandler>builder().route("GET", "/slow", slowRoute()).build();
+        HttpServerSettings settings = HttpServerSettings.DEFAULT.withExecutionMode(ExecutionMode.PLATFORM_POOL)
+                .withPoolSize(64);
+
+        System.out.printf("%d requests/s for %d s against a capacity of %d requests/s%n", rate, seconds,
+                SLOTS * 1000 / SERVICE_MILLIS);
+        HttpServer unlimited = ApplicationHttpServer.start(new InetSocketAddress(0), settings, router);
+        try {
+            report("unlimited", run(unlimited, rate, seconds));
+        } finally {
+            unlimited.stop(0);
+        }
+        AdmissionController admission = new AdmissionController(AdmissionSettings.UNLIMITED,
+                MetricsRegistry.global(), "load-test")
+                .limit("GET", "/slow", AdmissionSettings.limit(SLOTS, 2 * SLOTS, 100));
+        HttpServer limited = ApplicationHttpServer.start(new InetSocketAddress(0), settings, router, admission);
+        try {
+            report("admission", run(limited, rate, seconds));
+        } finally {
+            limited.stop(0);
+        }
+    }
+
+    /**
+     * Stands for a handler waiting on a pool of {@value #SLOTS} database connections.
+     */
+    private static HttpHandler slowRoute() {
+        Semaphore connections = new Semaphore(SLOTS, true);
+        return exchange -> {
+            connections.acquireUninterruptibly();
+            try {
+                Thread.sleep(SERVICE_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                connections.release();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        };
+    }
+
+    /**
+     * @return the status, or 0 if the connection failed, and latency in microseconds of every request
+     */
+    private static List<long[]> run(HttpServer server, int rate, int seconds) {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + server.getAddress().getPort() + "/slow")).build();
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        List<CompletableFuture<long[]>> responses = new ArrayList<>();
+        for (int i = 0; i < rate * seconds; i++) {
+            long scheduled = start + i * interval;
+            LockSupport.parkNanos(scheduled - System.nanoTime());
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, failure) -> new long[] { failure == null ? response.statusCode() : 0,
+                            TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduled) }));
+        }
+        return responses.stream().map(CompletableFuture::join).toList();
+    }
+
+    private static void report(String name, List<long[]> results) {
+        for (int status : new int[] { 200, 503, 0 }) {
+            long[] latencies = results.stream().filter(result -> result[0] == status)
+                    .mapToLong(result -> result[1]).sorted().toArray();
+            if (latencies.length > 0) {
+                System.out.printf("%-10s %-6s %6d requests  p50 %8.1f ms  p99 %8.1f ms  max %8.1f ms%n", name,
+                        status == 0 ? "failed" : status, latencies.length,
+                        percentile(latencies, 0.5), percentile(latencies, 0.99),
+                        latencies[latencies.length - 1] / 1000.0);
+            }
+        }
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        return sorted[Math.max(0, (int) Math.ceil(quantile * sorted.length) - 1)] / 1000.0;
+    }
+}
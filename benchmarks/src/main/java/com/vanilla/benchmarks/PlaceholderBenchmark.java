@@ -0,0 +1,74 @@
+package com.vanilla.benchmarks;
+
+import com.vanilla.placeholder.PlaceholderResolver;
+import com.vanilla.placeholder.PlaceholderSource;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Resolves templated values with the regex replacement {@code ScalarResolver} used before
+ * {@link PlaceholderResolver}, with a warm resolver, and with a new resolver per round that compiles every text.
+ * Run with {@code -prof gc} to compare allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlaceholderBenchmark {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\$\\{([^:}]+)(?::([^}]*))?}");
+
+    private static final String[] TEXTS = {
+            "${X-BENCH-HOST:localhost}", "jdbc://${X-BENCH-HOST:localhost}:${X-BENCH-PORT:5432}/orders",
+            "${X-BENCH-MISSING:fallback}", "prefix-${X-BENCH-PORT}-suffix"
+    };
+
+    private final PlaceholderResolver resolver = new PlaceholderResolver(List.of(
+            PlaceholderSource.systemProperties(), PlaceholderSource.of(Map.of("X-BENCH-PORT", 6543))));
+
+    @Benchmark
+    public void legacyRegex(Blackhole blackhole) {
+        for (String text : TEXTS) {
+            Matcher matcher = PLACEHOLDER.matcher(text);
+            StringBuilder result = new StringBuilder();
+            while (matcher.find()) {
+                String value = System.getProperty(matcher.group(1));
+                String replacement = value != null ? value : matcher.group(2);
+                matcher.appendReplacement(result, Matcher.quoteReplacement(replacement == null ? "" : replacement));
+            }
+            matcher.appendTail(result);
+            blackhole.consume(result.toString());
+        }
+    }
+
+    @Benchmark
+    public void cachedResolver(Blackhole blackhole) {
+        for (String text : TEXTS) {
+            blackhole.consume(resolver.resolve(text));
+        }
+    }
+
+    @Benchmark
+    public void compilingResolver(Blackhole blackhole) {
+        PlaceholderResolver fresh = new PlaceholderResolver(List.of(PlaceholderSource.systemProperties(),
+                PlaceholderSource.of(Map.of("X-BENCH-PORT", 6543))));
+        for (String text : TEXTS) {
+            blackhole.consume(fresh.resolve(text));
+        }
+    }
+}
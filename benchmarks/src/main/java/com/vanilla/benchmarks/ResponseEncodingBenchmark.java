@@ -0,0 +1,66 @@
+package com.vanilla.benchmarks;
+
+import com.vanilla.httpServer.nio.HttpResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of producing one response: the per-request header concatenation and encoding the servers used to do, against
+ * a pre-encoded {@link HttpResponse}. Run with {@code -prof gc}; {@code gc.alloc.rate.norm} is the allocation per
+ * response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseEncodingBenchmark {
+
+    private static final String JSON = "{ \"message\": \"Hello world!\" }";
+
+    private final HttpResponse preEncoded = HttpResponse.json(200, JSON);
+    private final CountingOutputStream os = new CountingOutputStream();
+
+    @Benchmark
+    public long perRequestEncoding() throws IOException {
+        String httpHeaders = "HTTP/1.1 200 OK\r\n"
+                + "Content-Type: application/json\r\n"
+                + "Content-Length: " + JSON.length() + "\r\n"
+                + "\r\n";
+        os.write(httpHeaders.getBytes());
+        os.write(JSON.getBytes());
+        return os.count;
+    }
+
+    @Benchmark
+    public long preEncoded() throws IOException {
+        preEncoded.writeTo(os, true);
+        return os.count;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.vanilla.benchmarks;
+
+import com.vanilla.yamlParser.ScalarResolver;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScalarResolverBenchmark {
+
+    private static final String[] SCALARS = {
+            "value1", "42", "-7", "3.14159", "true", "False", "null", "\"This is a string\"", "'quoted'",
+            "value1  # trailing comment", "9223372036854775807", "service-name", "${X-BENCH:fallback}"
+    };
+
+    private final ScalarResolver scalarResolver = new ScalarResolver(valueString -> valueString);
+
+    @Benchmark
+    public void resolver(Blackhole blackhole) {
+        for (String scalar : SCALARS) {
+            blackhole.consume(scalarResolver.resolve(scalar));
+        }
+    }
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) {
+        for (String scalar : SCALARS) {
+            blackhole.consume(legacyParseValue(scalar));
+        }
+    }
+
+    /**
+     * The regex based typing {@code YamlParser.parseValue} used before {@link ScalarResolver}, minus the flow
+     * collections, kept here as the baseline.
+     */
+    private static Object legacyParseValue(String valueString) {
+        valueString = valueString.split("#")[0];
+
+        Matcher matcher = Pattern.compile("\\$\\{([^:}]+)(?::([^}]*))?}").matcher(valueString);
+        StringBuffer result = new StringBuffer();
+        while (matcher.find()) {
+            String envVarValue = System.getProperty(matcher.group(1));
+            String replacement = (envVarValue != null) ? envVarValue : matcher.group(2);
+            matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(result);
+        valueString = result.toString();
+
+        if (valueString.equalsIgnoreCase("null")) {
+            return null;
+        }
+        if (valueString.equalsIgnoreCase("true")) {
+            return true;
+        }
+        if (valueString.equalsIgnoreCase("false")) {
+            return false;
+        }
+        if (valueString.matches("-?\\d+")) {
+            try {
+                return Integer.parseInt(valueString);
+            } catch (NumberFormatException e) {
+                return Long.parseLong(valueString);
+            }
+        }
+        if (valueString.matches("-?\\d+\\.\\d+")) {
+            return Double.parseDouble(valueString);
+        }
+        if ((valueString.startsWith("'") && valueString.endsWith("'")) ||
+                (valueString.startsWith("\"") && valueString.endsWith("\""))) {
+            return valueString.substring(1, valueString.length() - 1);
+        }
+        return valueString.trim();
+    }
+}
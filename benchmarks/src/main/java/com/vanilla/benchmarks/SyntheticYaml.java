@@ -0,0 +1,65 @@
+package com.vanilla.benchmarks;
+
+/**
+ * Generates YAML documents shaped by the benchmark parameters, using only the syntax {@code YamlParser} supports.
+ */
+final class SyntheticYaml {
+
+    private SyntheticYaml() {
+    }
+
+    /**
+     * @param lines         approximate number of lines to produce
+     * @param depth         nesting depth of each top-level block, at least 1; anchors need at least 2
+     * @param anchorPercent share of top-level blocks declaring a block anchor that a sibling merges with
+     *                      {@code <<: *anchor}, and a scalar anchor that a sibling references with {@code *anchor}
+     * @param flow          whether leaves hold inline {@code [..]} lists and {@code {..}} maps instead of scalars
+     */
+    static String generate(int lines, int depth, int anchorPercent, boolean flow) {
+        StringBuilder yaml = new StringBuilder(lines * 24);
+        int written = 0;
+        for (int block = 0; written < lines; block++) {
+            boolean anchored = anchorPercent > 0 && depth > 1 && block % 100 < anchorPercent;
+            yaml.append("block").append(block).append(":\n");
+            written++;
+            String indent = "  ";
+            for (int level = 1; level < depth; level++) {
+                yaml.append(indent).append("level").append(level).append(":");
+                if (anchored && level == depth - 1) {
+                    yaml.append(" &defaults").append(block);
+                }
+                yaml.append('\n');
+                indent += "  ";
+                written++;
+            }
+            written += appendLeaves(yaml, indent, block, anchored, flow);
+            if (anchored) {
+                String siblingIndent = indent.substring(2);
+                yaml.append(siblingIndent).append("override:\n")
+                        .append(indent).append("<<: *defaults").append(block).append('\n')
+                        .append(indent).append("alias: *name").append(block).append('\n');
+                written += 3;
+            }
+        }
+        return yaml.toString();
+    }
+
+    private static int appendLeaves(StringBuilder yaml, String indent, int block, boolean anchored, boolean flow) {
+        yaml.append(indent).append("name: ");
+        if (anchored) {
+            yaml.append("&name").append(block).append(' ');
+        }
+        yaml.append("service-").append(block).append('\n');
+        yaml.append(indent).append("port: ").append(8000 + block % 1000).append('\n');
+        yaml.append(indent).append("ratio: 0.").append(block).append('\n');
+        yaml.append(indent).append("enabled: ").append(block % 2 == 0).append('\n');
+        if (flow) {
+            yaml.append(indent).append("tags: [alpha, beta, ").append(block).append(", 4.5]\n");
+            yaml.append(indent).append("limits: { cpu: 2, memory: 512, policy: strict }\n");
+        } else {
+            yaml.append(indent).append("tags: alpha-beta-").append(block).append('\n');
+            yaml.append(indent).append("limits: \"cpu=2,memory=512\"\n");
+        }
+        return 6;
+    }
+}
@@ -0,0 +1,200 @@
+package com.vanilla.benchmarks;
+
+import com.vanilla.httpServer.ApplicationTcpServer;
+import com.vanilla.httpServer.nio.NioHttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the blocking accept loop of {@link ApplicationTcpServer} with the {@link NioHttpServer} engine over
+ * loopback: a connection per request on both, then keep-alive and pipelined requests on the NIO engine.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class TcpServerBenchmark {
+
+    private static final int PIPELINE_DEPTH = 16;
+
+    private static final byte[] REQUEST = "GET /users HTTP/1.1\r\nHost: 127.0.0.1\r\n\r\n"
+            .getBytes(StandardCharsets.ISO_8859_1);
+
+    private static final byte[] CLOSING_REQUEST = "GET /users HTTP/1.1\r\nHost: 127.0.0.1\r\nConnection: close\r\n\r\n"
+            .getBytes(StandardCharsets.ISO_8859_1);
+
+    private static final byte[] PIPELINED_REQUESTS = pipelined();
+
+    @State(Scope.Benchmark)
+    public static class Servers {
+
+        ApplicationTcpServer blocking;
+        NioHttpServer nonBlocking;
+        private Thread acceptor;
+
+        @Setup(Level.Trial)
+        public void start() throws IOException {
+            blocking = new ApplicationTcpServer(0);
+            acceptor = new Thread(() -> {
+                try {
+                    blocking.serve();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }, "tcp-server");
+            acceptor.start();
+            nonBlocking = ApplicationTcpServer.startNonBlocking(
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                    Runtime.getRuntime().availableProcessors());
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() throws IOException, InterruptedException {
+            blocking.close();
+            acceptor.join();
+            nonBlocking.close();
+        }
+    }
+
+    /**
+     * One persistent connection per benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class KeepAliveClient {
+
+        Socket socket;
+        OutputStream os;
+        InputStream is;
+        final byte[] buffer = new byte[8 * 1024];
+
+        @Setup(Level.Trial)
+        public void connect(Servers servers) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), servers.nonBlocking.getPort());
+            socket.setTcpNoDelay(true);
+            os = socket.getOutputStream();
+            is = socket.getInputStream();
+        }
+
+        @TearDown(Level.Trial)
+        public void disconnect() throws IOException {
+            socket.close();
+        }
+
+        /**
+         * Reads {@code responses} complete responses, relying on their Content-Length.
+         */
+        int readResponses(int responses) throws IOException {
+            int total = 0;
+            int filled = 0;
+            int parsed = 0;
+            while (responses > 0) {
+                int read = is.read(buffer, filled, buffer.length - filled);
+                if (read < 0) {
+                    throw new IOException("Connection closed by the server");
+                }
+                filled += read;
+                int end;
+                while (responses > 0 && (end = responseEnd(buffer, parsed, filled)) > 0) {
+                    total += end - parsed;
+                    parsed = end;
+                    responses--;
+                }
+                System.arraycopy(buffer, parsed, buffer, 0, filled - parsed);
+                filled -= parsed;
+                parsed = 0;
+            }
+            return total;
+        }
+    }
+
+    @Benchmark
+    public int blockingConnectionPerRequest(Servers servers) throws IOException {
+        return connectionPerRequest(servers.blocking.getPort());
+    }
+
+    @Benchmark
+    public int nioConnectionPerRequest(Servers servers) throws IOException {
+        return connectionPerRequest(servers.nonBlocking.getPort());
+    }
+
+    @Benchmark
+    public int nioKeepAlive(KeepAliveClient client) throws IOException {
+        client.os.write(REQUEST);
+        return client.readResponses(1);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PIPELINE_DEPTH)
+    public int nioPipelined(KeepAliveClient client) throws IOException {
+        client.os.write(PIPELINED_REQUESTS);
+        return client.readResponses(PIPELINE_DEPTH);
+    }
+
+    private static int connectionPerRequest(int port) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            OutputStream os = socket.getOutputStream();
+            os.write(CLOSING_REQUEST);
+            os.flush();
+            InputStream is = socket.getInputStream();
+            byte[] buffer = new byte[512];
+            int total = 0;
+            for (int read; (read = is.read(buffer)) >= 0; ) {
+                total += read;
+            }
+            return total;
+        }
+    }
+
+    /**
+     * @return the offset just past the response starting at {@code from}, or -1 if it is not complete yet
+     */
+    private static int responseEnd(byte[] buffer, int from, int filled) {
+        int contentLength = 0;
+        int lineStart = from;
+        for (int i = from; i + 1 < filled; i++) {
+            if (buffer[i] != '\r' || buffer[i + 1] != '\n') {
+                continue;
+            }
+            if (i == lineStart) {
+                int end = i + 2 + contentLength;
+                return end <= filled ? end : -1;
+            }
+            String line = new String(buffer, lineStart, i - lineStart, StandardCharsets.ISO_8859_1);
+            if (line.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                contentLength = Integer.parseInt(line.substring(15).trim());
+            }
+            lineStart = i + 2;
+        }
+        return -1;
+    }
+
+    private static byte[] pipelined() {
+        byte[] requests = new byte[REQUEST.length * PIPELINE_DEPTH];
+        for (int i = 0; i < PIPELINE_DEPTH; i++) {
+            System.arraycopy(REQUEST, 0, requests, i * REQUEST.length, REQUEST.length);
+        }
+        return requests;
+    }
+}
@@ -0,0 +1,66 @@
+package com.vanilla.benchmarks;
+
+import com.vanilla.yamlParser.YamlParser;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class YamlParserBenchmark {
+
+    @Param({ "1000", "10000", "100000" })
+    public int lines;
+
+    @Param({ "2", "8" })
+    public int depth;
+
+    @Param({ "0", "25" })
+    public int anchorPercent;
+
+    @Param({ "false", "true" })
+    public boolean flow;
+
+    private final YamlParser yamlParser = new YamlParser();
+    private String document;
+
+    @Setup
+    public void generate() {
+        document = SyntheticYaml.generate(lines, depth, anchorPercent, flow);
+    }
+
+    @Benchmark
+    public Map<String, Object> parseString() {
+        return yamlParser.parseYaml(document);
+    }
+
+    @Benchmark
+    public Map<String, Object> parseReader() throws IOException {
+        return yamlParser.parseYaml(new StringReader(document));
+    }
+
+    /**
+     * Splits the document at top-level keys and parses the chunks on the common pool; compare with
+     * {@link #parseString()} at {@code -p lines=100000} on a machine with several cores.
+     */
+    @Benchmark
+    public Map<String, Object> parseParallel() {
+        return yamlParser.parseYamlParallel(document);
+    }
+}
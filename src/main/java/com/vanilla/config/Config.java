@@ -0,0 +1,413 @@
+package com.vanilla.config;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable snapshot of a flattened YAML document, as returned by
+ * {@link com.vanilla.yamlParser.YamlParser#parseYaml(String)}.
+ *
+ * <p>Keys are kept sorted in one array, so every subtree ({@code app.endpoint} and everything below it) is a
+ * contiguous range found by binary search, and an open-addressing hash index over the same array answers exact
+ * lookups in O(1). Numbers and booleans are also stored unboxed, so {@link #getInt}, {@link #getLong},
+ * {@link #getDouble} and {@link #getBoolean} neither box nor cast. String values are only converted when a typed
+ * getter asks for them.
+ *
+ * <p>{@link #subtree(String)} views share the arrays of the snapshot and are created on first use. The snapshot is
+ * never modified after {@link #of(Map)}, so it can be read from any number of threads without locking.
+ */
+public final class Config {
+
+    private static final byte OBJECT = 0;
+    private static final byte INTEGRAL = 1;
+    private static final byte FLOATING = 2;
+    private static final byte BOOLEAN = 3;
+
+    private final Store store;
+    private final String prefix;
+    private final String path;
+    private final int prefixHash;
+    private final int from;
+    private final int to;
+
+    private Config(Store store, String prefix, int from, int to) {
+        this.store = store;
+        this.prefix = prefix;
+        this.path = prefix.isEmpty() ? "" : prefix.substring(0, prefix.length() - 1);
+        this.prefixHash = prefix.hashCode();
+        this.from = from;
+        this.to = to;
+    }
+
+    public static Config of(Map<String, ?> flattened) {
+        Store store = new Store(flattened);
+        return new Config(store, "", 0, store.keys.length);
+    }
+
+    public static Config empty() {
+        return of(Map.of());
+    }
+
+    public int size() {
+        return to - from;
+    }
+
+    public boolean isEmpty() {
+        return from == to;
+    }
+
+    public boolean contains(String key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * @return the value as parsed, {@code null} when it is missing or explicitly null
+     */
+    public Object get(String key) {
+        int index = indexOf(key);
+        return index < 0 ? null : store.values[index];
+    }
+
+    public String getString(String key) {
+        return String.valueOf(valueAt(require(key)));
+    }
+
+    public String getString(String key, String defaultValue) {
+        int index = indexOf(key);
+        return index < 0 ? defaultValue : String.valueOf(valueAt(index));
+    }
+
+    public int getInt(String key) {
+        return intAt(require(key), key);
+    }
+
+    public int getInt(String key, int defaultValue) {
+        int index = indexOf(key);
+        return index < 0 ? defaultValue : intAt(index, key);
+    }
+
+    public long getLong(String key) {
+        return longAt(require(key), key);
+    }
+
+    public long getLong(String key, long defaultValue) {
+        int index = indexOf(key);
+        return index < 0 ? defaultValue : longAt(index, key);
+    }
+
+    public double getDouble(String key) {
+        return doubleAt(require(key), key);
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        int index = indexOf(key);
+        return index < 0 ? defaultValue : doubleAt(index, key);
+    }
+
+    public boolean getBoolean(String key) {
+        return booleanAt(require(key), key);
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        int index = indexOf(key);
+        return index < 0 ? defaultValue : booleanAt(index, key);
+    }
+
+    /**
+     * @return the entries below {@code path}, keyed relative to it; empty when there are none. Views with entries
+     *         are kept and shared; there are at most as many as there are key prefixes, while empty views are
+     *         created anew so that lookups of missing paths leave nothing behind.
+     */
+    public Config subtree(String path) {
+        String absolute = prefix + path + ".";
+        Config cached = store.subtrees.get(absolute);
+        if (cached != null) {
+            return cached;
+        }
+        Config subtree = range(path, absolute);
+        if (subtree.isEmpty()) {
+            return subtree;
+        }
+        Config raced = store.subtrees.putIfAbsent(absolute, subtree);
+        return raced == null ? subtree : raced;
+    }
+
+    /**
+     * Like {@link #subtree(String)}, but never keeps the view, for paths that come from outside, such as a request
+     * path, and may each be asked for only once.
+     */
+    public Config subtreeUncached(String path) {
+        String absolute = prefix + path + ".";
+        Config cached = store.subtrees.get(absolute);
+        return cached != null ? cached : range(path, absolute);
+    }
+
+    private Config range(String path, String absolute) {
+        int start = store.lowerBound(absolute, from, to);
+        int end = store.lowerBound(prefix + path + "/", start, to);
+        return new Config(store, absolute, start, end);
+    }
+
+    /**
+     * Builds a record from the entries of this view, one component per key, converting and checking every value
+     * against the component's type. What a record class needs is looked up once and kept, so binding costs about
+     * as much as the lookups it replaces.
+     *
+     * @throws IllegalArgumentException if a value does not fit its component, if the record's constructor rejects
+     *                                  the values, or if {@code type} has components that cannot be bound
+     * @see #bind(String, Class)
+     */
+    public <T extends Record> T bind(Class<T> type) {
+        return type.cast(ConfigBinding.of(type).bind(this, path));
+    }
+
+    /**
+     * Binds the subtree below {@code path}, e.g. {@code config.bind("app.http", HttpSettings.class)}, to a record:
+     * a component {@code poolSize} reads {@code app.http.poolSize} or {@code app.http.pool-size}, nested records
+     * read the blocks below their key, and lists and maps read sequences and blocks of values or of records.
+     */
+    public <T extends Record> T bind(String path, Class<T> type) {
+        return subtree(path).bind(type);
+    }
+
+    /**
+     * @return the keys of this view, relative to it, in sorted order
+     */
+    public List<String> keys() {
+        return new AbstractList<>() {
+            @Override
+            public String get(int index) {
+                return store.keys[from + index].substring(prefix.length());
+            }
+
+            @Override
+            public int size() {
+                return to - from;
+            }
+        };
+    }
+
+    /**
+     * @return a read-only, sorted map view of this snapshot with relative keys
+     */
+    public Map<String, Object> asMap() {
+        return new AbstractMap<>() {
+            @Override
+            public Set<Entry<String, Object>> entrySet() {
+                return new AbstractSet<>() {
+                    @Override
+                    public Iterator<Entry<String, Object>> iterator() {
+                        return new Iterator<>() {
+                            private int index = from;
+
+                            @Override
+                            public boolean hasNext() {
+                                return index < to;
+                            }
+
+                            @Override
+                            public Entry<String, Object> next() {
+                                if (index >= to) {
+                                    throw new NoSuchElementException();
+                                }
+                                int current = index++;
+                                return new SimpleImmutableEntry<>(store.keys[current].substring(prefix.length()),
+                                        store.values[current]);
+                            }
+                        };
+                    }
+
+                    @Override
+                    public int size() {
+                        return to - from;
+                    }
+                };
+            }
+
+            @Override
+            public Object get(Object key) {
+                return key instanceof String text ? Config.this.get(text) : null;
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return key instanceof String text && contains(text);
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return asMap().toString();
+    }
+
+    private int require(String key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            throw new NoSuchElementException("No config value for '" + prefix + key + "'");
+        }
+        return index;
+    }
+
+    private Object valueAt(int index) {
+        return store.values[index];
+    }
+
+    /**
+     * Looks {@code prefix + key} up without concatenating: the hash of the full key is derived from the cached hash
+     * of the prefix, and candidates are compared in two regions.
+     */
+    private int indexOf(String key) {
+        int hash = prefixHash;
+        for (int i = 0; i < key.length(); i++) {
+            hash = 31 * hash + key.charAt(i);
+        }
+        int length = prefix.length() + key.length();
+        int[] table = store.table;
+        int mask = table.length - 1;
+        for (int slot = mix(hash) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int index = table[slot] - 1;
+            String candidate = store.keys[index];
+            if (store.hashes[index] == hash && candidate.length() == length
+                    && candidate.startsWith(prefix)
+                    && candidate.regionMatches(prefix.length(), key, 0, key.length())) {
+                return index >= from && index < to ? index : -1;
+            }
+        }
+        return -1;
+    }
+
+    private int intAt(int index, String key) {
+        long value = longAt(index, key);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Config value '" + prefix + key + "' does not fit an int: " + value);
+        }
+        return (int) value;
+    }
+
+    private long longAt(int index, String key) {
+        return switch (store.tags[index]) {
+            case INTEGRAL -> store.bits[index];
+            case OBJECT -> {
+                if (store.values[index] instanceof String text) {
+                    yield Long.parseLong(text.trim());
+                }
+                throw typeMismatch(index, key, "a long");
+            }
+            default -> throw typeMismatch(index, key, "a long");
+        };
+    }
+
+    private double doubleAt(int index, String key) {
+        return switch (store.tags[index]) {
+            case INTEGRAL -> store.bits[index];
+            case FLOATING -> Double.longBitsToDouble(store.bits[index]);
+            case OBJECT -> {
+                if (store.values[index] instanceof String text) {
+                    yield Double.parseDouble(text.trim());
+                }
+                throw typeMismatch(index, key, "a double");
+            }
+            default -> throw typeMismatch(index, key, "a double");
+        };
+    }
+
+    private boolean booleanAt(int index, String key) {
+        return switch (store.tags[index]) {
+            case BOOLEAN -> store.bits[index] != 0;
+            case OBJECT -> {
+                if (store.values[index] instanceof String text) {
+                    if ("true".equalsIgnoreCase(text.trim())) {
+                        yield true;
+                    }
+                    if ("false".equalsIgnoreCase(text.trim())) {
+                        yield false;
+                    }
+                }
+                throw typeMismatch(index, key, "a boolean");
+            }
+            default -> throw typeMismatch(index, key, "a boolean");
+        };
+    }
+
+    private IllegalArgumentException typeMismatch(int index, String key, String expected) {
+        return new IllegalArgumentException("Config value '" + prefix + key + "' is not " + expected + ": "
+                + store.values[index]);
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * The arrays shared by a snapshot and all its subtree views.
+     */
+    private static final class Store {
+
+        final String[] keys;
+        final int[] hashes;
+        final Object[] values;
+        final byte[] tags;
+        final long[] bits;
+        final int[] table;
+        final Map<String, Config> subtrees = new ConcurrentHashMap<>();
+
+        Store(Map<String, ?> flattened) {
+            keys = flattened.keySet().toArray(String[]::new);
+            Arrays.sort(keys);
+            int size = keys.length;
+            hashes = new int[size];
+            values = new Object[size];
+            tags = new byte[size];
+            bits = new long[size];
+            table = new int[Math.max(2, Integer.highestOneBit(Math.max(1, size) * 2 - 1) << 1)];
+            int mask = table.length - 1;
+            for (int i = 0; i < size; i++) {
+                Object value = flattened.get(keys[i]);
+                hashes[i] = keys[i].hashCode();
+                values[i] = value;
+                if (value instanceof Integer || value instanceof Long || value instanceof Short
+                        || value instanceof Byte) {
+                    tags[i] = INTEGRAL;
+                    bits[i] = ((Number) value).longValue();
+                } else if (value instanceof Double || value instanceof Float) {
+                    tags[i] = FLOATING;
+                    bits[i] = Double.doubleToRawLongBits(((Number) value).doubleValue());
+                } else if (value instanceof Boolean flag) {
+                    tags[i] = BOOLEAN;
+                    bits[i] = flag ? 1 : 0;
+                }
+                int slot = mix(hashes[i]) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = i + 1;
+            }
+        }
+
+        /**
+         * @return the first index in {@code [from, to)} whose key is not below {@code key}
+         */
+        int lowerBound(String key, int from, int to) {
+            int low = from;
+            int high = to;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (keys[middle].compareTo(key) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
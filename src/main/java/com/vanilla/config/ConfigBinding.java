@@ -0,0 +1,344 @@
+package com.vanilla.config;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * How {@link Config#bind(Class)} builds a record: a converter per component, chosen from its declared type, and the
+ * canonical constructor as a {@link MethodHandle} taking an argument array, set up once per record class. A record
+ * whose components cannot be bound is rejected when its binding is created, before any value is read.
+ *
+ * <p>A component {@code poolSize} is read from the key {@code poolSize} or, failing that, {@code pool-size}.
+ * Supported are primitives and their boxes, {@code String}, enums (by name, ignoring case and with {@code -} for
+ * {@code _}), nested records, {@code List}s and {@code Map}s with {@code String} keys of any of these, and
+ * {@code Object} or a type variable, which takes the value as parsed or the subtree as a map. A missing value leaves
+ * a component at {@code 0}, {@code false} or {@code null}, for the record's constructor to check.
+ */
+final class ConfigBinding {
+
+    private static final ClassValue<ConfigBinding> BINDINGS = new ClassValue<>() {
+        @Override
+        protected ConfigBinding computeValue(Class<?> type) {
+            return new ConfigBinding(type);
+        }
+    };
+
+    private final Class<?> type;
+    private final String[] names;
+    private final String[] kebabNames;
+    private final Converter[] converters;
+    private final boolean[] blocks;
+    private final MethodHandle constructor;
+
+    private ConfigBinding(Class<?> type) {
+        if (!type.isRecord()) {
+            throw new IllegalArgumentException("Cannot bind config to " + type.getName() + ", which is not a record");
+        }
+        RecordComponent[] components = type.getRecordComponents();
+        Class<?>[] parameterTypes = new Class<?>[components.length];
+        this.type = type;
+        this.names = new String[components.length];
+        this.kebabNames = new String[components.length];
+        this.converters = new Converter[components.length];
+        this.blocks = new boolean[components.length];
+        for (int i = 0; i < components.length; i++) {
+            names[i] = components[i].getName();
+            kebabNames[i] = kebabCase(names[i]);
+            parameterTypes[i] = components[i].getType();
+            converters[i] = converter(components[i].getGenericType());
+            blocks[i] = readsBlocks(components[i].getGenericType());
+        }
+        try {
+            Constructor<?> canonical = type.getDeclaredConstructor(parameterTypes);
+            canonical.setAccessible(true);
+            constructor = MethodHandles.lookup().unreflectConstructor(canonical)
+                    .asSpreader(Object[].class, components.length)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException("Record " + type.getName() + " has no accessible canonical constructor",
+                    e);
+        }
+    }
+
+    static ConfigBinding of(Class<?> type) {
+        return BINDINGS.get(type);
+    }
+
+    /**
+     * @param path the absolute path of {@code config}, for error messages
+     */
+    Object bind(Config config, String path) {
+        Object[] arguments = new Object[names.length];
+        for (int i = 0; i < names.length; i++) {
+            String key = names[i];
+            Object raw = lookup(config, key, blocks[i]);
+            if (raw == null && kebabNames[i] != null) {
+                key = kebabNames[i];
+                raw = lookup(config, key, blocks[i]);
+            }
+            arguments[i] = converters[i].convert(raw, path, key);
+        }
+        try {
+            return constructor.invokeExact(arguments);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid " + type.getSimpleName() + " at '" + path + "': "
+                    + e.getMessage(), e);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot create " + type.getName(), e);
+        }
+    }
+
+    /**
+     * @param blocks whether the component can be read from the block below {@code key}; scalars skip the subtree
+     *               lookup, which creates and keeps a view
+     * @return the value of {@code key}, else its subtree, else {@code null}
+     */
+    private static Object lookup(Config config, String key, boolean blocks) {
+        Object value = config.get(key);
+        if (value != null || !blocks) {
+            return value;
+        }
+        Config subtree = config.subtree(key);
+        return subtree.isEmpty() ? null : subtree;
+    }
+
+    private static boolean readsBlocks(Type type) {
+        if (type instanceof ParameterizedType parameterized) {
+            return readsBlocks(parameterized.getRawType());
+        }
+        return !(type instanceof Class<?> target) || target == Object.class || target == Map.class
+                || target.isRecord();
+    }
+
+    /**
+     * Converts a value as parsed, a {@link Config} subtree or a map within a sequence to a component type.
+     */
+    private interface Converter {
+        Object convert(Object raw, String parent, String key);
+    }
+
+    private static Converter converter(Type type) {
+        if (type instanceof TypeVariable<?> || type instanceof WildcardType || type == Object.class) {
+            return (raw, parent, key) -> raw instanceof Config subtree ? subtree.asMap() : raw;
+        }
+        if (type instanceof ParameterizedType parameterized) {
+            Class<?> raw = (Class<?>) parameterized.getRawType();
+            Type[] arguments = parameterized.getActualTypeArguments();
+            if (raw == List.class || raw == Collection.class || raw == Iterable.class) {
+                return listConverter(converter(arguments[0]));
+            }
+            if (raw == Map.class && arguments[0] == String.class) {
+                return mapConverter(converter(arguments[1]));
+            }
+            if (raw.isRecord()) {
+                return converter(raw);
+            }
+        }
+        if (type instanceof Class<?> target) {
+            if (target == int.class || target == Integer.class) {
+                return number(target.isPrimitive() ? 0 : null, "an int", value -> {
+                    if (value instanceof Integer) {
+                        return value;
+                    }
+                    long number = value.longValue();
+                    return isIntegral(value) && number >= Integer.MIN_VALUE && number <= Integer.MAX_VALUE
+                            ? (Object) (int) number : null;
+                });
+            }
+            if (target == long.class || target == Long.class) {
+                return number(target.isPrimitive() ? 0L : null, "a long",
+                        value -> value instanceof Long ? value : isIntegral(value) ? (Object) value.longValue() : null);
+            }
+            if (target == double.class || target == Double.class) {
+                return number(target.isPrimitive() ? 0.0 : null, "a double",
+                        value -> value instanceof Double ? value : (Object) value.doubleValue());
+            }
+            if (target == boolean.class || target == Boolean.class) {
+                Object missing = target.isPrimitive() ? false : null;
+                return (raw, parent, key) -> {
+                    if (raw == null) {
+                        return missing;
+                    }
+                    if (raw instanceof Boolean) {
+                        return raw;
+                    }
+                    if (raw instanceof String text
+                            && ("true".equalsIgnoreCase(text.trim()) || "false".equalsIgnoreCase(text.trim()))) {
+                        return Boolean.parseBoolean(text.trim());
+                    }
+                    throw mismatch(join(parent, key), "a boolean", raw);
+                };
+            }
+            if (target == String.class) {
+                return (raw, parent, key) -> {
+                    if (raw instanceof Config || raw instanceof Map || raw instanceof Collection) {
+                        throw mismatch(join(parent, key), "a string", raw);
+                    }
+                    return raw == null ? null : raw.toString();
+                };
+            }
+            if (target.isEnum()) {
+                return enumConverter(target);
+            }
+            if (target.isRecord()) {
+                return (raw, parent, key) -> {
+                    String path = join(parent, key);
+                    if (raw instanceof Config subtree) {
+                        return of(target).bind(subtree, path);
+                    }
+                    if (raw instanceof Map<?, ?> map) {
+                        return of(target).bind(Config.of(stringKeys(map, path)), path);
+                    }
+                    if (raw != null && !"".equals(raw)) {
+                        throw mismatch(path, "a " + target.getSimpleName() + " block", raw);
+                    }
+                    return null;
+                };
+            }
+            if (target == List.class || target == Map.class) {
+                return converter(Object.class);
+            }
+        }
+        throw new IllegalArgumentException("Cannot bind config to a component of type " + type.getTypeName());
+    }
+
+    private static Converter listConverter(Converter elements) {
+        return (raw, parent, key) -> {
+            if (raw == null) {
+                return null;
+            }
+            String path = join(parent, key);
+            if (!(raw instanceof List<?> list)) {
+                throw mismatch(path, "a list", raw);
+            }
+            List<Object> converted = new ArrayList<>(list.size());
+            for (int i = 0; i < list.size(); i++) {
+                converted.add(elements.convert(list.get(i), path, String.valueOf(i)));
+            }
+            return List.copyOf(converted);
+        };
+    }
+
+    private static Converter mapConverter(Converter values) {
+        return (raw, parent, key) -> {
+            if (raw == null) {
+                return null;
+            }
+            String path = join(parent, key);
+            Map<String, Object> converted = new LinkedHashMap<>();
+            if (raw instanceof Config subtree) {
+                for (String child : subtree.keys()) {
+                    int dot = child.indexOf('.');
+                    String name = dot < 0 ? child : child.substring(0, dot);
+                    if (!converted.containsKey(name)) {
+                        converted.put(name, values.convert(lookup(subtree, name, true), path, name));
+                    }
+                }
+            } else if (raw instanceof Map<?, ?> map) {
+                stringKeys(map, path).forEach((name, value) -> converted.put(name, values.convert(value, path, name)));
+            } else {
+                throw mismatch(path, "a map", raw);
+            }
+            return converted;
+        };
+    }
+
+    private static Converter enumConverter(Class<?> target) {
+        Object[] constants = target.getEnumConstants();
+        return (raw, parent, key) -> {
+            if (raw == null) {
+                return null;
+            }
+            String name = raw.toString().trim().replace('-', '_');
+            for (Object constant : constants) {
+                if (((Enum<?>) constant).name().equalsIgnoreCase(name)) {
+                    return constant;
+                }
+            }
+            throw mismatch(join(parent, key), "one of " + List.of(constants), raw);
+        };
+    }
+
+    /**
+     * Accepts numbers as parsed and numeric strings, such as a resolved {@code ${PORT}}. Values that are already of
+     * the component's box are passed on as they are.
+     *
+     * @param conversion gives the converted box, or {@code null} if the number does not fit
+     */
+    private static Converter number(Object missing, String expected, Function<Number, Object> conversion) {
+        return (raw, parent, key) -> {
+            if (raw == null) {
+                return missing;
+            }
+            Object converted = null;
+            if (raw instanceof Number number) {
+                converted = conversion.apply(number);
+            } else if (raw instanceof String text) {
+                try {
+                    String trimmed = text.trim();
+                    converted = conversion.apply(trimmed.indexOf('.') < 0 ? (Number) Long.parseLong(trimmed)
+                            : (Number) Double.parseDouble(trimmed));
+                } catch (NumberFormatException e) {
+                    // reported below
+                }
+            }
+            if (converted == null) {
+                throw mismatch(join(parent, key), expected, raw);
+            }
+            return converted;
+        };
+    }
+
+    private static boolean isIntegral(Number value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> stringKeys(Map<?, ?> map, String path) {
+        for (Object key : map.keySet()) {
+            if (!(key instanceof String)) {
+                throw mismatch(path, "a map with string keys", map);
+            }
+        }
+        return (Map<String, Object>) map;
+    }
+
+    private static IllegalArgumentException mismatch(String path, String expected, Object value) {
+        return new IllegalArgumentException("Config value '" + path + "' is not " + expected + ": " + value);
+    }
+
+    private static String join(String parent, String key) {
+        return parent.isEmpty() ? key : parent + "." + key;
+    }
+
+    /**
+     * @return {@code poolSize} as {@code pool-size}, or {@code null} for a name without capitals
+     */
+    private static String kebabCase(String name) {
+        StringBuilder kebab = new StringBuilder(name.length() + 4);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c)) {
+                kebab.append('-').append(Character.toLowerCase(c));
+            } else {
+                kebab.append(c);
+            }
+        }
+        return kebab.length() == name.length() ? null : kebab.toString();
+    }
+}
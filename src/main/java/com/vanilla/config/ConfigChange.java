@@ -0,0 +1,38 @@
+package com.vanilla.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The difference between two snapshots, as seen by a {@link ConfigWatcher} listener. Key lists are absolute and
+ * sorted, and only hold keys under the prefix the listener subscribed to.
+ */
+public record ConfigChange(Config previous, Config current, List<String> added, List<String> removed,
+        List<String> modified) {
+
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && modified.isEmpty();
+    }
+
+    /**
+     * @return the part of this change at or below {@code prefix}, the whole change for an empty prefix
+     */
+    ConfigChange under(String prefix) {
+        if (prefix.isEmpty()) {
+            return this;
+        }
+        return new ConfigChange(previous, current, filter(added, prefix), filter(removed, prefix),
+                filter(modified, prefix));
+    }
+
+    private static List<String> filter(List<String> keys, String prefix) {
+        List<String> filtered = new ArrayList<>();
+        for (String key : keys) {
+            if (key.startsWith(prefix)
+                    && (key.length() == prefix.length() || key.charAt(prefix.length()) == '.')) {
+                filtered.add(key);
+            }
+        }
+        return filtered;
+    }
+}
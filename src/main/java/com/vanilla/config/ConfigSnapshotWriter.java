@@ -0,0 +1,176 @@
+package com.vanilla.config;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes a flattened document in the layout read by {@link MappedConfig}:
+ *
+ * <pre>
+ * header   magic, version, 32-byte source hash, entry count, slot count, offset of the values
+ * slots    int per slot: entry index + 1 of an open-addressing table over the key hashes, 0 when free
+ * entries  per key, in key order: key hash, string offset of the key, offset of the value
+ * strings  every distinct key and string value once: byte length, UTF-8 bytes
+ * values   tag byte, then 4 or 8 bytes, a string offset (relative to the strings) or the elements of a flow list
+ *          or map
+ * </pre>
+ */
+final class ConfigSnapshotWriter {
+
+    static final int MAGIC = 0x56434647;
+    static final int VERSION = 1;
+    static final int HASH_LENGTH = 32;
+    static final int HEADER_LENGTH = 4 + 4 + HASH_LENGTH + 4 + 4 + 4;
+    static final int ENTRY_LENGTH = 12;
+
+    static final byte NULL = 0;
+    static final byte STRING = 1;
+    static final byte INT = 2;
+    static final byte LONG = 3;
+    static final byte DOUBLE = 4;
+    static final byte FLOAT = 5;
+    static final byte TRUE = 6;
+    static final byte FALSE = 7;
+    static final byte TIMESTAMP = 8;
+    static final byte LIST = 9;
+    static final byte MAP = 10;
+
+    private final ByteArrayOutputStream stringBytes = new ByteArrayOutputStream();
+    private final DataOutputStream strings = new DataOutputStream(stringBytes);
+    private final Map<String, Integer> interned = new HashMap<>();
+    private final ByteArrayOutputStream valueBytes = new ByteArrayOutputStream();
+    private final DataOutputStream values = new DataOutputStream(valueBytes);
+
+    private ConfigSnapshotWriter() {
+    }
+
+    /**
+     * Writes next to {@code target} and renames into place, so a reader never maps a half-written file.
+     *
+     * @throws IllegalArgumentException if a value is not one the YAML parser produces
+     */
+    static void write(Map<String, ?> flattened, byte[] sourceHash, Path target) throws IOException {
+        if (sourceHash.length != HASH_LENGTH) {
+            throw new IllegalArgumentException("Expected a " + HASH_LENGTH + "-byte source hash");
+        }
+        Path temporary = Files.createTempFile(target.toAbsolutePath().getParent(), ".snapshot", ".tmp");
+        try {
+            try (OutputStream file = Files.newOutputStream(temporary)) {
+                new ConfigSnapshotWriter().encode(flattened, sourceHash, file);
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private void encode(Map<String, ?> flattened, byte[] sourceHash, OutputStream file) throws IOException {
+        String[] keys = flattened.keySet().toArray(String[]::new);
+        Arrays.sort(keys);
+        int slots = Math.max(2, Integer.highestOneBit(Math.max(1, keys.length) * 2 - 1) << 1);
+        int[] table = new int[slots];
+        int[] entries = new int[keys.length * 3];
+        for (int i = 0; i < keys.length; i++) {
+            int hash = keys[i].hashCode();
+            int slot = MappedConfig.mix(hash) & (slots - 1);
+            while (table[slot] != 0) {
+                slot = (slot + 1) & (slots - 1);
+            }
+            table[slot] = i + 1;
+            entries[i * 3] = hash;
+            entries[i * 3 + 1] = intern(keys[i]);
+            entries[i * 3 + 2] = values.size();
+            writeValue(keys[i], flattened.get(keys[i]));
+        }
+
+        int stringsOffset = HEADER_LENGTH + slots * 4 + keys.length * ENTRY_LENGTH;
+        int valuesOffset = stringsOffset + strings.size();
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.write(sourceHash);
+        out.writeInt(keys.length);
+        out.writeInt(slots);
+        out.writeInt(valuesOffset);
+        for (int slot : table) {
+            out.writeInt(slot);
+        }
+        for (int i = 0; i < entries.length; i += 3) {
+            out.writeInt(entries[i]);
+            out.writeInt(stringsOffset + entries[i + 1]);
+            out.writeInt(valuesOffset + entries[i + 2]);
+        }
+        stringBytes.writeTo(out);
+        valueBytes.writeTo(out);
+        out.flush();
+    }
+
+    /**
+     * @return the offset of {@code text} in the string region, appending it the first time it is seen
+     */
+    private int intern(String text) throws IOException {
+        Integer offset = interned.get(text);
+        if (offset == null) {
+            offset = strings.size();
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            strings.writeInt(bytes.length);
+            strings.write(bytes);
+            interned.put(text, offset);
+        }
+        return offset;
+    }
+
+    private void writeValue(String key, Object value) throws IOException {
+        if (value == null) {
+            values.writeByte(NULL);
+        } else if (value instanceof String text) {
+            values.writeByte(STRING);
+            values.writeInt(intern(text));
+        } else if (value instanceof Integer number) {
+            values.writeByte(INT);
+            values.writeInt(number);
+        } else if (value instanceof Long number) {
+            values.writeByte(LONG);
+            values.writeLong(number);
+        } else if (value instanceof Double number) {
+            values.writeByte(DOUBLE);
+            values.writeDouble(number);
+        } else if (value instanceof Float number) {
+            values.writeByte(FLOAT);
+            values.writeFloat(number);
+        } else if (value instanceof Boolean flag) {
+            values.writeByte(flag ? TRUE : FALSE);
+        } else if (value instanceof LocalDateTime timestamp) {
+            values.writeByte(TIMESTAMP);
+            values.writeInt(intern(timestamp.toString()));
+        } else if (value instanceof List<?> list) {
+            values.writeByte(LIST);
+            values.writeInt(list.size());
+            for (Object element : list) {
+                writeValue(key, element);
+            }
+        } else if (value instanceof Map<?, ?> map) {
+            values.writeByte(MAP);
+            values.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                values.writeInt(intern(String.valueOf(entry.getKey())));
+                writeValue(key, entry.getValue());
+            }
+        } else {
+            throw new IllegalArgumentException("Cannot store " + value.getClass().getName() + " value of '" + key
+                    + "' in a config snapshot");
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.vanilla.config;
+
+import com.vanilla.yamlParser.IncrementalYamlParser;
+import com.vanilla.yamlParser.YamlParser;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Keeps a {@link Config} of a YAML file up to date. A daemon thread watches the file's directory, re-parses the
+ * file off to the side when it changes and swaps the new snapshot in with a single atomic write, so
+ * {@link #current()} never blocks and never sees a partially parsed document. Re-parsing goes through an
+ * {@link IncrementalYamlParser}, so only the edited top-level blocks are parsed again. A file that fails to parse,
+ * e.g. while an editor is still writing it, leaves the previous snapshot in place.
+ *
+ * <p>Listeners subscribe to a key prefix and are called on the watcher thread with the keys added, removed or
+ * modified below it; reloads that change nothing under the prefix are not reported.
+ */
+public class ConfigWatcher implements Closeable {
+
+    private static final long SETTLE_MILLIS = 50;
+
+    private final Path file;
+    private final IncrementalYamlParser yamlParser;
+    private final AtomicReference<Config> current = new AtomicReference<>();
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final WatchService watchService;
+    private Thread thread;
+
+    public ConfigWatcher(Path file) throws IOException {
+        this(file, new YamlParser());
+    }
+
+    /**
+     * Parses the file once; nothing is watched before {@link #start()}.
+     */
+    public ConfigWatcher(Path file, YamlParser yamlParser) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.yamlParser = new IncrementalYamlParser(yamlParser);
+        this.current.set(Config.of(this.yamlParser.parse(Files.readString(this.file)).map()));
+        this.watchService = FileSystems.getDefault().newWatchService();
+    }
+
+    public Config current() {
+        return current.get();
+    }
+
+    /**
+     * @param prefix   a dotted key such as {@code app.http}, or {@code ""} for every key
+     * @return a handle whose {@link Closeable#close()} unsubscribes the listener
+     */
+    public Closeable subscribe(String prefix, Consumer<ConfigChange> listener) {
+        Subscription subscription = new Subscription(prefix, listener);
+        subscriptions.add(subscription);
+        return () -> subscriptions.remove(subscription);
+    }
+
+    public synchronized ConfigWatcher start() throws IOException {
+        if (thread == null) {
+            file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            thread = new Thread(this::watch, "config-watcher-" + file.getFileName());
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return this;
+    }
+
+    /**
+     * Re-parses the file now, swaps the snapshot and notifies the listeners of what changed.
+     */
+    public synchronized void reload() throws IOException {
+        IncrementalYamlParser.Result result = yamlParser.parse(Files.readString(file));
+        if (result.isUnchanged()) {
+            return;
+        }
+        Config next = Config.of(result.map());
+        Config previous = current.getAndSet(next);
+        ConfigChange change = new ConfigChange(previous, next, sorted(result.added()), sorted(result.removed()),
+                sorted(result.modified()));
+        for (Subscription subscription : subscriptions) {
+            ConfigChange scoped = change.under(subscription.prefix);
+            if (!scoped.isEmpty()) {
+                try {
+                    subscription.listener.accept(scoped);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    private static List<String> sorted(Collection<String> keys) {
+        List<String> sorted = new ArrayList<>(keys);
+        sorted.sort(null);
+        return sorted;
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                do {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        changed |= file.getFileName().equals(event.context());
+                    }
+                    key.reset();
+                    // editors often write in several steps: wait until the directory is quiet
+                } while ((key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null);
+                if (changed) {
+                    try {
+                        reload();
+                    } catch (IOException | RuntimeException e) {
+                        System.err.println("Keeping the previous configuration, " + file + " could not be parsed: "
+                                + e);
+                    }
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // closed
+        }
+    }
+
+    private record Subscription(String prefix, Consumer<ConfigChange> listener) {
+    }
+}
@@ -0,0 +1,409 @@
+package com.vanilla.config;
+
+import static com.vanilla.config.ConfigSnapshotWriter.*;
+
+import com.vanilla.yamlParser.YamlParser;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Read-only view of a binary config snapshot, answering lookups straight from a memory-mapped file. Opening only maps
+ * the file and checks its header: no key, value or map is materialised until a getter asks for it, so a service
+ * with a large config starts in the time it takes to map a file instead of the time it takes to parse YAML.
+ *
+ * <p>{@link #load(Path, Path, YamlParser)} keeps a snapshot next to its YAML source and rewrites it whenever the
+ * SHA-256 of the source, and of the current values of the placeholders it references, no longer matches the hash
+ * recorded in the snapshot. Getters follow {@link Config}: a missing
+ * key throws {@link NoSuchElementException} and a value of another type {@link IllegalArgumentException}.
+ */
+public final class MappedConfig {
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int slots;
+    private final int entriesOffset;
+    private final int stringsOffset;
+
+    private MappedConfig(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_LENGTH || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a version " + VERSION + " config snapshot");
+        }
+        this.buffer = buffer;
+        this.size = buffer.getInt(8 + HASH_LENGTH);
+        this.slots = buffer.getInt(12 + HASH_LENGTH);
+        this.entriesOffset = HEADER_LENGTH + slots * 4;
+        this.stringsOffset = entriesOffset + size * ENTRY_LENGTH;
+        if (Integer.bitCount(slots) != 1 || stringsOffset > buffer.capacity()
+                || buffer.getInt(16 + HASH_LENGTH) > buffer.capacity()) {
+            throw new IOException("Truncated config snapshot");
+        }
+    }
+
+    /**
+     * Maps {@code snapshot} read-only. The mapping outlives the channel and is released once the instance is
+     * unreachable.
+     */
+    public static MappedConfig open(Path snapshot) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new MappedConfig(buffer);
+        }
+    }
+
+    /**
+     * Writes {@code flattened}, as returned by {@link YamlParser#parseYaml(String)}, to {@code snapshot}.
+     *
+     * @param sourceHash the SHA-256 of the YAML it was parsed from, see {@link #sourceHash(byte[])}
+     */
+    public static void write(Map<String, ?> flattened, byte[] sourceHash, Path snapshot) throws IOException {
+        ConfigSnapshotWriter.write(flattened, sourceHash, snapshot);
+    }
+
+    /**
+     * Opens the snapshot of {@code yaml}, first parsing the YAML and writing the snapshot if it is missing, unreadable
+     * or was written for other content or other placeholder values.
+     */
+    public static MappedConfig load(Path yaml, Path snapshot, YamlParser yamlParser) throws IOException {
+        byte[] source = Files.readAllBytes(yaml);
+        byte[] hash = sourceHash(source, placeholders(source, yamlParser));
+        try {
+            MappedConfig cached = open(snapshot);
+            if (Arrays.equals(hash, cached.sourceHash())) {
+                return cached;
+            }
+        } catch (NoSuchFileException missing) {
+            // first load
+        } catch (IOException unreadable) {
+            // rewritten below
+        }
+        write(yamlParser.parseYaml(new String(source, StandardCharsets.UTF_8)), hash, snapshot);
+        return open(snapshot);
+    }
+
+    public static byte[] sourceHash(byte[] source) {
+        return sourceHash(source, Map.of());
+    }
+
+    /**
+     * @param placeholders the raw values, {@code null} when unknown, of the placeholders {@code source} references;
+     *                     values are resolved into the snapshot, so it is only current while they stay the same
+     */
+    public static byte[] sourceHash(byte[] source, Map<String, String> placeholders) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        digest.update(source);
+        placeholders.forEach((name, raw) -> {
+            digest.update((byte) 0);
+            digest.update(name.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) (raw == null ? 1 : 2));
+            if (raw != null) {
+                digest.update(raw.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        return digest.digest();
+    }
+
+    /**
+     * The placeholders of {@code source}, looked up line by line as the parser resolves them within a value.
+     */
+    private static Map<String, String> placeholders(byte[] source, YamlParser yamlParser) {
+        Map<String, String> placeholders = new LinkedHashMap<>();
+        for (String line : new String(source, StandardCharsets.UTF_8).split("\n")) {
+            if (line.contains("${")) {
+                yamlParser.placeholders().references(line).forEach(placeholders::putIfAbsent);
+            }
+        }
+        return placeholders;
+    }
+
+    public byte[] sourceHash() {
+        byte[] hash = new byte[HASH_LENGTH];
+        buffer.get(8, hash);
+        return hash;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(String key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * @return the value as parsed, {@code null} when it is missing or explicitly null
+     */
+    public Object get(String key) {
+        int index = indexOf(key);
+        return index < 0 ? null : decode(valueOffset(index));
+    }
+
+    public String getString(String key) {
+        return String.valueOf(decode(valueOffset(require(key))));
+    }
+
+    public String getString(String key, String defaultValue) {
+        int index = indexOf(key);
+        return index < 0 ? defaultValue : String.valueOf(decode(valueOffset(index)));
+    }
+
+    public int getInt(String key) {
+        return intAt(require(key), key);
+    }
+
+    public int getInt(String key, int defaultValue) {
+        int index = indexOf(key);
+        return index < 0 ? defaultValue : intAt(index, key);
+    }
+
+    public long getLong(String key) {
+        return longAt(require(key), key);
+    }
+
+    public long getLong(String key, long defaultValue) {
+        int index = indexOf(key);
+        return index < 0 ? defaultValue : longAt(index, key);
+    }
+
+    public double getDouble(String key) {
+        return doubleAt(require(key), key);
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        int index = indexOf(key);
+        return index < 0 ? defaultValue : doubleAt(index, key);
+    }
+
+    public boolean getBoolean(String key) {
+        return booleanAt(require(key), key);
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        int index = indexOf(key);
+        return index < 0 ? defaultValue : booleanAt(index, key);
+    }
+
+    /**
+     * @return the keys in sorted order, decoded as they are read
+     */
+    public List<String> keys() {
+        return new AbstractList<>() {
+            @Override
+            public String get(int index) {
+                return string(buffer.getInt(entriesOffset + index * ENTRY_LENGTH + 4));
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Decodes every entry into an in-memory {@link Config}.
+     */
+    public Config toConfig() {
+        Map<String, Object> flattened = new HashMap<>(size * 4 / 3 + 1);
+        for (int i = 0; i < size; i++) {
+            flattened.put(string(buffer.getInt(entriesOffset + i * ENTRY_LENGTH + 4)), decode(valueOffset(i)));
+        }
+        return Config.of(flattened);
+    }
+
+    static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private int indexOf(String key) {
+        int hash = key.hashCode();
+        int mask = slots - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int index = buffer.getInt(HEADER_LENGTH + slot * 4) - 1;
+            if (index < 0) {
+                return -1;
+            }
+            int entry = entriesOffset + index * ENTRY_LENGTH;
+            if (buffer.getInt(entry) == hash && keyEquals(buffer.getInt(entry + 4), key)) {
+                return index;
+            }
+        }
+    }
+
+    /**
+     * Compares the stored UTF-8 key with {@code key} in place, decoding only keys outside ASCII.
+     */
+    private boolean keyEquals(int offset, String key) {
+        int length = buffer.getInt(offset);
+        if (length != key.length()) {
+            return length > key.length() && string(offset).equals(key);
+        }
+        for (int i = 0; i < length; i++) {
+            byte b = buffer.get(offset + 4 + i);
+            if (b < 0) {
+                return string(offset).equals(key);
+            }
+            if (b != key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int require(String key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            throw new NoSuchElementException("No config value for '" + key + "'");
+        }
+        return index;
+    }
+
+    private int valueOffset(int index) {
+        return buffer.getInt(entriesOffset + index * ENTRY_LENGTH + 8);
+    }
+
+    private String string(int offset) {
+        byte[] bytes = new byte[buffer.getInt(offset)];
+        buffer.get(offset + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private Object decode(int offset) {
+        return decode(new int[] { offset });
+    }
+
+    /**
+     * Decodes the value at {@code cursor[0]} and moves the cursor past it, so list and map elements can follow.
+     */
+    private Object decode(int[] cursor) {
+        int offset = cursor[0];
+        byte tag = buffer.get(offset);
+        cursor[0] = offset + 1;
+        switch (tag) {
+            case NULL:
+                return null;
+            case TRUE:
+                return true;
+            case FALSE:
+                return false;
+            case INT:
+                cursor[0] += 4;
+                return buffer.getInt(offset + 1);
+            case FLOAT:
+                cursor[0] += 4;
+                return buffer.getFloat(offset + 1);
+            case LONG:
+                cursor[0] += 8;
+                return buffer.getLong(offset + 1);
+            case DOUBLE:
+                cursor[0] += 8;
+                return buffer.getDouble(offset + 1);
+            case STRING:
+                cursor[0] += 4;
+                return string(stringsOffset + buffer.getInt(offset + 1));
+            case TIMESTAMP:
+                cursor[0] += 4;
+                return LocalDateTime.parse(string(stringsOffset + buffer.getInt(offset + 1)));
+            case LIST: {
+                int count = buffer.getInt(offset + 1);
+                cursor[0] += 4;
+                List<Object> list = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    list.add(decode(cursor));
+                }
+                return list;
+            }
+            case MAP: {
+                int count = buffer.getInt(offset + 1);
+                cursor[0] += 4;
+                Map<String, Object> map = new HashMap<>();
+                for (int i = 0; i < count; i++) {
+                    String key = string(stringsOffset + buffer.getInt(cursor[0]));
+                    cursor[0] += 4;
+                    map.put(key, decode(cursor));
+                }
+                return map;
+            }
+            default:
+                throw new IllegalStateException("Corrupt config snapshot: unknown tag " + tag + " at " + offset);
+        }
+    }
+
+    private int intAt(int index, String key) {
+        long value = longAt(index, key);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Config value '" + key + "' does not fit an int: " + value);
+        }
+        return (int) value;
+    }
+
+    private long longAt(int index, String key) {
+        int offset = valueOffset(index);
+        return switch (buffer.get(offset)) {
+            case INT -> buffer.getInt(offset + 1);
+            case LONG -> buffer.getLong(offset + 1);
+            case STRING -> Long.parseLong(((String) decode(offset)).trim());
+            default -> throw typeMismatch(offset, key, "a long");
+        };
+    }
+
+    private double doubleAt(int index, String key) {
+        int offset = valueOffset(index);
+        return switch (buffer.get(offset)) {
+            case INT -> buffer.getInt(offset + 1);
+            case LONG -> buffer.getLong(offset + 1);
+            case DOUBLE -> buffer.getDouble(offset + 1);
+            case FLOAT -> buffer.getFloat(offset + 1);
+            case STRING -> Double.parseDouble(((String) decode(offset)).trim());
+            default -> throw typeMismatch(offset, key, "a double");
+        };
+    }
+
+    private boolean booleanAt(int index, String key) {
+        int offset = valueOffset(index);
+        switch (buffer.get(offset)) {
+            case TRUE:
+                return true;
+            case FALSE:
+                return false;
+            case STRING: {
+                String text = ((String) decode(offset)).trim();
+                if ("true".equalsIgnoreCase(text)) {
+                    return true;
+                }
+                if ("false".equalsIgnoreCase(text)) {
+                    return false;
+                }
+                throw typeMismatch(offset, key, "a boolean");
+            }
+            default:
+                throw typeMismatch(offset, key, "a boolean");
+        }
+    }
+
+    private IllegalArgumentException typeMismatch(int offset, String key, String expected) {
+        return new IllegalArgumentException("Config value '" + key + "' is not " + expected + ": " + decode(offset));
+    }
+}
@@ -3,40 +3,477 @@ package com.vanilla.httpServer;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
+import com.vanilla.config.Config;
+import com.vanilla.httpServer.admission.AdmissionController;
+import com.vanilla.httpServer.admission.ConcurrencyLimiter;
+import com.vanilla.httpServer.compression.CompressionSettings;
+import com.vanilla.httpServer.compression.Compressor;
+import com.vanilla.httpServer.compression.ContentCoding;
+import com.vanilla.httpServer.compression.Precompressed;
+import com.vanilla.httpServer.routing.HandlerRegistry;
+import com.vanilla.httpServer.routing.RouteDefinition;
+import com.vanilla.httpServer.routing.Router;
+import com.vanilla.json.JsonBody;
+import com.vanilla.json.JsonLimitException;
+import com.vanilla.json.JsonLimits;
+import com.vanilla.json.JsonOutput;
+import com.vanilla.json.JsonReader;
+import com.vanilla.json.JsonWriter;
+import com.vanilla.json.MalformedJsonException;
+import com.vanilla.metrics.MetricsRegistry;
+import com.vanilla.metrics.RequestEvent;
+import com.vanilla.metrics.RequestMetrics;
+import com.vanilla.yamlParser.YamlParser;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 
 public class ApplicationHttpServer {
 
+    /**
+     * Request attribute holding the {@link Router.Match} of the exchange, for handlers reading path parameters.
+     */
+    public static final String ROUTE_ATTRIBUTE = "vanilla.route";
+
+    private static final String BODY_LENGTH_ATTRIBUTE = "vanilla.bodyLength";
+    private static final String CODING_ATTRIBUTE = "vanilla.coding";
+    private static final String COMPRESSION_ATTRIBUTE = "vanilla.compression";
+
     public static void main(String[] args) throws IOException {
-        int serverPort = 8080;
-        HttpServer server = HttpServer.create(new InetSocketAddress(serverPort), 0);
-        server.createContext("/users", new UserHandler());
+        Config config = loadConfig();
+        HttpServerSettings settings = HttpServerSettings.from(config);
+        start(new InetSocketAddress(settings.port()), settings, router(config));
+    }
+
+    /**
+     * Starts the server with the built-in routes only.
+     */
+    public static HttpServer start(InetSocketAddress address, HttpServerSettings settings) throws IOException {
+        return start(address, settings, router(Config.empty()));
+    }
+
+    /**
+     * Binds and starts the server; port {@code 0} picks a free port, readable from {@link HttpServer#getAddress()}.
+     * The port of {@code settings} is ignored in favour of {@code address}, and every route is limited by the
+     * admission settings.
+     */
+    public static HttpServer start(InetSocketAddress address, HttpServerSettings settings,
+            Router<HttpHandler> router) throws IOException {
+        return start(address, settings, router,
+                new AdmissionController(settings.admission(), MetricsRegistry.global(), "http"));
+    }
+
+    /**
+     * Starts the server with routes limited by {@code admission}, which may give some routes limits of their own,
+     * and responses compressed as the compression settings of {@code settings} allow.
+     */
+    public static HttpServer start(InetSocketAddress address, HttpServerSettings settings,
+            Router<HttpHandler> router, AdmissionController admission) throws IOException {
+        HttpServer server = HttpServer.create(address, settings.backlog());
+        server.setExecutor(settings.executionMode().createExecutor(settings.poolSize()));
+        server.createContext("/", new RoutingHandler(router,
+                new RequestMetrics(MetricsRegistry.global(), "http"), admission, settings.compression()));
         server.start();
+        return server;
     }
 
+    /**
+     * The built-in {@code GET} and {@code POST /users}, {@code GET /metrics} and {@code GET /config/{prefix}}
+     * routes plus the endpoints of {@code config}. Request bodies are read within the {@link JsonLimits} of
+     * {@code config}.
+     */
+    public static Router<HttpHandler> router(Config config) {
+        JsonLimits limits = JsonLimits.from(config);
+        UserHandler userHandler = new UserHandler(limits);
+        ConfigHandler configHandler = new ConfigHandler(config);
+        return new HandlerRegistry<HttpHandler>()
+                .route("GET", "/users", userHandler)
+                .route("POST", "/users", userHandler)
+                .route("GET", "/metrics", new MetricsHandler(MetricsRegistry.global()))
+                .route("GET", "/config", configHandler)
+                .route("GET", "/config/{prefix}", configHandler)
+                .build(RouteDefinition.fromConfig(config), definition -> {
+                    if (!definition.request().isEmpty()) {
+                        return new RequestBodyHandler(definition, limits);
+                    }
+                    Precompressed body = Precompressed.of(definition.responseJson().getBytes(StandardCharsets.UTF_8));
+                    return exchange -> sendJson(exchange, 200, body);
+                });
+    }
+
+    static Config loadConfig() throws IOException {
+        try (InputStream config = ApplicationHttpServer.class.getResourceAsStream("/config.yml")) {
+            return config == null ? Config.empty() : Config.of(new YamlParser().parseYaml(config));
+        }
+    }
+
+    /**
+     * Lists the users on {@code GET}; on {@code POST}, binds the body to a {@link User} as it is read and answers
+     * with the created user.
+     */
     static class UserHandler implements HttpHandler {
 
+        private static final Precompressed USERS = Precompressed.of("""
+                {"name": "John"}
+                """.getBytes(StandardCharsets.UTF_8));
+
+        private final JsonLimits limits;
+
+        UserHandler(JsonLimits limits) {
+            this.limits = limits;
+        }
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                sendJson(exchange, 200, USERS);
+                return;
+            }
+            User user;
+            try (JsonReader json = new JsonReader(exchange.getRequestBody(), limits)) {
+                user = json.read(User.class);
+                json.endDocument();
+            }
+            if (user == null) {
+                sendError(exchange, 400, "Expected a user object");
+                return;
+            }
+            sendJson(exchange, 201, user::writeTo);
+        }
+    }
+
+    /**
+     * Serves a configured endpoint that declares a request shape: the body is read as it arrives and checked with
+     * {@link RouteDefinition#requestMismatch(Object)}. A matching body is answered with the configured response, or
+     * echoed back when the endpoint declares none.
+     */
+    static class RequestBodyHandler implements HttpHandler {
+
+        private final RouteDefinition definition;
+        private final Precompressed response;
+        private final JsonLimits limits;
+
+        RequestBodyHandler(RouteDefinition definition, JsonLimits limits) {
+            this.definition = definition;
+            this.response = definition.response().isEmpty() ? null
+                    : Precompressed.of(definition.responseJson().getBytes(StandardCharsets.UTF_8));
+            this.limits = limits;
+        }
+
         @Override
         public void handle(HttpExchange exchange) throws IOException {
-            if ("GET".equals(exchange.getRequestMethod())) {
-                String response = """
-                        {"name": "John"}
-                        """;
-                exchange.sendResponseHeaders(200, response.length());
-                OutputStream os = exchange.getResponseBody();
-                os.write(response.getBytes());
-                os.close();
+            Object body;
+            try (JsonReader json = new JsonReader(exchange.getRequestBody(), limits)) {
+                body = json.readValue();
+                json.endDocument();
+            }
+            String mismatch = definition.requestMismatch(body);
+            if (mismatch != null) {
+                sendError(exchange, 400, mismatch);
+            } else if (response == null) {
+                sendJson(exchange, 200, json -> json.value(body));
             } else {
-                String response = """
-                        {"error": "Method not supported"}
-                        """;
-                exchange.sendResponseHeaders(405, response.length());
-                OutputStream os = exchange.getResponseBody();
-                os.write(response.getBytes());
-                os.close();
+                sendJson(exchange, 200, response);
+            }
+        }
+    }
+
+    /**
+     * Dumps the flattened entries of the config, or of the subtree named by the {@code prefix} path parameter, as
+     * one JSON object streamed from {@link Config#asMap()}.
+     */
+    static class ConfigHandler implements HttpHandler {
+
+        private static final byte[] NOT_FOUND = """
+                {"error": "No config below this prefix"}
+                """.getBytes(StandardCharsets.UTF_8);
+
+        private final Config config;
+
+        ConfigHandler(Config config) {
+            this.config = config;
+        }
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            Router.Match<?> route = (Router.Match<?>) exchange.getAttribute(ROUTE_ATTRIBUTE);
+            String prefix = route.param("prefix");
+            Config subtree = prefix == null ? config : config.subtreeUncached(prefix);
+            if (prefix != null && subtree.isEmpty()) {
+                sendJson(exchange, 404, NOT_FOUND);
+                return;
+            }
+            sendJson(exchange, 200, json -> json.value(subtree.asMap()));
+        }
+    }
+
+    static class MetricsHandler implements HttpHandler {
+
+        private final MetricsRegistry registry;
+
+        MetricsHandler(MetricsRegistry registry) {
+            this.registry = registry;
+        }
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            send(exchange, 200, MetricsRegistry.CONTENT_TYPE,
+                    Precompressed.of(registry.scrape().getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    /**
+     * Dispatches every exchange of the server, recording its status, response size and latency, whichever handler
+     * answers it. A request the {@link AdmissionController} turns away is answered with 503 and a
+     * {@code Retry-After} without running the handler. A request body a handler fails to read as JSON is answered
+     * with 400, or with 413 when it exceeds the {@link JsonLimits}. The coding negotiated from
+     * {@code Accept-Encoding} is left on the exchange for {@link #sendJson} to compress the response with.
+     */
+    static class RoutingHandler implements HttpHandler {
+
+        private static final byte[] NOT_FOUND = """
+                {"error": "Not found"}
+                """.getBytes(StandardCharsets.UTF_8);
+
+        private static final byte[] METHOD_NOT_SUPPORTED = """
+                {"error": "Method not supported"}
+                """.getBytes(StandardCharsets.UTF_8);
+
+        private static final byte[] SERVICE_UNAVAILABLE = """
+                {"error": "Server busy, retry later"}
+                """.getBytes(StandardCharsets.UTF_8);
+
+        private final Router<HttpHandler> router;
+        private final RequestMetrics metrics;
+        private final AdmissionController admission;
+        private final CompressionSettings compression;
+
+        RoutingHandler(Router<HttpHandler> router, RequestMetrics metrics, AdmissionController admission,
+                CompressionSettings compression) {
+            this.router = router;
+            this.metrics = metrics;
+            this.admission = admission;
+            this.compression = compression;
+        }
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            RequestEvent event = metrics.start();
+            String path = exchange.getRequestURI().getRawPath();
+            if (compression.enabled()) {
+                exchange.setAttribute(COMPRESSION_ATTRIBUTE, compression);
+                exchange.setAttribute(CODING_ATTRIBUTE,
+                        compression.negotiate(exchange.getRequestHeaders().getFirst("Accept-Encoding")));
+            }
+            try {
+                Router.Match<HttpHandler> match = router.match(exchange.getRequestMethod(), path);
+                switch (match.status()) {
+                    case FOUND -> {
+                        exchange.setAttribute(ROUTE_ATTRIBUTE, match);
+                        ConcurrencyLimiter limiter = admission.limiter(match.route());
+                        if (limiter == null) {
+                            handle(exchange, match.handler());
+                        } else if (!limiter.acquire()) {
+                            exchange.getResponseHeaders().set("Retry-After", "1");
+                            sendJson(exchange, 503, SERVICE_UNAVAILABLE);
+                        } else {
+                            long started = limiter.adaptive() ? System.nanoTime() : 0;
+                            try {
+                                handle(exchange, match.handler());
+                            } finally {
+                                limiter.release(limiter.adaptive() ? System.nanoTime() - started : 0);
+                            }
+                        }
+                    }
+                    case METHOD_NOT_ALLOWED -> sendJson(exchange, 405, METHOD_NOT_SUPPORTED);
+                    case NOT_FOUND -> sendJson(exchange, 404, NOT_FOUND);
+                }
+            } finally {
+                metrics.record(event, exchange.getRequestMethod(), path, exchange.getResponseCode(),
+                        responseLength(exchange));
+            }
+        }
+
+        private static void handle(HttpExchange exchange, HttpHandler handler) throws IOException {
+            try {
+                handler.handle(exchange);
+            } catch (MalformedJsonException e) {
+                rejectBody(exchange, 400, e);
+            } catch (JsonLimitException e) {
+                rejectBody(exchange, 413, e);
+            }
+        }
+
+        private static void rejectBody(HttpExchange exchange, int status, IOException e) throws IOException {
+            if (exchange.getResponseCode() != -1) {
+                throw e;
+            }
+            sendError(exchange, status, e.getMessage());
+        }
+
+        /**
+         * @return the body length of a streamed response, else the Content-Length the handler sent; 0 for other
+         *         chunked or empty responses. Compressed bodies count their compressed length.
+         */
+        private static long responseLength(HttpExchange exchange) {
+            if (exchange.getAttribute(BODY_LENGTH_ATTRIBUTE) instanceof Long streamed) {
+                return streamed;
+            }
+            String length = exchange.getResponseHeaders().getFirst("Content-Length");
+            return length == null ? 0 : Long.parseLong(length);
+        }
+    }
+
+    /**
+     * Sends a body encoded ahead of time; the Content-Length is its byte length, not its character count.
+     */
+    static void sendJson(HttpExchange exchange, int status, byte[] body) throws IOException {
+        send(exchange, status, "application/json", Precompressed.of(body));
+    }
+
+    /**
+     * Sends a body encoded ahead of time, in the form compressed for the negotiated coding on first use.
+     */
+    static void sendJson(HttpExchange exchange, int status, Precompressed body) throws IOException {
+        send(exchange, status, "application/json", body);
+    }
+
+    /**
+     * Streams a body written by {@code body}. One that fits in the writer's buffer is sent with its Content-Length;
+     * a larger one is sent with chunked transfer encoding as the buffer fills up. If {@code body} throws before the
+     * buffer first filled up, nothing has been sent and the exception propagates.
+     */
+    static void sendJson(HttpExchange exchange, int status, JsonBody body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        try (JsonWriter json = new JsonWriter(new ExchangeOutput(exchange, status))) {
+            body.writeTo(json);
+        }
+    }
+
+    static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        sendJson(exchange, status, json -> json.beginObject().name("error").value(message).endObject());
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, Precompressed body)
+            throws IOException {
+        CompressionSettings compression = compression(exchange);
+        byte[] bytes = body.identity();
+        if (compression.compresses(bytes.length)) {
+            exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+            ContentCoding coding = coding(exchange);
+            byte[] compressed = body.body(coding, compression);
+            if (compressed != null) {
+                exchange.getResponseHeaders().set("Content-Encoding", coding.token());
+                bytes = compressed;
+            }
+        }
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    /**
+     * @return the compression settings of the server, disabled outside a {@link RoutingHandler}
+     */
+    private static CompressionSettings compression(HttpExchange exchange) {
+        return exchange.getAttribute(COMPRESSION_ATTRIBUTE) instanceof CompressionSettings compression ? compression
+                : CompressionSettings.DISABLED;
+    }
+
+    private static ContentCoding coding(HttpExchange exchange) {
+        return exchange.getAttribute(CODING_ATTRIBUTE) instanceof ContentCoding coding ? coding
+                : ContentCoding.IDENTITY;
+    }
+
+    /**
+     * Sends the bytes of a {@link JsonWriter}. A body that ends within the first buffer is compressed in one go and
+     * sent with its Content-Length; a larger one goes out chunked, compressed as it is written by a
+     * {@link Compressor}. Bodies below the min-size are sent as they are.
+     */
+    private static final class ExchangeOutput implements JsonOutput {
+
+        private final HttpExchange exchange;
+        private final int status;
+        private final CompressionSettings compression;
+        private final ContentCoding coding;
+        private OutputStream body;
+        private Compressor compressor;
+        private long length;
+
+        ExchangeOutput(HttpExchange exchange, int status) {
+            this.exchange = exchange;
+            this.status = status;
+            this.compression = compression(exchange);
+            this.coding = coding(exchange);
+        }
+
+        @Override
+        public void write(byte[] buffer, int length) throws IOException {
+            if (body == null) {
+                if (compression.compresses(length)) {
+                    exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+                    if (coding != ContentCoding.IDENTITY) {
+                        exchange.getResponseHeaders().set("Content-Encoding", coding.token());
+                        compressor = new Compressor(new JsonOutput() {
+                            @Override
+                            public void write(byte[] buffer, int length) throws IOException {
+                                send(buffer, length);
+                            }
+
+                            @Override
+                            public void close(byte[] buffer, int length) throws IOException {
+                                finish(buffer, length);
+                            }
+                        }, coding, compression.level());
+                    }
+                }
+                exchange.sendResponseHeaders(status, 0);
+                body = exchange.getResponseBody();
+            }
+            if (compressor != null) {
+                compressor.write(buffer, length);
+            } else {
+                send(buffer, length);
+            }
+        }
+
+        @Override
+        public void close(byte[] buffer, int length) throws IOException {
+            if (compressor != null) {
+                compressor.close(buffer, length);
+                return;
+            }
+            if (body == null) {
+                if (compression.compresses(length)) {
+                    exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+                    byte[] compressed = coding == ContentCoding.IDENTITY ? null
+                            : Compressor.compress(buffer, length, coding, compression.level());
+                    if (compressed != null && compressed.length < length) {
+                        exchange.getResponseHeaders().set("Content-Encoding", coding.token());
+                        buffer = compressed;
+                        length = compressed.length;
+                    }
+                }
+                exchange.sendResponseHeaders(status, length == 0 ? -1 : length);
+                body = exchange.getResponseBody();
+            }
+            finish(buffer, length);
+        }
+
+        private void send(byte[] buffer, int length) throws IOException {
+            body.write(buffer, 0, length);
+            this.length += length;
+        }
+
+        private void finish(byte[] buffer, int length) throws IOException {
+            try (OutputStream os = body) {
+                os.write(buffer, 0, length);
             }
+            exchange.setAttribute(BODY_LENGTH_ATTRIBUTE, this.length + length);
         }
     }
 }
@@ -1,38 +1,265 @@
 package com.vanilla.httpServer;
 
+import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
-public class ApplicationTcpServer {
-
-    public static void main(String[] args) {
-        int port = 8080;
-        try (ServerSocket serverSocket = new ServerSocket(port)) {
-            System.out.println("Server listening on port " + port);
-            while (true) {
-                Socket clientSocket = serverSocket.accept();
-                System.out.println("Client connectect from " + clientSocket.getRemoteSocketAddress());
-                new ApplicationTcpServer().sendJsonResponse(clientSocket);
-                clientSocket.close();
+import com.vanilla.config.Config;
+import com.vanilla.httpServer.admission.AdmissionSettings;
+import com.vanilla.httpServer.compression.CompressionSettings;
+import com.vanilla.httpServer.nio.HttpResponse;
+import com.vanilla.httpServer.nio.NioHttpServer;
+import com.vanilla.httpServer.nio.RequestHandler;
+import com.vanilla.httpServer.nio.RoutingRequestHandler;
+import com.vanilla.httpServer.routing.HandlerRegistry;
+import com.vanilla.httpServer.routing.RouteDefinition;
+import com.vanilla.httpServer.routing.Router;
+import com.vanilla.json.JsonLimits;
+import com.vanilla.json.JsonReader;
+import com.vanilla.metrics.MetricsRegistry;
+import com.vanilla.metrics.RequestEvent;
+import com.vanilla.metrics.RequestMetrics;
+
+public class ApplicationTcpServer implements Closeable {
+
+    /**
+     * Serves on the non-blocking engine with one event loop per core, or on the accept loop with {@code --blocking},
+     * which gives up on a client after {@code app.http.read-timeout-ms} of silence.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        try {
+            Config config = ApplicationHttpServer.loadConfig();
+            int port = config.getInt("app.server", HttpServerSettings.DEFAULT.port());
+            if (Arrays.asList(args).contains("--blocking")) {
+                try (ApplicationTcpServer server = new ApplicationTcpServer(port,
+                        config.getInt("app.http.read-timeout-ms", DEFAULT_READ_TIMEOUT_MILLIS))) {
+                    System.out.println("Server listening on port " + server.getPort());
+                    server.serve();
+                }
+                return;
+            }
+            try (NioHttpServer server = startNonBlocking(new InetSocketAddress(port),
+                    Runtime.getRuntime().availableProcessors(), router(config), AdmissionSettings.from(config),
+                    CompressionSettings.from(config))) {
+                System.out.println("Server listening on port " + server.getPort());
+                Thread.currentThread().join();
             }
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
-    private void sendJsonResponse(Socket clientSocket) {
+    /**
+     * How long the blocking accept loop waits for the head of a request before answering 408.
+     */
+    public static final int DEFAULT_READ_TIMEOUT_MILLIS = 5_000;
+
+    private static final HttpResponse HELLO_WORLD = HttpResponse.json(200, "{ \"message\": \"Hello world!\" }");
+    private static final HttpResponse CONFIG_NOT_FOUND = HttpResponse.json(404,
+            "{\"error\": \"No config below this prefix\"}");
+    private static final HttpResponse REQUEST_TIMEOUT = HttpResponse.json(408,
+            "{\"error\": \"Request head not received in time\"}");
+    private static final HttpResponse USER_EXPECTED = HttpResponse.json(400, "{\"error\": \"Expected a user object\"}");
+
+    /**
+     * Starts the non-blocking engine with the built-in routes only.
+     */
+    public static NioHttpServer startNonBlocking(InetSocketAddress address, int eventLoops) throws IOException {
+        return startNonBlocking(address, eventLoops, router(Config.empty()));
+    }
+
+    public static NioHttpServer startNonBlocking(InetSocketAddress address, int eventLoops,
+            Router<RequestHandler> router) throws IOException {
+        return startNonBlocking(address, eventLoops, router, AdmissionSettings.UNLIMITED);
+    }
+
+    public static NioHttpServer startNonBlocking(InetSocketAddress address, int eventLoops,
+            Router<RequestHandler> router, AdmissionSettings admission) throws IOException {
+        return startNonBlocking(address, eventLoops, router, admission, CompressionSettings.DEFAULT);
+    }
+
+    /**
+     * Starts the non-blocking engine with at most {@link AdmissionSettings#maxConnections()} open connections; the
+     * per-route limits do not apply, as its handlers run on the event loops and never wait. Responses are
+     * compressed as {@code compression} allows.
+     */
+    public static NioHttpServer startNonBlocking(InetSocketAddress address, int eventLoops,
+            Router<RequestHandler> router, AdmissionSettings admission, CompressionSettings compression)
+            throws IOException {
+        return new NioHttpServer(address, eventLoops, new RoutingRequestHandler(router, compression),
+                admission.maxConnections()).start();
+    }
+
+    /**
+     * The built-in {@code GET} and {@code POST /users}, {@code GET /metrics} and {@code GET /config/{prefix}}
+     * routes plus the endpoints of {@code config}, as {@link ApplicationHttpServer} serves them.
+     */
+    public static Router<RequestHandler> router(Config config) {
+        JsonLimits limits = JsonLimits.from(config);
+        RequestHandler configDump = request -> {
+            String prefix = request.pathParam("prefix");
+            Config subtree = prefix == null ? config : config.subtreeUncached(prefix);
+            if (prefix != null && subtree.isEmpty()) {
+                return CONFIG_NOT_FOUND;
+            }
+            return HttpResponse.json(200, json -> json.value(subtree.asMap()));
+        };
+        return new HandlerRegistry<RequestHandler>()
+                .route("GET", "/users", request -> HELLO_WORLD)
+                .route("POST", "/users", request -> {
+                    User user;
+                    try (JsonReader json = new JsonReader(request.body().duplicate(), limits)) {
+                        user = json.read(User.class);
+                        json.endDocument();
+                    }
+                    return user == null ? USER_EXPECTED : HttpResponse.json(201, user::writeTo);
+                })
+                .route("GET", "/metrics", request -> HttpResponse.of(200, MetricsRegistry.CONTENT_TYPE,
+                        MetricsRegistry.global().scrape().getBytes(StandardCharsets.UTF_8)))
+                .route("GET", "/config", configDump)
+                .route("GET", "/config/{prefix}", configDump)
+                .build(RouteDefinition.fromConfig(config), definition -> {
+                    if (!definition.request().isEmpty()) {
+                        return requestBody(definition, limits);
+                    }
+                    HttpResponse response = HttpResponse.json(200, definition.responseJson());
+                    return request -> response;
+                });
+    }
+
+    /**
+     * Checks the body of a configured endpoint against its request shape, as
+     * {@link ApplicationHttpServer.RequestBodyHandler} does. The decoder has received the whole body by the time
+     * the handler runs, so it is read from the connection buffer in place rather than copied again.
+     */
+    private static RequestHandler requestBody(RouteDefinition definition, JsonLimits limits) {
+        HttpResponse response = definition.response().isEmpty() ? null
+                : HttpResponse.json(200, definition.responseJson());
+        return request -> {
+            Object body;
+            try (JsonReader json = new JsonReader(request.body().duplicate(), limits)) {
+                body = json.readValue();
+                json.endDocument();
+            }
+            String mismatch = definition.requestMismatch(body);
+            if (mismatch != null) {
+                return HttpResponse.json(400, json -> json.beginObject().name("error").value(mismatch).endObject());
+            }
+            return response != null ? response : HttpResponse.json(200, json -> json.value(body));
+        };
+    }
+
+    private final ServerSocket serverSocket;
+    private final int readTimeoutMillis;
+    private final RequestMetrics metrics = new RequestMetrics(MetricsRegistry.global(), "tcp");
+
+    /**
+     * Binds the listening socket; port {@code 0} picks a free port, readable from {@link #getPort()}.
+     */
+    public ApplicationTcpServer(int port) throws IOException {
+        this(port, DEFAULT_READ_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param readTimeoutMillis how long a client may stay silent before it is answered 408 and disconnected, so a
+     *                          stalled client cannot hold the single accept loop; {@code 0} waits forever
+     */
+    public ApplicationTcpServer(int port, int readTimeoutMillis) throws IOException {
+        if (readTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Read timeout must not be negative: " + readTimeoutMillis);
+        }
+        this.serverSocket = new ServerSocket(port);
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts and answers connections on the calling thread until {@link #close()} is called. Connections and
+     * responses are recorded in {@link MetricsRegistry#global()} under {@code server="tcp"}; a connection failing on
+     * an I/O error, e.g. reset by its client, is counted, closed and does not stop the loop.
+     *
+     * @throws IOException if accepting fails while the server is still open
+     */
+    public void serve() throws IOException {
+        while (!serverSocket.isClosed()) {
+            Socket clientSocket;
+            try {
+                clientSocket = serverSocket.accept();
+            } catch (SocketException e) {
+                if (serverSocket.isClosed()) {
+                    return;
+                }
+                throw e;
+            }
+            try (clientSocket) {
+                answer(clientSocket);
+            } catch (IOException e) {
+                metrics.connectionFailed();
+            }
+        }
+    }
+
+    private void answer(Socket clientSocket) throws IOException {
+        clientSocket.setSoTimeout(readTimeoutMillis);
+        metrics.connectionAccepted();
+        RequestEvent event = metrics.start();
+        String requestLine = null;
+        HttpResponse response = HELLO_WORLD;
+        try {
+            requestLine = readRequestHead(clientSocket);
+        } catch (SocketTimeoutException e) {
+            response = REQUEST_TIMEOUT;
+        }
+        sendJsonResponse(clientSocket, response);
+        metrics.record(event, requestLinePart(requestLine, 0), requestLinePart(requestLine, 1),
+                response.status(), response.contentLength());
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    /**
+     * Drains the request line and headers, so closing the socket after the response does not reset the connection
+     * while the client still has unread request bytes in flight.
+     *
+     * @return the request line, {@code null} if the client sent nothing
+     */
+    private String readRequestHead(Socket clientSocket) throws IOException {
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(clientSocket.getInputStream(), StandardCharsets.ISO_8859_1));
+        String requestLine = reader.readLine();
+        String line = requestLine;
+        while (line != null && !line.isEmpty()) {
+            line = reader.readLine();
+        }
+        return requestLine;
+    }
+
+    /**
+     * @return the method (0) or target (1) of {@code GET /users HTTP/1.1}, or {@code null}
+     */
+    private static String requestLinePart(String requestLine, int part) {
+        String[] parts = requestLine == null ? new String[0] : requestLine.split(" ", 3);
+        return part < parts.length - 1 ? parts[part] : null;
+    }
+
+    private void sendJsonResponse(Socket clientSocket, HttpResponse response) throws IOException {
         try (OutputStream os = clientSocket.getOutputStream()) {
-            String jsonResponse = "{ \"message\": \"Hello world!\" }";
-            String httpHeaders = "HTTP/1.1 200 OK\r\n"
-                    + "Content-Type: application/json\r\n"
-                    + "Content-Length: " + jsonResponse.length() + "\r\n"
-                    + "\r\n";
-            os.write(httpHeaders.getBytes());
-            os.write(jsonResponse.getBytes());
-        } catch (IOException e) {
-            e.printStackTrace();
+            response.writeTo(os, false);
         }
     }
 
@@ -0,0 +1,65 @@
+package com.vanilla.httpServer;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * How {@link com.sun.net.httpserver.HttpServer} runs its handlers.
+ */
+public enum ExecutionMode {
+
+    /**
+     * No executor: every exchange runs on the single dispatcher thread, so one slow handler stalls the server.
+     */
+    DISPATCHER,
+
+    /**
+     * A fixed pool of {@code poolSize} platform threads.
+     */
+    PLATFORM_POOL,
+
+    /**
+     * One virtual thread per request; needs Java 21 or later. Older runtimes refuse to start with it rather than
+     * quietly running every request on a new platform thread, so choose {@link #PLATFORM_POOL} there.
+     */
+    VIRTUAL;
+
+    /**
+     * @return the executor to install, or {@code null} to keep the dispatcher thread
+     * @throws IllegalStateException if this is {@link #VIRTUAL} and the runtime has no virtual threads
+     */
+    Executor createExecutor(int poolSize) {
+        return switch (this) {
+            case DISPATCHER -> null;
+            case PLATFORM_POOL -> Executors.newFixedThreadPool(poolSize, daemonThreads("http-worker-"));
+            case VIRTUAL -> newVirtualThreadPerTaskExecutor();
+        };
+    }
+
+    public static ExecutionMode of(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+
+    private static Executor newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("The virtual executor needs Java 21 or later, but this is Java "
+                    + Runtime.version().feature() + "; set app.http.executor to platform-pool", e);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,61 @@
+package com.vanilla.httpServer;
+
+import com.vanilla.config.Config;
+import com.vanilla.httpServer.admission.AdmissionSettings;
+import com.vanilla.httpServer.compression.CompressionSettings;
+
+/**
+ * Tunables of {@link ApplicationHttpServer}, read from the flattened {@code config.yml}:
+ *
+ * <pre>
+ * app:
+ *   server: 8080              # port
+ *   http:
+ *     backlog: 128            # pending connections the OS queues before refusing, 0 for the system default
+ *     executor: platform-pool # dispatcher, platform-pool or virtual (Java 21+)
+ *     pool-size: 64           # threads of the platform pool
+ * </pre>
+ *
+ * plus the {@link AdmissionSettings} under {@code app.admission} and the {@link CompressionSettings} under
+ * {@code app.compression}. Queued requests wait on the thread running them, so queueing suits the {@code virtual}
+ * executor best: with a platform pool, waiting requests hold pool threads.
+ */
+public record HttpServerSettings(int port, int backlog, ExecutionMode executionMode, int poolSize,
+        AdmissionSettings admission, CompressionSettings compression) {
+
+    public static final HttpServerSettings DEFAULT = new HttpServerSettings(8080, 0, ExecutionMode.DISPATCHER,
+            Runtime.getRuntime().availableProcessors(), AdmissionSettings.UNLIMITED,
+            CompressionSettings.DEFAULT);
+
+    public static HttpServerSettings from(Config config) {
+        return new HttpServerSettings(
+                config.getInt("app.server", DEFAULT.port),
+                config.getInt("app.http.backlog", DEFAULT.backlog),
+                config.contains("app.http.executor")
+                        ? ExecutionMode.of(config.getString("app.http.executor"))
+                        : DEFAULT.executionMode,
+                config.getInt("app.http.pool-size", DEFAULT.poolSize),
+                AdmissionSettings.from(config),
+                CompressionSettings.from(config));
+    }
+
+    public HttpServerSettings withPort(int port) {
+        return new HttpServerSettings(port, backlog, executionMode, poolSize, admission, compression);
+    }
+
+    public HttpServerSettings withExecutionMode(ExecutionMode executionMode) {
+        return new HttpServerSettings(port, backlog, executionMode, poolSize, admission, compression);
+    }
+
+    public HttpServerSettings withPoolSize(int poolSize) {
+        return new HttpServerSettings(port, backlog, executionMode, poolSize, admission, compression);
+    }
+
+    public HttpServerSettings withAdmission(AdmissionSettings admission) {
+        return new HttpServerSettings(port, backlog, executionMode, poolSize, admission, compression);
+    }
+
+    public HttpServerSettings withCompression(CompressionSettings compression) {
+        return new HttpServerSettings(port, backlog, executionMode, poolSize, admission, compression);
+    }
+}
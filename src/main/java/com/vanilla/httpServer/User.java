@@ -0,0 +1,20 @@
+package com.vanilla.httpServer;
+
+import com.vanilla.json.JsonWriter;
+import java.io.IOException;
+
+/**
+ * The body of {@code POST /users}, bound from JSON by {@link com.vanilla.json.JsonReader#read(Class)}.
+ */
+record User(String name) {
+
+    User {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("name must not be blank");
+        }
+    }
+
+    void writeTo(JsonWriter json) throws IOException {
+        json.beginObject().name("name").value(name).endObject();
+    }
+}
@@ -0,0 +1,56 @@
+package com.vanilla.httpServer.admission;
+
+import com.vanilla.metrics.MetricsRegistry;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Hands out a {@link ConcurrencyLimiter} per route, so a slow route fills its own queue and is turned away on its own
+ * while the others keep their capacity. Routes get the default settings unless {@link #limit} set their own, and are
+ * keyed as {@link com.vanilla.httpServer.routing.Router.Match#route()} names them, e.g. {@code GET /users/{id}}.
+ * Turned away requests are counted in {@code http_rejected_total}, by route and reason.
+ */
+public final class AdmissionController {
+
+    private final AdmissionSettings defaults;
+    private final MetricsRegistry registry;
+    private final String server;
+    private final Map<String, AdmissionSettings> overrides = new HashMap<>();
+    private final ConcurrentMap<String, ConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    /**
+     * @param server the value of the {@code server} label of the rejection counters
+     */
+    public AdmissionController(AdmissionSettings defaults, MetricsRegistry registry, String server) {
+        this.defaults = defaults;
+        this.registry = registry;
+        this.server = server;
+    }
+
+    /**
+     * Gives one route settings of its own; call before the server starts.
+     */
+    public AdmissionController limit(String method, String pattern, AdmissionSettings settings) {
+        overrides.put(method + " " + pattern, settings);
+        return this;
+    }
+
+    /**
+     * @return the limiter of {@code route}, or {@code null} if the route is not limited
+     */
+    public ConcurrencyLimiter limiter(String route) {
+        ConcurrencyLimiter limiter = limiters.get(route);
+        if (limiter != null || (defaults.maxConcurrent() == 0 && overrides.isEmpty())) {
+            return limiter;
+        }
+        AdmissionSettings settings = overrides.getOrDefault(route, defaults);
+        if (settings.maxConcurrent() == 0) {
+            return null;
+        }
+        return limiters.computeIfAbsent(route, key -> new ConcurrencyLimiter(settings,
+                registry.counter("http_rejected_total", "server", server, "route", key, "reason", "queue_full"),
+                registry.counter("http_rejected_total", "server", server, "route", key, "reason", "timeout")));
+    }
+}
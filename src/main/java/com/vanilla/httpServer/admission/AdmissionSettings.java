@@ -0,0 +1,65 @@
+package com.vanilla.httpServer.admission;
+
+import com.vanilla.config.Config;
+
+/**
+ * Limits on the work the servers accept, read from the flattened {@code config.yml}:
+ *
+ * <pre>
+ * app:
+ *   admission:
+ *     max-concurrent: 64       # requests a route runs at once, 0 for no limit
+ *     max-queued: 128          # requests a route keeps waiting for a slot; more are answered 503 at once
+ *     queue-timeout-ms: 100    # longest wait for a slot before the request is answered 503
+ *     adaptive: false          # lower the limit below max-concurrent while requests run slower than the target
+ *     target-latency-ms: 50    # handler time above which an adaptive limit is lowered
+ *     max-connections: 10000   # connections the NIO engine keeps open, 0 for no limit
+ * </pre>
+ */
+public record AdmissionSettings(int maxConcurrent, int maxQueued, long queueTimeoutMillis, boolean adaptive,
+        long targetLatencyMillis, int maxConnections) {
+
+    public static final AdmissionSettings UNLIMITED = new AdmissionSettings(0, 0, 0, false, 0, 0);
+
+    public AdmissionSettings {
+        if (maxConcurrent < 0 || maxQueued < 0 || queueTimeoutMillis < 0 || targetLatencyMillis < 0
+                || maxConnections < 0) {
+            throw new IllegalArgumentException("Admission limits must not be negative");
+        }
+        if (adaptive && (maxConcurrent == 0 || targetLatencyMillis == 0)) {
+            throw new IllegalArgumentException("An adaptive limit needs max-concurrent and target-latency-ms");
+        }
+    }
+
+    public static AdmissionSettings from(Config config) {
+        Config admission = config.subtree("app.admission");
+        return new AdmissionSettings(
+                admission.getInt("max-concurrent", UNLIMITED.maxConcurrent),
+                admission.getInt("max-queued", UNLIMITED.maxQueued),
+                admission.getLong("queue-timeout-ms", UNLIMITED.queueTimeoutMillis),
+                admission.getBoolean("adaptive", UNLIMITED.adaptive),
+                admission.getLong("target-latency-ms", UNLIMITED.targetLatencyMillis),
+                admission.getInt("max-connections", UNLIMITED.maxConnections));
+    }
+
+    /**
+     * A fixed limit of {@code maxConcurrent} requests, with up to {@code maxQueued} more waiting at most
+     * {@code queueTimeoutMillis} for a slot.
+     */
+    public static AdmissionSettings limit(int maxConcurrent, int maxQueued, long queueTimeoutMillis) {
+        return new AdmissionSettings(maxConcurrent, maxQueued, queueTimeoutMillis, false, 0, 0);
+    }
+
+    /**
+     * @return these settings with {@code maxConcurrent} as the ceiling of an adaptive limit
+     */
+    public AdmissionSettings withAdaptiveLimit(long targetLatencyMillis) {
+        return new AdmissionSettings(maxConcurrent, maxQueued, queueTimeoutMillis, true, targetLatencyMillis,
+                maxConnections);
+    }
+
+    public AdmissionSettings withMaxConnections(int maxConnections) {
+        return new AdmissionSettings(maxConcurrent, maxQueued, queueTimeoutMillis, adaptive, targetLatencyMillis,
+                maxConnections);
+    }
+}
@@ -0,0 +1,180 @@
+package com.vanilla.httpServer.admission;
+
+import com.vanilla.metrics.Counter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admits at most {@code limit} requests of one route at once. Requests beyond the limit wait in FIFO order, up to
+ * {@code maxQueued} of them and for at most the queue timeout; any other request is turned away at once, so an
+ * overloaded route answers quickly instead of letting every request wait behind the backlog.
+ *
+ * <p>An adaptive limiter adjusts the limit by AIMD on the handler time reported to {@link #release(long)}: every
+ * request faster than the target latency adds {@code 1/limit}, about one per round of {@code limit} requests, while
+ * the route uses at least half its limit; a slower one cuts the limit by a quarter, at most once per round, so a
+ * single burst of slow requests does not collapse it. The configured maximum is the ceiling, and the limit never
+ * drops below one.
+ *
+ * <pre>{@code
+ * if (!limiter.acquire()) {
+ *     return SERVICE_UNAVAILABLE;
+ * }
+ * long started = System.nanoTime();
+ * try {
+ *     return handler.handle(request);
+ * } finally {
+ *     limiter.release(System.nanoTime() - started);
+ * }
+ * }</pre>
+ */
+public final class ConcurrencyLimiter {
+
+    private static final double BACKOFF = 0.75;
+
+    private final AdmissionSettings settings;
+    private final long queueTimeoutNanos;
+    private final long targetLatencyNanos;
+    private final Counter queueFull;
+    private final Counter timedOut;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private double estimate;
+    private int limit;
+    private int inFlight;
+    private int queued;
+    private int sinceDecrease;
+
+    /**
+     * @param queueFull counts requests turned away because the queue was full
+     * @param timedOut  counts requests turned away because no slot freed up in time
+     */
+    public ConcurrencyLimiter(AdmissionSettings settings, Counter queueFull, Counter timedOut) {
+        if (settings.maxConcurrent() == 0) {
+            throw new IllegalArgumentException("A limiter needs a max-concurrent above 0");
+        }
+        this.settings = settings;
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(settings.queueTimeoutMillis());
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(settings.targetLatencyMillis());
+        this.queueFull = queueFull;
+        this.timedOut = timedOut;
+        this.estimate = settings.maxConcurrent();
+        this.limit = settings.maxConcurrent();
+    }
+
+    /**
+     * Takes a slot, waiting behind the requests queued before for at most the queue timeout. An interrupted wait
+     * turns the request away and keeps the interrupt status.
+     *
+     * @return whether the request was admitted; if so it must be released
+     */
+    public boolean acquire() {
+        lock.lock();
+        try {
+            if (inFlight < limit && queued == 0) {
+                inFlight++;
+                return true;
+            }
+            if (queued >= settings.maxQueued() || queueTimeoutNanos == 0) {
+                queueFull.increment();
+                return false;
+            }
+            queued++;
+            try {
+                long remaining = queueTimeoutNanos;
+                while (inFlight >= limit) {
+                    if (remaining <= 0) {
+                        timedOut.increment();
+                        return false;
+                    }
+                    remaining = available.awaitNanos(remaining);
+                }
+                inFlight++;
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                timedOut.increment();
+                return false;
+            } finally {
+                queued--;
+                if (inFlight < limit) {
+                    available.signal();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Frees the slot of an admitted request and lets the next queued one in.
+     *
+     * @param serviceNanos how long the handler took, which adjusts an adaptive limit; ignored otherwise
+     */
+    public void release(long serviceNanos) {
+        lock.lock();
+        try {
+            if (settings.adaptive()) {
+                adapt(serviceNanos);
+            }
+            inFlight--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return whether {@link #release(long)} uses the handler time, so callers only measure it when it does
+     */
+    public boolean adaptive() {
+        return settings.adaptive();
+    }
+
+    public int limit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return how many requests are waiting for a slot
+     */
+    public int queued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void adapt(long serviceNanos) {
+        sinceDecrease++;
+        if (serviceNanos > targetLatencyNanos) {
+            if (sinceDecrease >= limit) {
+                estimate = Math.max(1, estimate * BACKOFF);
+                sinceDecrease = 0;
+            }
+        } else if (inFlight * 2 >= limit) {
+            estimate = Math.min(settings.maxConcurrent(), estimate + 1 / estimate);
+        }
+        int previous = limit;
+        limit = (int) estimate;
+        if (limit > previous) {
+            available.signalAll();
+        }
+    }
+}
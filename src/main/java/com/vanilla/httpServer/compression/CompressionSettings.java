@@ -0,0 +1,68 @@
+package com.vanilla.httpServer.compression;
+
+import com.vanilla.config.Config;
+import java.util.zip.Deflater;
+
+/**
+ * Response compression of both servers, read from the flattened {@code config.yml}:
+ *
+ * <pre>
+ * app:
+ *   compression:
+ *     enabled: true      # negotiate gzip or deflate with clients that send Accept-Encoding
+ *     min-size: 1024     # bodies shorter than this many bytes are always sent as they are
+ *     level: 6           # zlib level, 1 (fastest) to 9 (smallest), -1 for the zlib default
+ * </pre>
+ *
+ * Below about a kilobyte the gzip framing and the CPU time outweigh the bytes saved, and the body fits in one
+ * packet either way.
+ */
+public record CompressionSettings(boolean enabled, int minSize, int level) {
+
+    public static final CompressionSettings DEFAULT = new CompressionSettings(true, 1024, 6);
+    public static final CompressionSettings DISABLED = DEFAULT.withEnabled(false);
+
+    public CompressionSettings {
+        if (minSize < 0) {
+            throw new IllegalArgumentException("The compression min-size must not be negative");
+        }
+        if (level != Deflater.DEFAULT_COMPRESSION
+                && (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("The compression level must be -1 or between 1 and 9, not " + level);
+        }
+    }
+
+    public static CompressionSettings from(Config config) {
+        Config compression = config.subtree("app.compression");
+        return new CompressionSettings(
+                compression.getBoolean("enabled", DEFAULT.enabled),
+                compression.getInt("min-size", DEFAULT.minSize),
+                compression.getInt("level", DEFAULT.level));
+    }
+
+    /**
+     * @return the coding to answer a request sending {@code acceptEncoding} with, identity when disabled
+     */
+    public ContentCoding negotiate(String acceptEncoding) {
+        return enabled ? ContentCoding.negotiate(acceptEncoding) : ContentCoding.IDENTITY;
+    }
+
+    /**
+     * @return whether a body of {@code length} bytes is worth compressing, so its response varies by coding
+     */
+    public boolean compresses(long length) {
+        return enabled && length >= minSize;
+    }
+
+    public CompressionSettings withEnabled(boolean enabled) {
+        return new CompressionSettings(enabled, minSize, level);
+    }
+
+    public CompressionSettings withMinSize(int minSize) {
+        return new CompressionSettings(enabled, minSize, level);
+    }
+
+    public CompressionSettings withLevel(int level) {
+        return new CompressionSettings(enabled, minSize, level);
+    }
+}
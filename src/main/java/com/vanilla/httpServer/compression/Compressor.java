@@ -0,0 +1,155 @@
+package com.vanilla.httpServer.compression;
+
+import com.vanilla.json.JsonOutput;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses a body as it is written, handing the compressed bytes on to another {@link JsonOutput} under the same
+ * contract: {@link JsonOutput#write} whenever the output buffer fills up, then {@link JsonOutput#close} with the
+ * rest. Gzip wraps a raw deflate stream in its header and CRC trailer, deflate is the zlib format HTTP names so.
+ *
+ * <p>A {@link Deflater} holds native zlib state of a few hundred kilobytes, costly to set up and only freed once
+ * it is garbage collected. Compressors borrow one, with its output buffer, from a pool shared by all threads and
+ * return it, reset, on close; unlike the thread-local buffers of {@link com.vanilla.json.JsonWriter} this also
+ * bounds the native memory under the virtual thread executor. A compressor abandoned without closing leaves its
+ * deflater to the garbage collector.
+ */
+public final class Compressor implements JsonOutput {
+
+    static final int BUFFER_SIZE = 8 * 1024;
+
+    private static final int POOL_SIZE = 2 * Runtime.getRuntime().availableProcessors();
+    private static final BlockingQueue<Pooled> RAW = new ArrayBlockingQueue<>(POOL_SIZE);
+    private static final BlockingQueue<Pooled> ZLIB = new ArrayBlockingQueue<>(POOL_SIZE);
+    private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+
+    private final JsonOutput downstream;
+    private final BlockingQueue<Pooled> pool;
+    private final CRC32 crc;
+    private Pooled pooled;
+    private int position;
+
+    /**
+     * @param coding gzip or deflate
+     * @param level  the zlib level, as in {@link CompressionSettings#level()}
+     */
+    public Compressor(JsonOutput downstream, ContentCoding coding, int level) {
+        if (coding == ContentCoding.IDENTITY) {
+            throw new IllegalArgumentException("Identity is not a compressed coding");
+        }
+        boolean gzip = coding == ContentCoding.GZIP;
+        this.downstream = downstream;
+        this.pool = gzip ? RAW : ZLIB;
+        this.crc = gzip ? new CRC32() : null;
+        Pooled borrowed = pool.poll();
+        this.pooled = borrowed != null ? borrowed : new Pooled(new Deflater(level, gzip), new byte[BUFFER_SIZE]);
+        pooled.deflater.setLevel(level);
+        if (gzip) {
+            System.arraycopy(GZIP_HEADER, 0, pooled.buffer, 0, GZIP_HEADER.length);
+            position = GZIP_HEADER.length;
+        }
+    }
+
+    /**
+     * @return {@code body} compressed in one go
+     */
+    public static byte[] compress(byte[] body, ContentCoding coding, int level) {
+        return compress(body, body.length, coding, level);
+    }
+
+    /**
+     * @return the first {@code length} bytes of {@code body} compressed in one go
+     */
+    public static byte[] compress(byte[] body, int length, ContentCoding coding, int level) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(length / 4 + 32);
+        try {
+            new Compressor(new JsonOutput() {
+                @Override
+                public void write(byte[] buffer, int length) {
+                    bytes.write(buffer, 0, length);
+                }
+
+                @Override
+                public void close(byte[] buffer, int length) {
+                    bytes.write(buffer, 0, length);
+                }
+            }, coding, level).close(body, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public void write(byte[] buffer, int length) throws IOException {
+        deflate(buffer, length);
+        while (!pooled.deflater.needsInput()) {
+            drain();
+        }
+    }
+
+    @Override
+    public void close(byte[] buffer, int length) throws IOException {
+        Deflater deflater = pooled.deflater;
+        deflate(buffer, length);
+        deflater.finish();
+        while (!deflater.finished()) {
+            drain();
+        }
+        if (crc != null) {
+            if (BUFFER_SIZE - position < 8) {
+                flush();
+            }
+            writeIntLe((int) crc.getValue());
+            writeIntLe((int) deflater.getBytesRead());
+        }
+        try {
+            downstream.close(pooled.buffer, position);
+        } finally {
+            deflater.reset();
+            if (!pool.offer(pooled)) {
+                deflater.end();
+            }
+            pooled = null;
+        }
+    }
+
+    private void deflate(byte[] buffer, int length) {
+        if (crc != null) {
+            crc.update(buffer, 0, length);
+        }
+        pooled.deflater.setInput(buffer, 0, length);
+    }
+
+    /**
+     * Compresses into the free part of the buffer, passing it on once full.
+     */
+    private void drain() throws IOException {
+        position += pooled.deflater.deflate(pooled.buffer, position, BUFFER_SIZE - position);
+        if (position == BUFFER_SIZE) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        downstream.write(pooled.buffer, position);
+        position = 0;
+    }
+
+    private void writeIntLe(int value) {
+        byte[] buffer = pooled.buffer;
+        buffer[position++] = (byte) value;
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) (value >>> 16);
+        buffer[position++] = (byte) (value >>> 24);
+    }
+
+    private record Pooled(Deflater deflater, byte[] buffer) {
+    }
+}
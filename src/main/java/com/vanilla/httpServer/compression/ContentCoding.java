@@ -0,0 +1,88 @@
+package com.vanilla.httpServer.compression;
+
+/**
+ * The content codings the servers answer with, in order of preference when a client accepts several equally.
+ */
+public enum ContentCoding {
+
+    GZIP("gzip"),
+    DEFLATE("deflate"),
+    IDENTITY("identity");
+
+    private static final ContentCoding[] VALUES = values();
+
+    private final String token;
+
+    ContentCoding(String token) {
+        this.token = token;
+    }
+
+    /**
+     * @return the name of the coding in {@code Accept-Encoding} and {@code Content-Encoding}
+     */
+    public String token() {
+        return token;
+    }
+
+    /**
+     * Picks the coding with the highest {@code q} value in an {@code Accept-Encoding} header, such as
+     * {@code gzip;q=0.8, deflate}; {@code *} stands for every coding not listed. A request without the header, or
+     * accepting neither compressed coding, gets identity; it is never refused with 406.
+     */
+    public static ContentCoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isEmpty()) {
+            return IDENTITY;
+        }
+        double[] quality = { -1, -1, -1 };
+        double wildcard = -1;
+        int start = 0;
+        while (start < acceptEncoding.length()) {
+            int end = acceptEncoding.indexOf(',', start);
+            if (end < 0) {
+                end = acceptEncoding.length();
+            }
+            int parameters = acceptEncoding.indexOf(';', start);
+            String name = acceptEncoding.substring(start, parameters < 0 || parameters > end ? end : parameters).trim();
+            double q = parameters < 0 || parameters > end ? 1 : quality(acceptEncoding, parameters + 1, end);
+            if (name.equals("*")) {
+                wildcard = q;
+            } else {
+                for (ContentCoding coding : VALUES) {
+                    if (coding.token.equalsIgnoreCase(name) || (coding == GZIP && name.equalsIgnoreCase("x-gzip"))) {
+                        quality[coding.ordinal()] = Math.max(quality[coding.ordinal()], q);
+                    }
+                }
+            }
+            start = end + 1;
+        }
+        ContentCoding best = IDENTITY;
+        double bestQuality = 0;
+        for (ContentCoding coding : VALUES) {
+            double q = quality[coding.ordinal()] >= 0 ? quality[coding.ordinal()] : wildcard;
+            if (coding != IDENTITY && q > bestQuality) {
+                best = coding;
+                bestQuality = q;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return the {@code q} value among the parameters {@code ;q=0.5} of one entry, 1 without one, 0 if invalid
+     */
+    private static double quality(String header, int from, int to) {
+        for (String parameter : header.substring(from, to).split(";")) {
+            String trimmed = parameter.trim();
+            if (trimmed.length() > 2 && (trimmed.charAt(0) == 'q' || trimmed.charAt(0) == 'Q')
+                    && trimmed.charAt(1) == '=') {
+                try {
+                    double q = Double.parseDouble(trimmed.substring(2));
+                    return q >= 0 && q <= 1 ? q : 0;
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
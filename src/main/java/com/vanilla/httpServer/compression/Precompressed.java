@@ -0,0 +1,56 @@
+package com.vanilla.httpServer.compression;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A body known ahead of time, compressed at most once per coding and kept in every coding it was asked for. A
+ * compressed form is only kept when the body reaches {@link CompressionSettings#minSize()} and compressing it
+ * saves bytes; otherwise the body is sent as it is in every coding.
+ */
+public final class Precompressed {
+
+    private final byte[] identity;
+    private volatile Encoded encoded;
+
+    private Precompressed(byte[] identity) {
+        this.identity = identity;
+    }
+
+    public static Precompressed of(byte[] body) {
+        return new Precompressed(body);
+    }
+
+    public byte[] identity() {
+        return identity;
+    }
+
+    /**
+     * @return the body in {@code coding}, or {@code null} when it is to be sent uncompressed
+     */
+    public byte[] body(ContentCoding coding, CompressionSettings settings) {
+        if (coding == ContentCoding.IDENTITY || !settings.compresses(identity.length)) {
+            return null;
+        }
+        Encoded encoded = this.encoded;
+        if (encoded == null || !encoded.settings.equals(settings)) {
+            encoded = new Encoded(settings, new AtomicReferenceArray<>(ContentCoding.values().length));
+            this.encoded = encoded;
+        }
+        byte[] body = encoded.bodies.get(coding.ordinal());
+        if (body == null) {
+            body = Compressor.compress(identity, coding, settings.level());
+            if (body.length >= identity.length) {
+                body = identity;
+            }
+            encoded.bodies.set(coding.ordinal(), body);
+        }
+        return body == identity ? null : body;
+    }
+
+    /**
+     * The compressed forms for one server's settings; servers sharing a body with other settings each compress it
+     * again. Racing requests may both compress a missing form, and either result is kept.
+     */
+    private record Encoded(CompressionSettings settings, AtomicReferenceArray<byte[]> bodies) {
+    }
+}
@@ -0,0 +1,128 @@
+package com.vanilla.httpServer.nio;
+
+import com.vanilla.httpServer.compression.CompressionSettings;
+import com.vanilla.httpServer.compression.Compressor;
+import com.vanilla.httpServer.compression.ContentCoding;
+import com.vanilla.json.JsonOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Deque;
+
+/**
+ * Queues a streamed JSON body on a connection output. A body that ends within the first buffer goes out with a
+ * {@code Content-Length}; once a buffer fills up the head announces chunked transfer encoding and every buffer
+ * becomes one chunk, copied into a buffer of its own since the writer reuses its buffer right away.
+ *
+ * <p>A body reaching the min-size of the response's compression settings is sent in its negotiated coding:
+ * compressed in one go when it fits the first buffer, else through a {@link Compressor} whose output buffers become
+ * the chunks.
+ */
+final class ChunkedJsonOutput implements JsonOutput {
+
+    private static final byte[] LAST_CHUNK = "0\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+    private static final String VARY = "Vary: Accept-Encoding\r\n";
+
+    private final HttpResponse response;
+    private final Deque<Object> output;
+    private final boolean keepAlive;
+    private Compressor compressor;
+    private boolean chunked;
+    private boolean closed;
+    private long length;
+
+    ChunkedJsonOutput(HttpResponse response, Deque<Object> output, boolean keepAlive) {
+        this.response = response;
+        this.output = output;
+        this.keepAlive = keepAlive;
+    }
+
+    @Override
+    public void write(byte[] buffer, int length) throws IOException {
+        if (!chunked) {
+            CompressionSettings compression = response.compression();
+            String extraHeaders = "";
+            if (compression.compresses(length)) {
+                extraHeaders = VARY;
+                if (response.coding() != ContentCoding.IDENTITY) {
+                    extraHeaders += "Content-Encoding: " + response.coding().token() + "\r\n";
+                    compressor = new Compressor(new JsonOutput() {
+                        @Override
+                        public void write(byte[] buffer, int length) {
+                            addChunk(buffer, length);
+                        }
+
+                        @Override
+                        public void close(byte[] buffer, int length) {
+                            addLastChunk(buffer, length);
+                        }
+                    }, response.coding(), compression.level());
+                }
+            }
+            output.add(ByteBuffer.wrap(response.encodeHead(keepAlive, -1, extraHeaders)));
+            chunked = true;
+        }
+        if (compressor != null) {
+            compressor.write(buffer, length);
+        } else {
+            addChunk(buffer, length);
+        }
+    }
+
+    @Override
+    public void close(byte[] buffer, int length) throws IOException {
+        if (compressor != null) {
+            compressor.close(buffer, length);
+        } else if (chunked) {
+            addLastChunk(buffer, length);
+        } else {
+            CompressionSettings compression = response.compression();
+            String extraHeaders = "";
+            byte[] body = null;
+            if (compression.compresses(length)) {
+                extraHeaders = VARY;
+                byte[] compressed = response.coding() == ContentCoding.IDENTITY ? null
+                        : Compressor.compress(buffer, length, response.coding(), compression.level());
+                if (compressed != null && compressed.length < length) {
+                    extraHeaders += "Content-Encoding: " + response.coding().token() + "\r\n";
+                    body = compressed;
+                }
+            }
+            if (body == null) {
+                body = new byte[length];
+                System.arraycopy(buffer, 0, body, 0, length);
+            }
+            output.add(ByteBuffer.wrap(response.encodeHead(keepAlive, body.length, extraHeaders)));
+            output.add(ByteBuffer.wrap(body));
+            this.length += body.length;
+            closed = true;
+        }
+    }
+
+    /**
+     * @return the body length as sent, compressed or not, without the chunk framing
+     * @throws IllegalStateException if the body did not complete its document
+     */
+    long length() {
+        if (!closed) {
+            throw new IllegalStateException("The JSON body left its document incomplete");
+        }
+        return length;
+    }
+
+    private void addLastChunk(byte[] buffer, int length) {
+        if (length > 0) {
+            addChunk(buffer, length);
+        }
+        output.add(ByteBuffer.wrap(LAST_CHUNK));
+        closed = true;
+    }
+
+    private void addChunk(byte[] buffer, int length) {
+        byte[] size = (Integer.toHexString(length) + "\r\n").getBytes(StandardCharsets.ISO_8859_1);
+        ByteBuffer chunk = ByteBuffer.allocate(size.length + length + 2);
+        chunk.put(size).put(buffer, 0, length).put((byte) '\r').put((byte) '\n').flip();
+        output.add(chunk);
+        this.length += length;
+    }
+}
@@ -0,0 +1,127 @@
+package com.vanilla.httpServer.nio;
+
+import com.vanilla.metrics.RequestMetrics;
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One selector thread serving the connections handed to it by the acceptor.
+ */
+final class EventLoop implements Runnable {
+
+    private final Selector selector;
+    private final RequestHandler handler;
+    private final RequestMetrics metrics;
+    private final AtomicInteger connections;
+    private final Queue<SocketChannel> accepted = new ConcurrentLinkedQueue<>();
+    private final Queue<SocketChannel> rejected = new ConcurrentLinkedQueue<>();
+    private volatile boolean running = true;
+
+    /**
+     * @param connections the open connections of the server, which this loop decrements as its connections close
+     */
+    EventLoop(RequestHandler handler, RequestMetrics metrics, AtomicInteger connections) throws IOException {
+        this.selector = Selector.open();
+        this.handler = handler;
+        this.metrics = metrics;
+        this.connections = connections;
+    }
+
+    /**
+     * Called from the acceptor thread; the channel is registered by the loop itself on its next wake up.
+     */
+    void register(SocketChannel channel) {
+        accepted.add(channel);
+        selector.wakeup();
+    }
+
+    /**
+     * Like {@link #register}, for a connection beyond the limit: its first request is answered with 503 and the
+     * connection closed. The request is still read, so the client sees the response rather than a reset.
+     */
+    void reject(SocketChannel channel) {
+        rejected.add(channel);
+        selector.wakeup();
+    }
+
+    /**
+     * Asks the loop to close its connections and selector, and returns without waiting for it.
+     */
+    void close() {
+        running = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        try (selector) {
+            while (running) {
+                selector.select();
+                registerAccepted();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    process(key);
+                }
+            }
+            for (SelectionKey key : selector.keys()) {
+                ((HttpConnection) key.attachment()).close();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void registerAccepted() {
+        SocketChannel channel;
+        while ((channel = accepted.poll()) != null) {
+            register(channel, connections::decrementAndGet, false);
+        }
+        while ((channel = rejected.poll()) != null) {
+            register(channel, () -> { }, true);
+        }
+    }
+
+    /**
+     * A channel its client already dropped is counted and closed, without affecting the other connections.
+     */
+    private void register(SocketChannel channel, Runnable onClose, boolean reject) {
+        try {
+            channel.configureBlocking(false);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new HttpConnection(channel, key, handler, metrics, onClose, reject));
+        } catch (IOException e) {
+            metrics.connectionFailed();
+            onClose.run();
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // the peer is gone either way
+            }
+        }
+    }
+
+    private void process(SelectionKey key) {
+        HttpConnection connection = (HttpConnection) key.attachment();
+        try {
+            if (key.isReadable()) {
+                connection.onReadable();
+            } else if (key.isWritable()) {
+                connection.onWritable();
+            }
+        } catch (IOException e) {
+            metrics.connectionFailed();
+            connection.close();
+        } catch (CancelledKeyException e) {
+            connection.close();
+        }
+    }
+}
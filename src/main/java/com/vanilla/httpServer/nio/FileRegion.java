@@ -0,0 +1,35 @@
+package com.vanilla.httpServer.nio;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * The part of a file still to be sent on one connection. Transfers use explicit positions, so the shared
+ * {@link FileChannel} can serve many connections at once.
+ */
+final class FileRegion {
+
+    private final FileChannel file;
+    private final long count;
+    private long position;
+
+    FileRegion(FileChannel file, long count) {
+        this.file = file;
+        this.count = count;
+    }
+
+    /**
+     * @return whether the whole region has been sent
+     */
+    boolean transferTo(WritableByteChannel target) throws IOException {
+        while (position < count) {
+            long sent = file.transferTo(position, count - position, target);
+            if (sent == 0) {
+                return false;
+            }
+            position += sent;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,192 @@
+package com.vanilla.httpServer.nio;
+
+import com.vanilla.metrics.RequestEvent;
+import com.vanilla.metrics.RequestMetrics;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * State of one keep-alive connection, confined to the event loop thread that registered it. Every complete request
+ * in the read buffer is answered in order, so pipelined requests are served from a single read, and the queued
+ * response buffers leave in one gathering write; file bodies in between are sent with {@code transferTo}.
+ *
+ * <p>A connection accepted beyond the server's connection limit answers its first request with 503 without running
+ * the handler, then closes.
+ */
+final class HttpConnection {
+
+    private static final int INITIAL_BUFFER_SIZE = 4 * 1024;
+    private static final int MAX_GATHER = 32;
+    private static final HttpResponse INTERNAL_ERROR = HttpResponse.json(500,
+            "{\"error\": \"Internal server error\"}");
+    private static final HttpResponse SERVICE_UNAVAILABLE = HttpResponse.json(503,
+            "{\"error\": \"Server busy, retry later\"}").withHeader("Retry-After", "1");
+
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final RequestHandler handler;
+    private final RequestMetrics metrics;
+    private final Runnable onClose;
+    private final boolean rejected;
+    private final HttpRequestDecoder decoder = new HttpRequestDecoder();
+    private final Deque<Object> output = new ArrayDeque<>();
+    private final ByteBuffer[] gather = new ByteBuffer[MAX_GATHER];
+    private ByteBuffer input = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private boolean closeAfterFlush;
+    private boolean closed;
+
+    /**
+     * @param onClose  runs once, when the connection closes
+     * @param rejected whether the connection was accepted beyond the limit, and only gets a 503
+     */
+    HttpConnection(SocketChannel channel, SelectionKey key, RequestHandler handler, RequestMetrics metrics,
+            Runnable onClose, boolean rejected) {
+        this.channel = channel;
+        this.key = key;
+        this.handler = handler;
+        this.metrics = metrics;
+        this.onClose = onClose;
+        this.rejected = rejected;
+    }
+
+    void onReadable() throws IOException {
+        if (channel.read(input) < 0) {
+            close();
+            return;
+        }
+        input.flip();
+        try {
+            HttpRequest request;
+            while (!closeAfterFlush && (request = decoder.decode(input)) != null) {
+                boolean keepAlive = !rejected && request.keepAlive();
+                RequestEvent event = metrics.start();
+                HttpResponse response = rejected ? SERVICE_UNAVAILABLE : respond(request);
+                long bytes = enqueue(response, keepAlive);
+                if (bytes < 0) {
+                    response = INTERNAL_ERROR;
+                    bytes = enqueue(response, keepAlive);
+                }
+                metrics.record(event, request.method(), request.path(), response.status(), bytes);
+            }
+        } catch (MalformedRequestException e) {
+            RequestEvent event = metrics.start();
+            String message = e.getMessage();
+            HttpResponse response = HttpResponse.json(e.getStatus(),
+                    json -> json.beginObject().name("error").value(message).endObject());
+            metrics.record(event, null, null, response.status(), enqueue(response, false));
+        }
+        input.compact();
+        ensureCapacity();
+        onWritable();
+    }
+
+    void onWritable() throws IOException {
+        while (!output.isEmpty()) {
+            if (output.peek() instanceof FileRegion region) {
+                if (!region.transferTo(channel)) {
+                    break;
+                }
+                output.poll();
+                continue;
+            }
+            int count = 0;
+            for (Object part : output) {
+                if (count == MAX_GATHER || !(part instanceof ByteBuffer buffer)) {
+                    break;
+                }
+                gather[count++] = buffer;
+            }
+            channel.write(gather, 0, count);
+            Arrays.fill(gather, 0, count, null);
+            int drained = 0;
+            while (output.peek() instanceof ByteBuffer buffer && !buffer.hasRemaining()) {
+                output.poll();
+                drained++;
+            }
+            if (drained < count) {
+                break;
+            }
+        }
+        if (!output.isEmpty()) {
+            key.interestOps(SelectionKey.OP_WRITE);
+        } else if (closeAfterFlush) {
+            close();
+        } else {
+            key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        onClose.run();
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // the peer is gone either way
+        }
+    }
+
+    /**
+     * A handler failing on I/O is answered with 500; only a {@link RuntimeException}, a bug, is worth its trace.
+     */
+    private HttpResponse respond(HttpRequest request) {
+        try {
+            return handler.handle(request);
+        } catch (IOException e) {
+            return INTERNAL_ERROR;
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            return INTERNAL_ERROR;
+        }
+    }
+
+    /**
+     * @return the body length, or -1 if a streamed body failed before anything was queued; one that fails halfway
+     *         has its connection closed once the queued part is sent, since the response cannot be completed
+     */
+    private long enqueue(HttpResponse response, boolean keepAlive) {
+        int queued = output.size();
+        try {
+            long bytes = response.enqueue(output, keepAlive);
+            closeAfterFlush |= !keepAlive;
+            return bytes;
+        } catch (IOException | RuntimeException e) {
+            if (e instanceof RuntimeException) {
+                e.printStackTrace();
+            }
+            metrics.connectionFailed();
+            if (output.size() == queued) {
+                return -1;
+            }
+            closeAfterFlush = true;
+            return 0;
+        }
+    }
+
+    /**
+     * Grows the read buffer when a request head or body does not fit, up to the decoder limits.
+     */
+    private void ensureCapacity() {
+        int needed = Math.max(decoder.pendingBodyLength(), input.position() + 1);
+        if (needed <= input.capacity()) {
+            return;
+        }
+        int capacity = input.capacity();
+        while (capacity < needed) {
+            capacity *= 2;
+        }
+        ByteBuffer grown = ByteBuffer.allocate(capacity);
+        input.flip();
+        grown.put(input);
+        input = grown;
+    }
+}
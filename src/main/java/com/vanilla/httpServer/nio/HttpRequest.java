@@ -0,0 +1,42 @@
+package com.vanilla.httpServer.nio;
+
+import com.vanilla.httpServer.routing.Router;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * A fully received HTTP/1.1 request.
+ *
+ * @param headers header values keyed by lower-case name; repeated headers keep the last value
+ * @param body    the request body, empty when there is no {@code Content-Length}
+ * @param route   the route matched by a {@link RoutingRequestHandler}, {@code null} before routing
+ */
+public record HttpRequest(String method, String path, String version, Map<String, String> headers, ByteBuffer body,
+        Router.Match<?> route) {
+
+    HttpRequest withRoute(Router.Match<?> route) {
+        return new HttpRequest(method, path, version, headers, body, route);
+    }
+
+    /**
+     * @return the value of the {@code {name}} segment of the matched route, or {@code null}
+     */
+    public String pathParam(String name) {
+        return route == null ? null : route.param(name);
+    }
+
+    public String header(String name) {
+        return headers.get(name);
+    }
+
+    /**
+     * HTTP/1.1 keeps the connection open unless told to close, HTTP/1.0 only when asked to.
+     */
+    public boolean keepAlive() {
+        String connection = headers.get("connection");
+        if ("HTTP/1.0".equals(version)) {
+            return "keep-alive".equalsIgnoreCase(connection);
+        }
+        return !"close".equalsIgnoreCase(connection);
+    }
+}
@@ -0,0 +1,136 @@
+package com.vanilla.httpServer.nio;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Incremental HTTP/1.1 request decoder. Bytes are fed as they arrive; the terminating blank line is searched only in
+ * bytes not scanned yet, and a request is returned once its head and {@code Content-Length} body are complete.
+ * Several pipelined requests in one buffer are returned by successive calls.
+ */
+final class HttpRequestDecoder {
+
+    static final int MAX_HEAD_SIZE = 16 * 1024;
+    static final int MAX_BODY_SIZE = 1024 * 1024;
+
+    private int scanned;
+    private HttpRequest head;
+    private int bodyLength;
+
+    /**
+     * @param buffer in read mode, positioned at the first byte of a request
+     * @return the next complete request, advancing the buffer past it, or {@code null} if more bytes are needed
+     */
+    HttpRequest decode(ByteBuffer buffer) throws MalformedRequestException {
+        if (head == null) {
+            int end = findHeadEnd(buffer);
+            if (end < 0) {
+                if (buffer.remaining() > MAX_HEAD_SIZE) {
+                    throw new MalformedRequestException(431, "Request head exceeds " + MAX_HEAD_SIZE + " bytes");
+                }
+                return null;
+            }
+            head = parseHead(buffer, end);
+            buffer.position(end + 4);
+            scanned = 0;
+        }
+        if (buffer.remaining() < bodyLength) {
+            return null;
+        }
+        byte[] body = new byte[bodyLength];
+        buffer.get(body);
+        HttpRequest request = new HttpRequest(head.method(), head.path(), head.version(), head.headers(),
+                ByteBuffer.wrap(body).asReadOnlyBuffer(), null);
+        head = null;
+        bodyLength = 0;
+        return request;
+    }
+
+    /**
+     * @return the bytes still missing from the request being decoded, so the caller can size its buffer
+     */
+    int pendingBodyLength() {
+        return head == null ? 0 : bodyLength;
+    }
+
+    private int findHeadEnd(ByteBuffer buffer) {
+        int start = buffer.position();
+        int limit = buffer.limit();
+        for (int i = Math.max(start, start + scanned - 3); i + 3 < limit; i++) {
+            if (buffer.get(i) == '\r' && buffer.get(i + 1) == '\n' && buffer.get(i + 2) == '\r'
+                    && buffer.get(i + 3) == '\n') {
+                return i;
+            }
+        }
+        scanned = limit - start;
+        return -1;
+    }
+
+    private HttpRequest parseHead(ByteBuffer buffer, int end) throws MalformedRequestException {
+        int lineEnd = indexOfCrlf(buffer, buffer.position(), end);
+        String requestLine = ascii(buffer, buffer.position(), lineEnd);
+        int firstSpace = requestLine.indexOf(' ');
+        int secondSpace = requestLine.indexOf(' ', firstSpace + 1);
+        if (firstSpace <= 0 || secondSpace < 0) {
+            throw new MalformedRequestException(400, "Malformed request line: " + requestLine);
+        }
+        String version = requestLine.substring(secondSpace + 1);
+        if (!version.startsWith("HTTP/1.")) {
+            throw new MalformedRequestException(400, "Unsupported version: " + version);
+        }
+
+        Map<String, String> headers = new HashMap<>();
+        for (int lineStart = lineEnd + 2; lineStart < end; lineStart = lineEnd + 2) {
+            lineEnd = indexOfCrlf(buffer, lineStart, end);
+            String line = ascii(buffer, lineStart, lineEnd);
+            int colon = line.indexOf(':');
+            if (colon <= 0) {
+                throw new MalformedRequestException(400, "Malformed header: " + line);
+            }
+            headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT), line.substring(colon + 1).trim());
+        }
+
+        if (headers.containsKey("transfer-encoding")) {
+            throw new MalformedRequestException(501, "Transfer-Encoding is not supported");
+        }
+        bodyLength = contentLength(headers.get("content-length"));
+        return new HttpRequest(requestLine.substring(0, firstSpace), requestLine.substring(firstSpace + 1, secondSpace),
+                version, headers, null, null);
+    }
+
+    private static int contentLength(String value) throws MalformedRequestException {
+        if (value == null) {
+            return 0;
+        }
+        long length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new MalformedRequestException(400, "Malformed Content-Length: " + value);
+            }
+            length = length * 10 + (c - '0');
+            if (length > MAX_BODY_SIZE) {
+                throw new MalformedRequestException(413, "Body exceeds " + MAX_BODY_SIZE + " bytes");
+            }
+        }
+        return (int) length;
+    }
+
+    private static int indexOfCrlf(ByteBuffer buffer, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (buffer.get(i) == '\r' && buffer.get(i + 1) == '\n') {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    private static String ascii(ByteBuffer buffer, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,279 @@
+package com.vanilla.httpServer.nio;
+
+import com.vanilla.httpServer.compression.CompressionSettings;
+import com.vanilla.httpServer.compression.Compressor;
+import com.vanilla.httpServer.compression.ContentCoding;
+import com.vanilla.json.JsonBody;
+import com.vanilla.json.JsonWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A response of the NIO engine, encoded once when it is created: the header blocks for keep-alive and closing
+ * connections and the body are kept as byte arrays and as read-only direct buffers. Writing it only hands out
+ * views of those buffers, so a single instance can answer every request of a static route. File-backed responses
+ * keep their {@link FileChannel} open and are sent with {@link FileChannel#transferTo}.
+ *
+ * <p>Streamed JSON responses, from {@link #json(int, JsonBody)}, are the exception: their body is written for every
+ * request as it is queued, sized by {@code Content-Length} when it fits in one {@link JsonWriter} buffer and sent with
+ * chunked transfer encoding otherwise.
+ *
+ * <p>{@link #encodedFor} picks the form of a response for the coding negotiated with a client. An in-memory body is
+ * compressed at most once per coding, on first use, into a response of its own that is kept with this one; a
+ * streamed body is compressed as it is written, and a file body is sent as it is.
+ */
+public final class HttpResponse {
+
+    private final int status;
+    private final String contentType;
+    private final long contentLength;
+    private final byte[] body;
+    private final ByteBuffer directBody;
+    private final FileChannel file;
+    private final JsonBody stream;
+    private final ContentCoding coding;
+    private final CompressionSettings compression;
+    private final String headers;
+    private final byte[] keepAliveHead;
+    private final byte[] closeHead;
+    private final ByteBuffer directKeepAliveHead;
+    private final ByteBuffer directCloseHead;
+    private volatile Encoded encoded;
+
+    private HttpResponse(int status, String contentType, byte[] body, FileChannel file, long contentLength,
+            String headers) {
+        this.status = status;
+        this.contentType = contentType;
+        this.contentLength = contentLength;
+        this.body = body;
+        this.directBody = body == null ? null : direct(body);
+        this.file = file;
+        this.stream = null;
+        this.coding = ContentCoding.IDENTITY;
+        this.compression = CompressionSettings.DISABLED;
+        this.headers = headers;
+        this.keepAliveHead = encodeHead(true, contentLength);
+        this.closeHead = encodeHead(false, contentLength);
+        this.directKeepAliveHead = direct(keepAliveHead);
+        this.directCloseHead = direct(closeHead);
+    }
+
+    private HttpResponse(int status, JsonBody stream, String headers, ContentCoding coding,
+            CompressionSettings compression) {
+        this.status = status;
+        this.contentType = "application/json";
+        this.contentLength = -1;
+        this.body = null;
+        this.directBody = null;
+        this.file = null;
+        this.stream = stream;
+        this.coding = coding;
+        this.compression = compression;
+        this.headers = headers;
+        this.keepAliveHead = null;
+        this.closeHead = null;
+        this.directKeepAliveHead = null;
+        this.directCloseHead = null;
+    }
+
+    public static HttpResponse json(int status, String json) {
+        return of(status, "application/json", json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * A response whose body is written by {@code body} each time it is sent, so it can reflect current state
+     * without being built as a string. The body runs on the event loop thread and must not block.
+     */
+    public static HttpResponse json(int status, JsonBody body) {
+        return new HttpResponse(status, body, "", ContentCoding.IDENTITY, CompressionSettings.DISABLED);
+    }
+
+    public static HttpResponse of(int status, String contentType, byte[] body) {
+        return new HttpResponse(status, contentType, body, null, body.length, "");
+    }
+
+    /**
+     * Serves {@code path} as it is now; the file stays open for the lifetime of the response.
+     */
+    public static HttpResponse file(int status, String contentType, Path path) throws IOException {
+        FileChannel file = FileChannel.open(path, StandardOpenOption.READ);
+        return new HttpResponse(status, contentType, null, file, file.size(), "");
+    }
+
+    /**
+     * @return a copy of this response that also sends {@code name: value}, encoded once like the rest of the head
+     */
+    public HttpResponse withHeader(String name, String value) {
+        String headers = this.headers + name + ": " + value + "\r\n";
+        return stream != null ? new HttpResponse(status, stream, headers, coding, compression)
+                : new HttpResponse(status, contentType, body, file, contentLength, headers);
+    }
+
+    /**
+     * @return the form of this response to send in {@code coding}: with a compressed body and
+     *         {@code Content-Encoding} when compressing pays off, and with {@code Vary: Accept-Encoding} whenever
+     *         the body is long enough that it could have
+     */
+    public HttpResponse encodedFor(ContentCoding coding, CompressionSettings compression) {
+        if (!compression.enabled() || file != null) {
+            return this;
+        }
+        if (stream != null) {
+            return new HttpResponse(status, stream, headers, coding, compression);
+        }
+        if (!compression.compresses(contentLength)) {
+            return this;
+        }
+        Encoded encoded = this.encoded;
+        if (encoded == null || !encoded.compression.equals(compression)) {
+            encoded = new Encoded(compression, new AtomicReferenceArray<>(ContentCoding.values().length));
+            this.encoded = encoded;
+        }
+        HttpResponse response = encoded.responses.get(coding.ordinal());
+        if (response == null) {
+            String vary = headers + "Vary: Accept-Encoding\r\n";
+            byte[] compressed = coding == ContentCoding.IDENTITY ? null
+                    : Compressor.compress(body, coding, compression.level());
+            response = compressed == null || compressed.length >= body.length
+                    ? new HttpResponse(status, contentType, body, null, contentLength, vary)
+                    : new HttpResponse(status, contentType, compressed, null, compressed.length,
+                            vary + "Content-Encoding: " + coding.token() + "\r\n");
+            encoded.responses.set(coding.ordinal(), response);
+        }
+        return response;
+    }
+
+    public int status() {
+        return status;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    /**
+     * @return the body length, -1 for a streamed response whose length is only known once it is written
+     */
+    public long contentLength() {
+        return contentLength;
+    }
+
+    /**
+     * @return a read-only view of the in-memory body, or {@code null} for file-backed and streamed responses
+     */
+    public ByteBuffer body() {
+        return directBody == null ? null : directBody.duplicate();
+    }
+
+    /**
+     * Writes the whole response to a blocking stream.
+     */
+    public void writeTo(OutputStream os, boolean keepAlive) throws IOException {
+        if (stream != null) {
+            Deque<Object> output = new ArrayDeque<>();
+            enqueue(output, keepAlive);
+            for (Object part : output) {
+                ByteBuffer buffer = (ByteBuffer) part;
+                os.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            }
+            return;
+        }
+        os.write(keepAlive ? keepAliveHead : closeHead);
+        if (body != null) {
+            os.write(body);
+        } else {
+            long position = 0;
+            while (position < contentLength) {
+                position += file.transferTo(position, contentLength - position, Channels.newChannel(os));
+            }
+        }
+    }
+
+    /**
+     * Queues the head and body on a connection output, as {@link ByteBuffer}s and {@link FileRegion}s. A streamed
+     * body that throws before anything was queued leaves {@code output} as it was.
+     *
+     * @return the length of the body
+     */
+    long enqueue(Deque<Object> output, boolean keepAlive) throws IOException {
+        if (stream != null) {
+            ChunkedJsonOutput chunks = new ChunkedJsonOutput(this, output, keepAlive);
+            try (JsonWriter json = new JsonWriter(chunks)) {
+                stream.writeTo(json);
+            }
+            return chunks.length();
+        }
+        output.add((keepAlive ? directKeepAliveHead : directCloseHead).duplicate());
+        if (directBody != null) {
+            output.add(directBody.duplicate());
+        } else {
+            output.add(new FileRegion(file, contentLength));
+        }
+        return contentLength;
+    }
+
+    ContentCoding coding() {
+        return coding;
+    }
+
+    CompressionSettings compression() {
+        return compression;
+    }
+
+    byte[] encodeHead(boolean keepAlive, long contentLength) {
+        return encodeHead(keepAlive, contentLength, "");
+    }
+
+    /**
+     * @param contentLength -1 for a chunked body
+     * @param extraHeaders  header lines sent with this head only, such as the coding of a streamed body
+     */
+    byte[] encodeHead(boolean keepAlive, long contentLength, String extraHeaders) {
+        String head = "HTTP/1.1 " + status + " " + reason(status) + "\r\n"
+                + "Content-Type: " + contentType + "\r\n"
+                + (contentLength < 0 ? "Transfer-Encoding: chunked\r\n" : "Content-Length: " + contentLength + "\r\n")
+                + headers
+                + extraHeaders
+                + (keepAlive ? "" : "Connection: close\r\n")
+                + "\r\n";
+        return head.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static ByteBuffer direct(byte[] bytes) {
+        return ByteBuffer.allocateDirect(bytes.length).put(bytes).flip().asReadOnlyBuffer();
+    }
+
+    static String reason(int status) {
+        return switch (status) {
+            case 200 -> "OK";
+            case 201 -> "Created";
+            case 204 -> "No Content";
+            case 400 -> "Bad Request";
+            case 404 -> "Not Found";
+            case 405 -> "Method Not Allowed";
+            case 408 -> "Request Timeout";
+            case 413 -> "Payload Too Large";
+            case 431 -> "Request Header Fields Too Large";
+            case 500 -> "Internal Server Error";
+            case 501 -> "Not Implemented";
+            case 503 -> "Service Unavailable";
+            default -> "Status";
+        };
+    }
+
+    /**
+     * The forms of an in-memory response for one server's settings, by coding; see
+     * {@link com.vanilla.httpServer.compression.Precompressed}, which keeps bodies the same way.
+     */
+    private record Encoded(CompressionSettings compression, AtomicReferenceArray<HttpResponse> responses) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.vanilla.httpServer.nio;
+
+import java.io.IOException;
+
+/**
+ * A request the decoder cannot accept; the connection answers with {@link #getStatus()} and closes.
+ */
+public class MalformedRequestException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+
+    public MalformedRequestException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
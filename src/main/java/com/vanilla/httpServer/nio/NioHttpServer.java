@@ -0,0 +1,127 @@
+package com.vanilla.httpServer.nio;
+
+import com.vanilla.metrics.Counter;
+import com.vanilla.metrics.MetricsRegistry;
+import com.vanilla.metrics.RequestMetrics;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking HTTP/1.1 server: one acceptor thread hands connections round-robin to {@code eventLoops} selector
+ * threads, each serving its connections with keep-alive and pipelining. Connections and requests are recorded in
+ * {@link MetricsRegistry#global()} under {@code server="nio"}.
+ *
+ * <p>Handlers run on the event loops and never block, so the work in flight is bounded by the number of loops; what
+ * grows under overload is the number of connections. Beyond {@code maxConnections} open ones, a new connection has
+ * its first request answered with 503 and is closed, counted in {@code http_rejected_total} with reason
+ * {@code connections}.
+ */
+public class NioHttpServer implements Closeable {
+
+    private final ServerSocketChannel serverChannel;
+    private final EventLoop[] eventLoops;
+    private final RequestMetrics metrics = new RequestMetrics(MetricsRegistry.global(), "nio");
+    private final int maxConnections;
+    private final AtomicInteger connections = new AtomicInteger();
+    private final Counter rejected = MetricsRegistry.global().counter("http_rejected_total", "server", "nio", "route",
+            "", "reason", "connections");
+
+    /**
+     * Binds the listening socket, with no connection limit.
+     */
+    public NioHttpServer(InetSocketAddress address, int eventLoops, RequestHandler handler) throws IOException {
+        this(address, eventLoops, handler, 0);
+    }
+
+    /**
+     * Binds the listening socket; port {@code 0} picks a free port, readable from {@link #getPort()}.
+     *
+     * @param maxConnections the open connections above which new ones are turned away, 0 for no limit
+     */
+    public NioHttpServer(InetSocketAddress address, int eventLoops, RequestHandler handler, int maxConnections)
+            throws IOException {
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.bind(address, 1024);
+        this.maxConnections = maxConnections;
+        this.eventLoops = new EventLoop[eventLoops];
+        for (int i = 0; i < eventLoops; i++) {
+            this.eventLoops[i] = new EventLoop(handler, metrics, connections);
+        }
+    }
+
+    /**
+     * @return the connections open now, not counting those being turned away
+     */
+    public int openConnections() {
+        return connections.get();
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public NioHttpServer start() {
+        for (int i = 0; i < eventLoops.length; i++) {
+            Thread thread = new Thread(eventLoops[i], "nio-event-loop-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        Thread acceptor = new Thread(this::accept, "nio-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return this;
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverChannel.close();
+        for (EventLoop eventLoop : eventLoops) {
+            eventLoop.close();
+        }
+    }
+
+    private void accept() {
+        int next = 0;
+        while (serverChannel.isOpen()) {
+            SocketChannel channel;
+            try {
+                channel = serverChannel.accept();
+            } catch (IOException e) {
+                if (serverChannel.isOpen()) {
+                    e.printStackTrace();
+                }
+                continue;
+            }
+            metrics.connectionAccepted();
+            try {
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            } catch (IOException e) {
+                // reset before it could be handed over
+                metrics.connectionFailed();
+                closeQuietly(channel);
+                continue;
+            }
+            if (maxConnections > 0 && connections.get() >= maxConnections) {
+                rejected.increment();
+                eventLoops[next].reject(channel);
+            } else {
+                connections.incrementAndGet();
+                eventLoops[next].register(channel);
+            }
+            next = (next + 1) % eventLoops.length;
+        }
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // the peer is gone either way
+        }
+    }
+}
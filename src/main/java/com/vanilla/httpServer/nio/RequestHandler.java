@@ -0,0 +1,13 @@
+package com.vanilla.httpServer.nio;
+
+import java.io.IOException;
+
+/**
+ * Answers requests of {@link NioHttpServer}. Handlers run on the event loop thread that owns the connection, so they
+ * must not block.
+ */
+@FunctionalInterface
+public interface RequestHandler {
+
+    HttpResponse handle(HttpRequest request) throws IOException;
+}
@@ -0,0 +1,64 @@
+package com.vanilla.httpServer.nio;
+
+import com.vanilla.httpServer.compression.CompressionSettings;
+import com.vanilla.httpServer.compression.ContentCoding;
+import com.vanilla.httpServer.routing.Router;
+import com.vanilla.json.JsonLimitException;
+import com.vanilla.json.MalformedJsonException;
+import java.io.IOException;
+
+/**
+ * Dispatches requests of the NIO engine through a {@link Router}; the matched route is available to the handler
+ * through {@link HttpRequest#pathParam(String)}. A request body the handler fails to read as JSON is answered with
+ * 400, or with 413 when it exceeds the {@link com.vanilla.json.JsonLimits}. Responses are sent in the coding
+ * negotiated from {@code Accept-Encoding}, as {@link HttpResponse#encodedFor} allows.
+ */
+public final class RoutingRequestHandler implements RequestHandler {
+
+    private static final HttpResponse NOT_FOUND = HttpResponse.json(404, "{\"error\": \"Not found\"}");
+    private static final HttpResponse METHOD_NOT_ALLOWED = HttpResponse.json(405,
+            "{\"error\": \"Method not supported\"}");
+
+    private final Router<RequestHandler> router;
+    private final CompressionSettings compression;
+
+    public RoutingRequestHandler(Router<RequestHandler> router) {
+        this(router, CompressionSettings.DEFAULT);
+    }
+
+    public RoutingRequestHandler(Router<RequestHandler> router, CompressionSettings compression) {
+        this.router = router;
+        this.compression = compression;
+    }
+
+    @Override
+    public HttpResponse handle(HttpRequest request) throws IOException {
+        HttpResponse response = route(request);
+        if (!compression.enabled()) {
+            return response;
+        }
+        ContentCoding coding = compression.negotiate(request.header("accept-encoding"));
+        return response.encodedFor(coding, compression);
+    }
+
+    private HttpResponse route(HttpRequest request) throws IOException {
+        Router.Match<RequestHandler> match = router.match(request.method(), request.path());
+        return switch (match.status()) {
+            case FOUND -> {
+                try {
+                    yield match.handler().handle(request.withRoute(match));
+                } catch (MalformedJsonException e) {
+                    yield error(400, e.getMessage());
+                } catch (JsonLimitException e) {
+                    yield error(413, e.getMessage());
+                }
+            }
+            case METHOD_NOT_ALLOWED -> METHOD_NOT_ALLOWED;
+            case NOT_FOUND -> NOT_FOUND;
+        };
+    }
+
+    private static HttpResponse error(int status, String message) {
+        return HttpResponse.json(status, json -> json.beginObject().name("error").value(message).endObject());
+    }
+}
@@ -0,0 +1,51 @@
+package com.vanilla.httpServer.routing;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Handlers by the names {@code config.yml} endpoints refer to, turned into a {@link Router} together with the routes
+ * declared in code.
+ *
+ * @param <H> the handler type of the server
+ */
+public final class HandlerRegistry<H> {
+
+    private final Map<String, H> handlers = new HashMap<>();
+    private final Router.Builder<H> builder = Router.builder();
+
+    public HandlerRegistry<H> register(String name, H handler) {
+        handlers.put(name, handler);
+        return this;
+    }
+
+    public HandlerRegistry<H> route(String method, String pattern, H handler) {
+        builder.route(method, pattern, handler);
+        return this;
+    }
+
+    /**
+     * Adds the configured endpoints and builds the router.
+     *
+     * @param staticResponse creates the handler of an endpoint without a {@code handler} name
+     * @throws IllegalArgumentException if an endpoint names a handler that was not registered
+     */
+    public Router<H> build(List<RouteDefinition> definitions, Function<RouteDefinition, H> staticResponse) {
+        for (RouteDefinition definition : definitions) {
+            H handler;
+            if (definition.handler() == null) {
+                handler = staticResponse.apply(definition);
+            } else {
+                handler = handlers.get(definition.handler());
+                if (handler == null) {
+                    throw new IllegalArgumentException("No handler registered as '" + definition.handler() + "' for "
+                            + definition.method() + " " + definition.path());
+                }
+            }
+            builder.route(definition.method(), definition.path(), handler);
+        }
+        return builder.build();
+    }
+}
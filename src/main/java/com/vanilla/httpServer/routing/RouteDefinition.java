@@ -0,0 +1,175 @@
+package com.vanilla.httpServer.routing;
+
+import com.vanilla.config.Config;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * An endpoint declared in {@code config.yml}:
+ *
+ * <pre>
+ * app:
+ *   endpoint:
+ *     GET:
+ *       path: /users/{id}   # defaults to /
+ *       handler: users      # optional, a name of the {@link HandlerRegistry}
+ *       type:
+ *         json:
+ *           request:        # the JSON object a request body must hold, see requestMismatch
+ *             name: John
+ *           response:       # served as a static JSON body when there is no handler
+ *             name: John
+ * </pre>
+ *
+ * @param handler  the registry name of the handler, {@code null} to serve {@code response}
+ * @param request  the nested {@code type.json.request} subtree, empty when absent
+ * @param response the nested {@code type.json.response} subtree, empty when absent
+ */
+public record RouteDefinition(String method, String path, String handler, Map<String, Object> request,
+        Map<String, Object> response) {
+
+    private static final Set<String> METHODS = Set.of("GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS");
+
+    public static List<RouteDefinition> fromConfig(Config config) {
+        Config endpoints = config.subtree("app.endpoint");
+        Set<String> methods = new TreeSet<>();
+        for (String key : endpoints.keys()) {
+            int methodEnd = key.indexOf('.');
+            if (methodEnd > 0 && METHODS.contains(key.substring(0, methodEnd))) {
+                methods.add(key.substring(0, methodEnd));
+            }
+        }
+        List<RouteDefinition> routes = new ArrayList<>();
+        for (String method : methods) {
+            Config endpoint = endpoints.subtree(method);
+            routes.add(new RouteDefinition(
+                    method,
+                    endpoint.getString("path", "/"),
+                    endpoint.getString("handler", null),
+                    nest(endpoint.subtree("type.json.request")),
+                    nest(endpoint.subtree("type.json.response"))));
+        }
+        return routes;
+    }
+
+    /**
+     * Rebuilds the nested maps of a flattened subtree.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> nest(Config subtree) {
+        Map<String, Object> root = new TreeMap<>();
+        subtree.asMap().forEach((key, value) -> {
+            Map<String, Object> node = root;
+            String[] segments = key.split("\\.");
+            for (int i = 0; i < segments.length - 1; i++) {
+                node = (Map<String, Object>) node.computeIfAbsent(segments[i], k -> new TreeMap<>());
+            }
+            node.put(segments[segments.length - 1], value);
+        });
+        return root;
+    }
+
+    /**
+     * Checks a request body against {@code request}: the body must be an object holding every member the shape
+     * declares, each of the same kind as the example value of the shape (object, array, string, number or
+     * boolean); objects are checked recursively, and members the shape does not declare are allowed.
+     *
+     * @return why {@code body} does not match, or {@code null} if it does
+     */
+    public String requestMismatch(Object body) {
+        return mismatch("", request, body);
+    }
+
+    private static String mismatch(String path, Object shape, Object value) {
+        String kind = kind(shape);
+        if (value == null) {
+            return path.isEmpty() ? "Expected a JSON " + kind + " body" : "Missing " + kind + " '" + path + "'";
+        }
+        if (!kind.equals(kind(value))) {
+            return path.isEmpty() ? "Expected a JSON " + kind + " body"
+                    : "Expected '" + path + "' to be a " + kind + " but was a " + kind(value);
+        }
+        if (shape instanceof Map<?, ?> members) {
+            for (Map.Entry<?, ?> member : members.entrySet()) {
+                String name = String.valueOf(member.getKey());
+                String mismatch = mismatch(path.isEmpty() ? name : path + "." + name, member.getValue(),
+                        ((Map<?, ?>) value).get(name));
+                if (mismatch != null) {
+                    return mismatch;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String kind(Object value) {
+        if (value instanceof Map<?, ?>) {
+            return "object";
+        } else if (value instanceof List<?>) {
+            return "array";
+        } else if (value instanceof Number) {
+            return "number";
+        } else if (value instanceof Boolean) {
+            return "boolean";
+        }
+        return "string";
+    }
+
+    /**
+     * @return {@code response} rendered as JSON
+     */
+    public String responseJson() {
+        StringBuilder json = new StringBuilder();
+        appendJson(json, response);
+        return json.toString();
+    }
+
+    private static void appendJson(StringBuilder json, Object value) {
+        if (value instanceof Map<?, ?> map) {
+            json.append('{');
+            String separator = "";
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                json.append(separator);
+                appendJson(json, String.valueOf(entry.getKey()));
+                json.append(": ");
+                appendJson(json, entry.getValue());
+                separator = ", ";
+            }
+            json.append('}');
+        } else if (value instanceof List<?> list) {
+            json.append('[');
+            for (int i = 0; i < list.size(); i++) {
+                json.append(i == 0 ? "" : ", ");
+                appendJson(json, list.get(i));
+            }
+            json.append(']');
+        } else if (value == null || value instanceof Number || value instanceof Boolean) {
+            json.append(value);
+        } else {
+            json.append('"');
+            String text = value.toString();
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                switch (c) {
+                    case '"' -> json.append("\\\"");
+                    case '\\' -> json.append("\\\\");
+                    case '\n' -> json.append("\\n");
+                    case '\r' -> json.append("\\r");
+                    case '\t' -> json.append("\\t");
+                    default -> {
+                        if (c < 0x20) {
+                            json.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            json.append(c);
+                        }
+                    }
+                }
+            }
+            json.append('"');
+        }
+    }
+}
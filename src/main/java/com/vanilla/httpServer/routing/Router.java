@@ -0,0 +1,252 @@
+package com.vanilla.httpServer.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Routes a method and path to a handler through a trie of path segments. Static segments are compared by a hash and
+ * a region match over the request path itself, and {@code {name}} segments capture whatever sits between two
+ * slashes, so matching costs O(path length) and allocates nothing for routes without parameters. Static segments
+ * win over parameters at the same depth.
+ *
+ * <pre>{@code
+ * Router<Handler> router = Router.<Handler>builder()
+ *         .route("GET", "/users", listUsers)
+ *         .route("GET", "/users/{id}", getUser)
+ *         .build();
+ * Router.Match<Handler> match = router.match("GET", "/users/42?verbose=true");
+ * match.param("id"); // "42"
+ * }</pre>
+ *
+ * @param <H> the handler type of the server using the router
+ */
+public final class Router<H> {
+
+    private final Node<H> root;
+    private final int maxParams;
+
+    private Router(Node<H> root, int maxParams) {
+        this.root = root;
+        this.maxParams = maxParams;
+    }
+
+    public static <H> Builder<H> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * @param path the request target; a query string is ignored
+     */
+    public Match<H> match(String method, String path) {
+        int end = path.indexOf('?');
+        end = end < 0 ? path.length() : end;
+        Node<H> node = find(root, path, 0, end, null, 0);
+        if (node == null || node.methods.isEmpty()) {
+            return Match.notFound();
+        }
+        for (int i = 0; i < node.methods.size(); i++) {
+            if (node.methods.get(i).equals(method)) {
+                Match<H> match = node.matches.get(i);
+                return node.paramNames.length == 0 ? match : match.withValues(capture(path, end));
+            }
+        }
+        return Match.methodNotAllowed();
+    }
+
+    /**
+     * Walks the path again to collect the parameter values of a route known to have some, so routes without
+     * parameters, the common case, never allocate the array.
+     */
+    private String[] capture(String path, int end) {
+        String[] values = new String[maxParams];
+        find(root, path, 0, end, values, 0);
+        return values;
+    }
+
+    /**
+     * @param values where captured parameters are stored by depth, or {@code null} to only find the node
+     */
+    private static <H> Node<H> find(Node<H> node, String path, int from, int end, String[] values, int depth) {
+        while (from < end && path.charAt(from) == '/') {
+            from++;
+        }
+        if (from == end) {
+            return node;
+        }
+        int segmentEnd = path.indexOf('/', from);
+        segmentEnd = segmentEnd < 0 || segmentEnd > end ? end : segmentEnd;
+
+        int hash = 0;
+        for (int i = from; i < segmentEnd; i++) {
+            hash = 31 * hash + path.charAt(i);
+        }
+        int length = segmentEnd - from;
+        for (int i = 0; i < node.staticSegments.size(); i++) {
+            String segment = node.staticSegments.get(i);
+            if (node.staticHashes.get(i) == hash && segment.length() == length
+                    && path.regionMatches(from, segment, 0, length)) {
+                Node<H> found = find(node.staticChildren.get(i), path, segmentEnd, end, values, depth);
+                if (found != null && !found.methods.isEmpty()) {
+                    return found;
+                }
+            }
+        }
+        if (node.paramChild != null) {
+            Node<H> found = find(node.paramChild, path, segmentEnd, end, values, depth + 1);
+            if (found != null && !found.methods.isEmpty()) {
+                if (values != null) {
+                    values[depth] = path.substring(from, segmentEnd);
+                }
+                return found;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The outcome of {@link #match}; parameter values are indexed by the order of their names in the pattern.
+     */
+    public static final class Match<H> {
+
+        public enum Status {
+            FOUND,
+            NOT_FOUND,
+            METHOD_NOT_ALLOWED
+        }
+
+        private static final Match<?> NOT_FOUND = new Match<>(Status.NOT_FOUND, null, null, new String[0], null);
+        private static final Match<?> METHOD_NOT_ALLOWED = new Match<>(Status.METHOD_NOT_ALLOWED, null, null,
+                new String[0], null);
+
+        private final Status status;
+        private final H handler;
+        private final String route;
+        private final String[] names;
+        private final String[] values;
+
+        private Match(Status status, H handler, String route, String[] names, String[] values) {
+            this.status = status;
+            this.handler = handler;
+            this.route = route;
+            this.names = names;
+            this.values = values;
+        }
+
+        @SuppressWarnings("unchecked")
+        static <H> Match<H> notFound() {
+            return (Match<H>) NOT_FOUND;
+        }
+
+        @SuppressWarnings("unchecked")
+        static <H> Match<H> methodNotAllowed() {
+            return (Match<H>) METHOD_NOT_ALLOWED;
+        }
+
+        Match<H> withValues(String[] values) {
+            return new Match<>(status, handler, route, names, values);
+        }
+
+        public Status status() {
+            return status;
+        }
+
+        public H handler() {
+            return handler;
+        }
+
+        /**
+         * @return the method and pattern the route was registered with, e.g. {@code GET /users/{id}}; {@code null}
+         *         unless the route was found
+         */
+        public String route() {
+            return route;
+        }
+
+        /**
+         * @return the value captured by {@code {name}}, or {@code null} if the route has no such parameter
+         */
+        public String param(String name) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(name)) {
+                    return values[i];
+                }
+            }
+            return null;
+        }
+    }
+
+    public static final class Builder<H> {
+
+        private final Node<H> root = new Node<>();
+        private int maxParams;
+
+        private Builder() {
+        }
+
+        /**
+         * @param pattern a path such as {@code /users/{id}/orders}; a parameter must span a whole segment
+         * @throws IllegalArgumentException if the route is already registered, or a parameter at the same position
+         *                                  of another route has a different name
+         */
+        public Builder<H> route(String method, String pattern, H handler) {
+            Node<H> node = root;
+            List<String> names = new ArrayList<>();
+            for (String segment : pattern.split("/")) {
+                if (segment.isEmpty()) {
+                    continue;
+                }
+                if (segment.startsWith("{") && segment.endsWith("}")) {
+                    String name = segment.substring(1, segment.length() - 1);
+                    if (node.paramChild == null) {
+                        node.paramChild = new Node<>();
+                        node.paramChildName = name;
+                    } else if (!node.paramChildName.equals(name)) {
+                        throw new IllegalArgumentException("Parameter {" + name + "} of " + pattern
+                                + " conflicts with {" + node.paramChildName + "}");
+                    }
+                    names.add(name);
+                    node = node.paramChild;
+                } else {
+                    node = node.staticChild(segment);
+                }
+            }
+            if (node.methods.contains(method)) {
+                throw new IllegalArgumentException("Route " + method + " " + pattern + " is already registered");
+            }
+            node.paramNames = names.toArray(String[]::new);
+            node.methods.add(method);
+            node.matches.add(new Match<>(Match.Status.FOUND, handler, method + " " + pattern, node.paramNames,
+                    new String[0]));
+            maxParams = Math.max(maxParams, names.size());
+            return this;
+        }
+
+        public Router<H> build() {
+            return new Router<>(root, maxParams);
+        }
+    }
+
+    private static final class Node<H> {
+
+        final List<String> staticSegments = new ArrayList<>();
+        final List<Integer> staticHashes = new ArrayList<>();
+        final List<Node<H>> staticChildren = new ArrayList<>();
+        Node<H> paramChild;
+        String paramChildName;
+        String[] paramNames = new String[0];
+        final List<String> methods = new ArrayList<>();
+        final List<Match<H>> matches = new ArrayList<>();
+
+        Node<H> staticChild(String segment) {
+            int index = staticSegments.indexOf(segment);
+            if (index >= 0) {
+                return staticChildren.get(index);
+            }
+            Node<H> child = new Node<>();
+            staticSegments.add(segment);
+            staticHashes.add(segment.hashCode());
+            staticChildren.add(child);
+            return child;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.vanilla.json;
+
+import java.io.IOException;
+
+/**
+ * Writes a response body as it is sent, instead of building it as a string first.
+ *
+ * <pre>{@code
+ * JsonBody body = json -> json.beginObject().name("port").value(8080).endObject();
+ * }</pre>
+ */
+@FunctionalInterface
+public interface JsonBody {
+
+    void writeTo(JsonWriter json) throws IOException;
+}
@@ -0,0 +1,16 @@
+package com.vanilla.json;
+
+import java.io.IOException;
+
+/**
+ * A document exceeding its {@link JsonLimits}; reading stops as soon as the limit is reached, so the rest of the
+ * source is left unread.
+ */
+public class JsonLimitException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public JsonLimitException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,38 @@
+package com.vanilla.json;
+
+import com.vanilla.config.Config;
+
+/**
+ * Bounds on the documents a {@link JsonReader} accepts, read from the flattened {@code config.yml}:
+ *
+ * <pre>
+ * app:
+ *   json:
+ *     max-bytes: 1048576   # bytes read from the source, whitespace included
+ *     max-depth: 64        # objects and arrays nested in one another
+ * </pre>
+ */
+public record JsonLimits(long maxBytes, int maxDepth) {
+
+    public static final JsonLimits DEFAULT = new JsonLimits(1024 * 1024, 64);
+
+    public JsonLimits {
+        if (maxBytes < 0 || maxDepth < 0) {
+            throw new IllegalArgumentException("JSON limits must not be negative: " + maxBytes + ", " + maxDepth);
+        }
+    }
+
+    public static JsonLimits from(Config config) {
+        return new JsonLimits(
+                config.getLong("app.json.max-bytes", DEFAULT.maxBytes),
+                config.getInt("app.json.max-depth", DEFAULT.maxDepth));
+    }
+
+    public JsonLimits withMaxBytes(long maxBytes) {
+        return new JsonLimits(maxBytes, maxDepth);
+    }
+
+    public JsonLimits withMaxDepth(int maxDepth) {
+        return new JsonLimits(maxBytes, maxDepth);
+    }
+}
@@ -0,0 +1,24 @@
+package com.vanilla.json;
+
+import java.io.IOException;
+
+/**
+ * Where a {@link JsonWriter} hands its encoded bytes: every time its buffer fills up, then once more with the rest
+ * when the document is complete. An output that sees {@link #close} without a {@link #write} before it knows the
+ * whole body, and its length, up front; one that sees {@link #write} first has a body larger than the buffer and
+ * can switch to streaming it, e.g. with chunked transfer encoding.
+ *
+ * <p>The buffer belongs to the writer and is reused as soon as a call returns, so an output must copy what it keeps.
+ */
+public interface JsonOutput {
+
+    /**
+     * Receives a full buffer; more follows.
+     */
+    void write(byte[] buffer, int length) throws IOException;
+
+    /**
+     * Receives the end of the document, possibly empty; nothing follows.
+     */
+    void close(byte[] buffer, int length) throws IOException;
+}
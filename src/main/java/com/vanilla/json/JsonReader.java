@@ -0,0 +1,800 @@
+package com.vanilla.json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads one JSON document token by token as its bytes arrive, so a body is never held in memory as a whole: the
+ * source is read through a buffer borrowed from the calling thread, as {@link JsonWriter} does, and only the values
+ * the caller asks for are materialized. Strings of plain ASCII that sit within the buffer are created straight from
+ * its bytes, and object names are looked up in a small cache borrowed along with the buffer, so the keys repeated by
+ * every element of a large array, or by every request a thread serves, are allocated once.
+ *
+ * <p>{@link #readValue()} builds the {@link Map}s ({@link LinkedHashMap}), {@link List}s, strings, numbers and
+ * booleans {@link com.vanilla.yamlParser.YamlParser} would; {@link #read(Class)} binds to records, lists and maps
+ * of them instead. Invalid JSON and values of another type than asked for throw {@link MalformedJsonException};
+ * documents beyond the {@link JsonLimits} throw {@link JsonLimitException} without reading further.
+ *
+ * <pre>{@code
+ * try (JsonReader json = new JsonReader(exchange.getRequestBody(), JsonLimits.DEFAULT)) {
+ *     User user = json.read(User.class);
+ *     json.endDocument();
+ * }
+ * }</pre>
+ *
+ * <p>Readers are not thread-safe.
+ */
+public final class JsonReader implements Closeable {
+
+    static final int BUFFER_SIZE = 8 * 1024;
+
+    private static final ThreadLocal<Scratch> SCRATCH = new ThreadLocal<>();
+    private static final int MAX_NUMBER_LENGTH = 256;
+    private static final int MAX_CACHED_NAME_LENGTH = 32;
+
+    private static final byte EMPTY_DOCUMENT = 0;
+    private static final byte NONEMPTY_DOCUMENT = 1;
+    private static final byte EMPTY_ARRAY = 2;
+    private static final byte NONEMPTY_ARRAY = 3;
+    private static final byte EMPTY_OBJECT = 4;
+    private static final byte NONEMPTY_OBJECT = 5;
+    private static final byte DANGLING_NAME = 6;
+
+    private final InputStream in;
+    private final ByteBuffer source;
+    private final JsonLimits limits;
+    private Scratch scratch;
+    private byte[] buffer;
+    private int position;
+    private int limit;
+    private long bufferOffset;
+    private byte[] scopes = new byte[16];
+    private int depth;
+    private JsonToken peeked;
+    private boolean peekedBoolean;
+    private long peekedLong;
+    private String peekedNumber;
+    private char[] chars;
+    private final String[] names;
+
+    /**
+     * Reads from {@code in}, which is closed together with the reader.
+     */
+    public JsonReader(InputStream in, JsonLimits limits) {
+        this(in, null, limits);
+    }
+
+    /**
+     * Reads {@code source} from its position on, advancing it as bytes are consumed.
+     */
+    public JsonReader(ByteBuffer source, JsonLimits limits) {
+        this(null, source, limits);
+    }
+
+    private JsonReader(InputStream in, ByteBuffer source, JsonLimits limits) {
+        this.in = in;
+        this.source = source;
+        this.limits = limits;
+        this.scratch = SCRATCH.get();
+        if (scratch == null) {
+            scratch = new Scratch();
+        } else {
+            SCRATCH.set(null);
+        }
+        this.buffer = scratch.buffer;
+        this.chars = scratch.chars;
+        this.names = scratch.names;
+    }
+
+    public JsonToken peek() throws IOException {
+        if (peeked == null) {
+            peeked = doPeek();
+        }
+        return peeked;
+    }
+
+    public void beginObject() throws IOException {
+        consume(JsonToken.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() throws IOException {
+        consume(JsonToken.END_OBJECT);
+        depth--;
+    }
+
+    public void beginArray() throws IOException {
+        consume(JsonToken.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() throws IOException {
+        consume(JsonToken.END_ARRAY);
+        depth--;
+    }
+
+    /**
+     * @return whether the current object or array has another member
+     */
+    public boolean hasNext() throws IOException {
+        JsonToken token = peek();
+        return token != JsonToken.END_OBJECT && token != JsonToken.END_ARRAY && token != JsonToken.END_DOCUMENT;
+    }
+
+    public String nextName() throws IOException {
+        consume(JsonToken.NAME);
+        return readString(true);
+    }
+
+    public String nextString() throws IOException {
+        consume(JsonToken.STRING);
+        return readString(false);
+    }
+
+    /**
+     * @throws MalformedJsonException if the number has a fraction or exponent, or does not fit a long
+     */
+    public long nextLong() throws IOException {
+        consume(JsonToken.NUMBER);
+        if (peekedNumber != null) {
+            throw syntax("Expected an integer but was " + peekedNumber);
+        }
+        return peekedLong;
+    }
+
+    /**
+     * @throws MalformedJsonException if the number has a fraction or exponent, or does not fit an int
+     */
+    public int nextInt() throws IOException {
+        long value = nextLong();
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw syntax("Expected an int but was " + value);
+        }
+        return (int) value;
+    }
+
+    public double nextDouble() throws IOException {
+        consume(JsonToken.NUMBER);
+        return peekedNumber == null ? peekedLong : Double.parseDouble(peekedNumber);
+    }
+
+    public boolean nextBoolean() throws IOException {
+        consume(JsonToken.BOOLEAN);
+        return peekedBoolean;
+    }
+
+    public void nextNull() throws IOException {
+        consume(JsonToken.NULL);
+    }
+
+    /**
+     * Skips the next value and everything below it; strings are passed over without being decoded.
+     */
+    public void skipValue() throws IOException {
+        JsonToken first = peek();
+        if (first == JsonToken.NAME || first == JsonToken.END_OBJECT || first == JsonToken.END_ARRAY
+                || first == JsonToken.END_DOCUMENT) {
+            throw new IllegalStateException("Expected a value to skip but was " + first);
+        }
+        int level = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_OBJECT -> {
+                    beginObject();
+                    level++;
+                }
+                case BEGIN_ARRAY -> {
+                    beginArray();
+                    level++;
+                }
+                case END_OBJECT -> {
+                    endObject();
+                    level--;
+                }
+                case END_ARRAY -> {
+                    endArray();
+                    level--;
+                }
+                case NAME, STRING -> {
+                    peeked = null;
+                    skipString();
+                }
+                default -> peeked = null;
+            }
+        } while (level > 0);
+    }
+
+    /**
+     * Reads the next value and everything below it: objects as {@link LinkedHashMap}s in document order, arrays as
+     * {@link ArrayList}s, integers as Integer, Long or BigInteger depending on their size, other numbers as Double.
+     */
+    public Object readValue() throws IOException {
+        switch (peek()) {
+            case BEGIN_OBJECT -> {
+                Map<String, Object> map = new LinkedHashMap<>();
+                beginObject();
+                while (hasNext()) {
+                    map.put(nextName(), readValue());
+                }
+                endObject();
+                return map;
+            }
+            case BEGIN_ARRAY -> {
+                List<Object> list = new ArrayList<>();
+                beginArray();
+                while (hasNext()) {
+                    list.add(readValue());
+                }
+                endArray();
+                return list;
+            }
+            case STRING -> {
+                return nextString();
+            }
+            case NUMBER -> {
+                peeked = null;
+                return numberValue();
+            }
+            case BOOLEAN -> {
+                return nextBoolean();
+            }
+            case NULL -> {
+                nextNull();
+                return null;
+            }
+            default -> throw syntax("Expected a value but was " + peeked);
+        }
+    }
+
+    /**
+     * Binds the next value to {@code type}; see {@link #read(Type)}.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T read(Class<T> type) throws IOException {
+        return (T) read((Type) type);
+    }
+
+    /**
+     * Binds the next value to {@code type}: a record, whose components are read by name, with unknown names skipped
+     * and missing components left {@code null}, 0 or {@code false}; a {@code List<E>} or {@code Map<String, V>} of
+     * such types; a String, int, long, double or boolean, boxed or not; or {@code Object} for {@link #readValue()}.
+     *
+     * @throws MalformedJsonException   if the JSON value does not fit the type, or the record rejects it
+     * @throws IllegalArgumentException if {@code type} cannot be bound at all
+     */
+    public Object read(Type type) throws IOException {
+        if (peek() == JsonToken.NULL && !(type instanceof Class<?> target && target.isPrimitive())) {
+            nextNull();
+            return null;
+        }
+        if (type instanceof ParameterizedType parameterized) {
+            Type raw = parameterized.getRawType();
+            Type[] arguments = parameterized.getActualTypeArguments();
+            if (raw == List.class || raw == Collection.class || raw == Iterable.class) {
+                List<Object> list = new ArrayList<>();
+                beginArray();
+                while (hasNext()) {
+                    list.add(read(arguments[0]));
+                }
+                endArray();
+                return list;
+            }
+            if (raw == Map.class && arguments[0] == String.class) {
+                Map<String, Object> map = new LinkedHashMap<>();
+                beginObject();
+                while (hasNext()) {
+                    map.put(nextName(), read(arguments[1]));
+                }
+                endObject();
+                return map;
+            }
+        } else if (type instanceof Class<?> target) {
+            if (target == String.class) {
+                return nextString();
+            } else if (target == int.class || target == Integer.class) {
+                return nextInt();
+            } else if (target == long.class || target == Long.class) {
+                return nextLong();
+            } else if (target == double.class || target == Double.class) {
+                return nextDouble();
+            } else if (target == boolean.class || target == Boolean.class) {
+                return nextBoolean();
+            } else if (target == Object.class || target == Map.class || target == List.class) {
+                JsonToken token = peek();
+                Object value = readValue();
+                if (!target.isInstance(value)) {
+                    throw syntax("Expected " + target.getSimpleName() + " but was " + token);
+                }
+                return value;
+            } else if (target.isRecord()) {
+                return RecordBinding.of(target).read(this);
+            }
+        }
+        throw new IllegalArgumentException("Cannot bind JSON to " + type.getTypeName());
+    }
+
+    /**
+     * Checks that nothing but whitespace follows the document.
+     *
+     * @throws MalformedJsonException if the document is incomplete or followed by more data
+     */
+    public void endDocument() throws IOException {
+        consume(JsonToken.END_DOCUMENT);
+    }
+
+    /**
+     * Gives the buffers back to the thread and closes the stream read from, if any.
+     */
+    @Override
+    public void close() throws IOException {
+        if (scratch == null) {
+            return;
+        }
+        scratch.chars = chars;
+        SCRATCH.set(scratch);
+        scratch = null;
+        if (in != null) {
+            in.close();
+        }
+    }
+
+    /**
+     * @return the number of bytes consumed so far
+     */
+    long offset() {
+        return bufferOffset + position;
+    }
+
+    MalformedJsonException syntax(String message) {
+        return new MalformedJsonException(message, offset());
+    }
+
+    private void consume(JsonToken expected) throws IOException {
+        JsonToken token = peek();
+        if (token != expected) {
+            throw syntax("Expected " + expected + " but was " + token);
+        }
+        peeked = null;
+    }
+
+    private void push(byte scope) throws JsonLimitException {
+        if (depth == limits.maxDepth()) {
+            throw new JsonLimitException("JSON document nests deeper than " + limits.maxDepth() + " levels");
+        }
+        if (++depth == scopes.length) {
+            scopes = Arrays.copyOf(scopes, depth * 2);
+        }
+        scopes[depth] = scope;
+    }
+
+    private JsonToken doPeek() throws IOException {
+        switch (scopes[depth]) {
+            case EMPTY_ARRAY -> {
+                scopes[depth] = NONEMPTY_ARRAY;
+                if (nextToken() == ']') {
+                    return JsonToken.END_ARRAY;
+                }
+                position--;
+            }
+            case NONEMPTY_ARRAY -> {
+                int c = nextToken();
+                if (c == ']') {
+                    return JsonToken.END_ARRAY;
+                } else if (c != ',') {
+                    throw syntax("Expected ',' or ']'");
+                }
+            }
+            case EMPTY_OBJECT, NONEMPTY_OBJECT -> {
+                int c = nextToken();
+                if (c == '}') {
+                    return JsonToken.END_OBJECT;
+                }
+                if (scopes[depth] == NONEMPTY_OBJECT) {
+                    if (c != ',') {
+                        throw syntax("Expected ',' or '}'");
+                    }
+                    c = nextToken();
+                }
+                if (c != '"') {
+                    throw syntax("Expected a name");
+                }
+                scopes[depth] = DANGLING_NAME;
+                return JsonToken.NAME;
+            }
+            case DANGLING_NAME -> {
+                if (nextToken() != ':') {
+                    throw syntax("Expected ':'");
+                }
+                scopes[depth] = NONEMPTY_OBJECT;
+            }
+            case EMPTY_DOCUMENT -> scopes[depth] = NONEMPTY_DOCUMENT;
+            default -> {
+                if (nextNonWhitespace() < 0) {
+                    return JsonToken.END_DOCUMENT;
+                }
+                throw syntax("Unexpected data after the document");
+            }
+        }
+        return peekValue();
+    }
+
+    private JsonToken peekValue() throws IOException {
+        int c = nextToken();
+        switch (c) {
+            case '{' -> {
+                return JsonToken.BEGIN_OBJECT;
+            }
+            case '[' -> {
+                return JsonToken.BEGIN_ARRAY;
+            }
+            case '"' -> {
+                return JsonToken.STRING;
+            }
+            case 't' -> {
+                expectLiteral("rue");
+                peekedBoolean = true;
+                return JsonToken.BOOLEAN;
+            }
+            case 'f' -> {
+                expectLiteral("alse");
+                peekedBoolean = false;
+                return JsonToken.BOOLEAN;
+            }
+            case 'n' -> {
+                expectLiteral("ull");
+                return JsonToken.NULL;
+            }
+            default -> {
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    readNumber(c);
+                    return JsonToken.NUMBER;
+                }
+                throw syntax("Expected a value");
+            }
+        }
+    }
+
+    private void expectLiteral(String rest) throws IOException {
+        for (int i = 0; i < rest.length(); i++) {
+            if (position == limit && !fill() || buffer[position++] != rest.charAt(i)) {
+                throw syntax("Malformed literal");
+            }
+        }
+    }
+
+    /**
+     * Copies the number into {@code chars}, since it may span two buffers, and keeps it as a long when it is an
+     * integer that fits one, else as text to be converted when it is consumed.
+     */
+    private void readNumber(int first) throws IOException {
+        char[] chars = this.chars;
+        int length = 0;
+        chars[length++] = (char) first;
+        boolean integral = true;
+        while (position < limit || fill()) {
+            int c = buffer[position];
+            if ((c < '0' || c > '9') && c != '-' && c != '+' && c != '.' && c != 'e' && c != 'E') {
+                break;
+            }
+            if (length == MAX_NUMBER_LENGTH || length == chars.length) {
+                if (length == MAX_NUMBER_LENGTH) {
+                    throw syntax("Number exceeds " + MAX_NUMBER_LENGTH + " characters");
+                }
+                chars = this.chars = Arrays.copyOf(chars, MAX_NUMBER_LENGTH);
+            }
+            integral &= c >= '0' && c <= '9';
+            chars[length++] = (char) c;
+            position++;
+        }
+        if (!isNumber(chars, length)) {
+            throw syntax("Malformed number " + new String(chars, 0, length));
+        }
+        peekedNumber = null;
+        int start = chars[0] == '-' ? 1 : 0;
+        if (integral && length - start <= 18) {
+            long value = 0;
+            for (int i = start; i < length; i++) {
+                value = value * 10 + (chars[i] - '0');
+            }
+            peekedLong = start == 1 ? -value : value;
+        } else {
+            peekedNumber = new String(chars, 0, length);
+            if (integral) {
+                try {
+                    peekedLong = Long.parseLong(peekedNumber);
+                    peekedNumber = null;
+                } catch (NumberFormatException e) {
+                    // kept as text, for a BigInteger
+                }
+            }
+        }
+    }
+
+    /**
+     * @return whether {@code chars} follows the JSON number grammar: {@code -?(0|[1-9]\d*)(\.\d+)?([eE][+-]?\d+)?}
+     */
+    private static boolean isNumber(char[] chars, int length) {
+        int i = chars[0] == '-' ? 1 : 0;
+        if (i == length || chars[i] < '0' || chars[i] > '9') {
+            return false;
+        }
+        if (chars[i++] != '0') {
+            i = digits(chars, i, length);
+        }
+        if (i < length && chars[i] == '.') {
+            int start = ++i;
+            i = digits(chars, i, length);
+            if (i == start) {
+                return false;
+            }
+        }
+        if (i < length && (chars[i] == 'e' || chars[i] == 'E')) {
+            i++;
+            if (i < length && (chars[i] == '+' || chars[i] == '-')) {
+                i++;
+            }
+            int start = i;
+            i = digits(chars, i, length);
+            if (i == start) {
+                return false;
+            }
+        }
+        return i == length;
+    }
+
+    private static int digits(char[] chars, int i, int length) {
+        while (i < length && chars[i] >= '0' && chars[i] <= '9') {
+            i++;
+        }
+        return i;
+    }
+
+    private Object numberValue() {
+        if (peekedNumber == null) {
+            if (peekedLong == (int) peekedLong) {
+                return (int) peekedLong;
+            }
+            return peekedLong;
+        }
+        for (int i = 0; i < peekedNumber.length(); i++) {
+            char c = peekedNumber.charAt(i);
+            if (c == '.' || c == 'e' || c == 'E') {
+                return Double.parseDouble(peekedNumber);
+            }
+        }
+        return new BigInteger(peekedNumber);
+    }
+
+    /**
+     * Reads the rest of a string whose opening quote was consumed. A string of printable ASCII that ends within the
+     * buffer is created from the buffer directly; anything else is decoded byte by byte into {@code chars}.
+     */
+    private String readString(boolean name) throws IOException {
+        byte[] buffer = this.buffer;
+        int start = position;
+        int hash = 0;
+        for (int p = start; p < limit; p++) {
+            byte b = buffer[p];
+            if (b == '"') {
+                position = p + 1;
+                return name ? cachedName(start, p, hash) : new String(buffer, start, p - start,
+                        StandardCharsets.ISO_8859_1);
+            }
+            if (b < 0x20 || b == '\\') {
+                break;
+            }
+            hash = 31 * hash + b;
+        }
+        return readEscapedString();
+    }
+
+    private String cachedName(int start, int end, int hash) {
+        int length = end - start;
+        if (length > MAX_CACHED_NAME_LENGTH) {
+            return new String(buffer, start, length, StandardCharsets.ISO_8859_1);
+        }
+        int slot = (hash ^ hash >>> 16) & (names.length - 1);
+        String cached = names[slot];
+        if (cached != null && cached.length() == length) {
+            int i = 0;
+            while (i < length && cached.charAt(i) == buffer[start + i]) {
+                i++;
+            }
+            if (i == length) {
+                return cached;
+            }
+        }
+        String name = new String(buffer, start, length, StandardCharsets.ISO_8859_1);
+        names[slot] = name;
+        return name;
+    }
+
+    private String readEscapedString() throws IOException {
+        int length = 0;
+        while (true) {
+            int b = nextStringByte();
+            if (b == '"') {
+                return new String(chars, 0, length);
+            }
+            if (length + 2 > chars.length) {
+                chars = Arrays.copyOf(chars, chars.length * 2);
+            }
+            if (b == '\\') {
+                chars[length++] = unescape();
+            } else if (b >= 0x80) {
+                length = decodeUtf8(b, length);
+            } else if (b >= 0x20) {
+                chars[length++] = (char) b;
+            } else {
+                throw syntax("Unescaped control character in string");
+            }
+        }
+    }
+
+    private char unescape() throws IOException {
+        int c = nextStringByte();
+        switch (c) {
+            case '"', '\\', '/' -> {
+                return (char) c;
+            }
+            case 'b' -> {
+                return '\b';
+            }
+            case 'f' -> {
+                return '\f';
+            }
+            case 'n' -> {
+                return '\n';
+            }
+            case 'r' -> {
+                return '\r';
+            }
+            case 't' -> {
+                return '\t';
+            }
+            case 'u' -> {
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(nextStringByte(), 16);
+                    if (digit < 0) {
+                        throw syntax("Malformed \\u escape");
+                    }
+                    value = value << 4 | digit;
+                }
+                return (char) value;
+            }
+            default -> throw syntax("Unknown escape \\" + (char) c);
+        }
+    }
+
+    /**
+     * Decodes the sequence started by {@code lead} into {@code chars}, rejecting overlong forms, surrogates and
+     * code points beyond U+10FFFF.
+     *
+     * @return the new length of {@code chars}
+     */
+    private int decodeUtf8(int lead, int length) throws IOException {
+        int continuation;
+        int codePoint;
+        int min;
+        if (lead >= 0xc2 && lead <= 0xdf) {
+            continuation = 1;
+            codePoint = lead & 0x1f;
+            min = 0x80;
+        } else if (lead >= 0xe0 && lead <= 0xef) {
+            continuation = 2;
+            codePoint = lead & 0x0f;
+            min = 0x800;
+        } else if (lead >= 0xf0 && lead <= 0xf4) {
+            continuation = 3;
+            codePoint = lead & 0x07;
+            min = 0x10000;
+        } else {
+            throw syntax("Malformed UTF-8");
+        }
+        for (int i = 0; i < continuation; i++) {
+            int b = nextStringByte();
+            if ((b & 0xc0) != 0x80) {
+                throw syntax("Malformed UTF-8");
+            }
+            codePoint = codePoint << 6 | b & 0x3f;
+        }
+        if (codePoint < min || codePoint > Character.MAX_CODE_POINT
+                || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+            throw syntax("Malformed UTF-8");
+        }
+        return length + Character.toChars(codePoint, chars, length);
+    }
+
+    private void skipString() throws IOException {
+        while (true) {
+            int b = nextStringByte();
+            if (b == '"') {
+                return;
+            } else if (b == '\\') {
+                nextStringByte();
+            }
+        }
+    }
+
+    private int nextStringByte() throws IOException {
+        if (position == limit && !fill()) {
+            throw syntax("Unterminated string");
+        }
+        return buffer[position++] & 0xff;
+    }
+
+    private int nextToken() throws IOException {
+        int c = nextNonWhitespace();
+        if (c < 0) {
+            throw syntax("Unexpected end of document");
+        }
+        return c;
+    }
+
+    /**
+     * @return the next byte that is not whitespace, or -1 at the end of the source
+     */
+    private int nextNonWhitespace() throws IOException {
+        while (position < limit || fill()) {
+            int c = buffer[position++] & 0xff;
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Replaces the buffer with the next bytes of the source; tokens spanning two buffers are copied out before.
+     * Reads at most one byte past {@link JsonLimits#maxBytes()}, to tell a document that ends at the limit from one
+     * that exceeds it.
+     *
+     * @return {@code false} at the end of the source
+     */
+    private boolean fill() throws IOException {
+        bufferOffset += limit;
+        position = 0;
+        limit = 0;
+        long room = limits.maxBytes() - bufferOffset;
+        int wanted = room >= buffer.length ? buffer.length : (int) room + 1;
+        int read;
+        if (in != null) {
+            read = in.read(buffer, 0, wanted);
+        } else {
+            read = Math.min(wanted, source.remaining());
+            source.get(buffer, 0, read);
+        }
+        if (read <= 0) {
+            return false;
+        }
+        limit = read;
+        if (bufferOffset + limit > limits.maxBytes()) {
+            throw new JsonLimitException("JSON document exceeds " + limits.maxBytes() + " bytes");
+        }
+        return true;
+    }
+
+    /**
+     * The buffers a reader borrows from its thread. The name cache goes with them, so names seen by earlier
+     * documents on the thread are reused too.
+     */
+    private static final class Scratch {
+
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        final String[] names = new String[256];
+        char[] chars = new char[64];
+    }
+}
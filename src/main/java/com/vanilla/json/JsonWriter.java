@@ -0,0 +1,396 @@
+package com.vanilla.json;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Encodes one JSON document straight to UTF-8 bytes, without building it as a string first. Bytes collect in a
+ * buffer borrowed from the calling thread, which is handed to the {@link JsonOutput} whenever it fills up and
+ * returned to the thread on {@link #close()}, so a thread serving many responses keeps reusing one buffer. Numbers
+ * other than floating point ones and strings are encoded in place, with no intermediate objects.
+ *
+ * <p>{@link #value(Object)} writes the values {@link com.vanilla.yamlParser.YamlParser} produces: {@link Map}s,
+ * {@link Iterable}s, strings, numbers, booleans and {@code null}, and anything else as its {@code toString()}.
+ * Output is compact, with no whitespace between tokens. Misplaced calls, such as a value where an object expects a
+ * name, throw {@link IllegalStateException}.
+ *
+ * <p>Writers are not thread-safe. On runtimes that run each request on its own virtual thread every writer allocates
+ * its buffer, as such threads do not outlive their request.
+ */
+public final class JsonWriter implements Closeable {
+
+    static final int BUFFER_SIZE = 8 * 1024;
+
+    private static final ThreadLocal<byte[]> BUFFERS = new ThreadLocal<>();
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    private static final byte EMPTY_DOCUMENT = 0;
+    private static final byte NONEMPTY_DOCUMENT = 1;
+    private static final byte EMPTY_ARRAY = 2;
+    private static final byte NONEMPTY_ARRAY = 3;
+    private static final byte EMPTY_OBJECT = 4;
+    private static final byte NONEMPTY_OBJECT = 5;
+    private static final byte DANGLING_NAME = 6;
+
+    private final JsonOutput output;
+    private byte[] buffer;
+    private int position;
+    private byte[] scopes = new byte[16];
+    private int depth;
+
+    public JsonWriter(JsonOutput output) {
+        this.output = output;
+        this.buffer = BUFFERS.get();
+        if (buffer == null) {
+            buffer = new byte[BUFFER_SIZE];
+        } else {
+            BUFFERS.set(null);
+        }
+    }
+
+    /**
+     * Writes to {@code out}, which is closed together with the writer.
+     */
+    public JsonWriter(OutputStream out) {
+        this(new JsonOutput() {
+            @Override
+            public void write(byte[] buffer, int length) throws IOException {
+                out.write(buffer, 0, length);
+            }
+
+            @Override
+            public void close(byte[] buffer, int length) throws IOException {
+                try (out) {
+                    out.write(buffer, 0, length);
+                }
+            }
+        });
+    }
+
+    /**
+     * Writes into {@code target} from its position on.
+     *
+     * @throws java.nio.BufferOverflowException from a later call, once the document does not fit {@code target}
+     */
+    public JsonWriter(ByteBuffer target) {
+        this(new JsonOutput() {
+            @Override
+            public void write(byte[] buffer, int length) {
+                target.put(buffer, 0, length);
+            }
+
+            @Override
+            public void close(byte[] buffer, int length) {
+                target.put(buffer, 0, length);
+            }
+        });
+    }
+
+    /**
+     * @return {@code value} encoded as a standalone document
+     */
+    public static byte[] toByteArray(Object value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JsonWriter json = new JsonWriter(bytes)) {
+            json.value(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public JsonWriter beginObject() throws IOException {
+        return open(EMPTY_OBJECT, '{');
+    }
+
+    public JsonWriter endObject() throws IOException {
+        return close(EMPTY_OBJECT, NONEMPTY_OBJECT, '}');
+    }
+
+    public JsonWriter beginArray() throws IOException {
+        return open(EMPTY_ARRAY, '[');
+    }
+
+    public JsonWriter endArray() throws IOException {
+        return close(EMPTY_ARRAY, NONEMPTY_ARRAY, ']');
+    }
+
+    /**
+     * Writes the name of the next member of the current object.
+     */
+    public JsonWriter name(String name) throws IOException {
+        byte scope = scopes[depth];
+        if (scope != EMPTY_OBJECT && scope != NONEMPTY_OBJECT) {
+            throw new IllegalStateException("A name is only allowed inside an object, before its value");
+        }
+        if (scope == NONEMPTY_OBJECT) {
+            writeByte(',');
+        }
+        scopes[depth] = DANGLING_NAME;
+        writeString(name);
+        writeByte(':');
+        return this;
+    }
+
+    public JsonWriter value(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        beforeValue();
+        writeString(value);
+        return this;
+    }
+
+    public JsonWriter value(long value) throws IOException {
+        beforeValue();
+        writeLong(value);
+        return this;
+    }
+
+    /**
+     * NaN and the infinities, which JSON cannot represent, are written as {@code null}.
+     */
+    public JsonWriter value(double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return nullValue();
+        }
+        beforeValue();
+        writeAscii(Double.toString(value));
+        return this;
+    }
+
+    public JsonWriter value(boolean value) throws IOException {
+        beforeValue();
+        writeAscii(value ? "true" : "false");
+        return this;
+    }
+
+    public JsonWriter nullValue() throws IOException {
+        beforeValue();
+        writeAscii("null");
+        return this;
+    }
+
+    /**
+     * Writes {@code value} and, for maps and iterables, everything below it; map keys are written with
+     * {@link String#valueOf(Object)}.
+     */
+    public JsonWriter value(Object value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        } else if (value instanceof String text) {
+            return value(text);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short
+                || value instanceof Byte) {
+            return value(((Number) value).longValue());
+        } else if (value instanceof Double number) {
+            return value(number.doubleValue());
+        } else if (value instanceof Float number) {
+            if (number.isNaN() || number.isInfinite()) {
+                return nullValue();
+            }
+            beforeValue();
+            writeAscii(number.toString());
+            return this;
+        } else if (value instanceof BigInteger || value instanceof BigDecimal) {
+            beforeValue();
+            writeAscii(value.toString());
+            return this;
+        } else if (value instanceof Boolean flag) {
+            return value(flag.booleanValue());
+        } else if (value instanceof Map<?, ?> map) {
+            beginObject();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                name(String.valueOf(entry.getKey()));
+                value(entry.getValue());
+            }
+            return endObject();
+        } else if (value instanceof Iterable<?> iterable) {
+            beginArray();
+            for (Object element : iterable) {
+                value(element);
+            }
+            return endArray();
+        }
+        return value(value.toString());
+    }
+
+    /**
+     * Hands the rest of a complete document to the output and gives the buffer back to the thread. A document left
+     * incomplete, e.g. because the code writing it threw, is abandoned instead: the buffered bytes are dropped and
+     * the output is not closed, so a response that has not started yet can still be replaced by an error.
+     */
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+        try {
+            if (depth == 0 && scopes[0] == NONEMPTY_DOCUMENT) {
+                output.close(buffer, position);
+            }
+        } finally {
+            BUFFERS.set(buffer);
+            buffer = null;
+        }
+    }
+
+    private JsonWriter open(byte scope, char bracket) throws IOException {
+        beforeValue();
+        if (++depth == scopes.length) {
+            scopes = Arrays.copyOf(scopes, depth * 2);
+        }
+        scopes[depth] = scope;
+        writeByte(bracket);
+        return this;
+    }
+
+    private JsonWriter close(byte empty, byte nonEmpty, char bracket) throws IOException {
+        byte scope = scopes[depth];
+        if (depth == 0 || (scope != empty && scope != nonEmpty)) {
+            throw new IllegalStateException("Nothing to close with '" + bracket + "'");
+        }
+        depth--;
+        writeByte(bracket);
+        return this;
+    }
+
+    private void beforeValue() {
+        switch (scopes[depth]) {
+            case EMPTY_DOCUMENT -> scopes[depth] = NONEMPTY_DOCUMENT;
+            case EMPTY_ARRAY -> scopes[depth] = NONEMPTY_ARRAY;
+            case DANGLING_NAME -> scopes[depth] = NONEMPTY_OBJECT;
+            case NONEMPTY_ARRAY -> buffer[position++] = ',';
+            case NONEMPTY_DOCUMENT -> throw new IllegalStateException("A document holds a single top-level value");
+            default -> throw new IllegalStateException("Expected a name before the value");
+        }
+        // the comma above is written without a check: every write below leaves a byte free for it
+    }
+
+    private void writeByte(char c) throws IOException {
+        require(1);
+        buffer[position++] = (byte) c;
+    }
+
+    private void writeAscii(String text) throws IOException {
+        int i = 0;
+        while (i < text.length()) {
+            require(1);
+            int end = Math.min(text.length(), i + buffer.length - 1 - position);
+            for (; i < end; i++) {
+                buffer[position++] = (byte) text.charAt(i);
+            }
+        }
+    }
+
+    private void writeLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            writeAscii("-9223372036854775808");
+            return;
+        }
+        require(20);
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        int end = position + digits;
+        for (int i = end - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position = end;
+    }
+
+    /**
+     * Encodes and escapes {@code text} in runs of as many characters as are sure to fit the buffer (6 bytes for an
+     * escaped control character), so the inner loop has no bounds checks of its own.
+     */
+    private void writeString(String text) throws IOException {
+        writeByte('"');
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            int room = (buffer.length - 1 - position) / 6;
+            if (room == 0) {
+                flushBuffer();
+                continue;
+            }
+            int end = Math.min(length, i + room);
+            byte[] buffer = this.buffer;
+            int position = this.position;
+            for (; i < end; i++) {
+                char c = text.charAt(i);
+                if (c < 0x80) {
+                    if (c >= 0x20 && c != '"' && c != '\\') {
+                        buffer[position++] = (byte) c;
+                    } else {
+                        position = escape(buffer, position, c);
+                    }
+                } else if (c < 0x800) {
+                    buffer[position++] = (byte) (0xc0 | c >> 6);
+                    buffer[position++] = (byte) (0x80 | c & 0x3f);
+                } else if (Character.isHighSurrogate(c) && i + 1 < length
+                        && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                    buffer[position++] = (byte) (0xf0 | codePoint >> 18);
+                    buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3f);
+                    buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3f);
+                    buffer[position++] = (byte) (0x80 | codePoint & 0x3f);
+                } else if (Character.isSurrogate(c)) {
+                    buffer[position++] = '?';
+                } else {
+                    buffer[position++] = (byte) (0xe0 | c >> 12);
+                    buffer[position++] = (byte) (0x80 | c >> 6 & 0x3f);
+                    buffer[position++] = (byte) (0x80 | c & 0x3f);
+                }
+            }
+            this.position = position;
+        }
+        writeByte('"');
+    }
+
+    private static int escape(byte[] buffer, int position, char c) {
+        buffer[position++] = '\\';
+        switch (c) {
+            case '"' -> buffer[position++] = '"';
+            case '\\' -> buffer[position++] = '\\';
+            case '\n' -> buffer[position++] = 'n';
+            case '\r' -> buffer[position++] = 'r';
+            case '\t' -> buffer[position++] = 't';
+            default -> {
+                buffer[position++] = 'u';
+                buffer[position++] = '0';
+                buffer[position++] = '0';
+                buffer[position++] = HEX[c >> 4];
+                buffer[position++] = HEX[c & 0xf];
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Makes room for {@code length} bytes plus the comma {@link #beforeValue()} may write unchecked.
+     */
+    private void require(int length) throws IOException {
+        if (position + length + 1 > buffer.length) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        output.write(buffer, position);
+        position = 0;
+    }
+}
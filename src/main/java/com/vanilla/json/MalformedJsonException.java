@@ -0,0 +1,26 @@
+package com.vanilla.json;
+
+import java.io.IOException;
+
+/**
+ * A document a {@link JsonReader} cannot read: invalid JSON, or valid JSON of another shape than the caller asked
+ * for.
+ */
+public class MalformedJsonException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long offset;
+
+    public MalformedJsonException(String message, long offset) {
+        super(message + " at offset " + offset);
+        this.offset = offset;
+    }
+
+    /**
+     * @return the number of bytes read before the problem was found
+     */
+    public long getOffset() {
+        return offset;
+    }
+}
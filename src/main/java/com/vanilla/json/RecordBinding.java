@@ -0,0 +1,98 @@
+package com.vanilla.json;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+
+/**
+ * How {@link JsonReader#read(Type)} builds a record: the component names and generic types, the default of each
+ * component and the canonical constructor, looked up once per record class.
+ */
+final class RecordBinding {
+
+    private static final ClassValue<RecordBinding> BINDINGS = new ClassValue<>() {
+        @Override
+        protected RecordBinding computeValue(Class<?> type) {
+            return new RecordBinding(type);
+        }
+    };
+
+    private final Class<?> type;
+    private final String[] names;
+    private final Type[] types;
+    private final Object[] defaults;
+    private final Constructor<?> constructor;
+
+    private RecordBinding(Class<?> type) {
+        RecordComponent[] components = type.getRecordComponents();
+        Class<?>[] parameterTypes = new Class<?>[components.length];
+        this.type = type;
+        this.names = new String[components.length];
+        this.types = new Type[components.length];
+        this.defaults = new Object[components.length];
+        for (int i = 0; i < components.length; i++) {
+            names[i] = components[i].getName();
+            types[i] = components[i].getGenericType();
+            parameterTypes[i] = components[i].getType();
+            defaults[i] = defaultValue(parameterTypes[i]);
+        }
+        try {
+            constructor = type.getDeclaredConstructor(parameterTypes);
+            constructor.setAccessible(true);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("Record " + type.getName() + " has no canonical constructor", e);
+        }
+    }
+
+    static RecordBinding of(Class<?> type) {
+        return BINDINGS.get(type);
+    }
+
+    Object read(JsonReader json) throws IOException {
+        Object[] arguments = defaults.clone();
+        json.beginObject();
+        while (json.hasNext()) {
+            int index = indexOf(json.nextName());
+            if (index < 0) {
+                json.skipValue();
+            } else {
+                arguments[index] = json.read(types[index]);
+            }
+        }
+        json.endObject();
+        try {
+            return constructor.newInstance(arguments);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw json.syntax("Invalid " + type.getSimpleName() + ": " + cause.getMessage());
+            }
+            throw new IllegalStateException("Cannot create " + type.getName(), e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create " + type.getName(), e);
+        }
+    }
+
+    private int indexOf(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == double.class) {
+            return 0.0;
+        } else if (type == boolean.class) {
+            return false;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,39 @@
+package com.vanilla.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A monotonically increasing count. Increments go to a {@link LongAdder}, so threads updating the same counter spread
+ * over separate cells instead of contending on one value.
+ */
+public final class Counter extends Metric {
+
+    private final LongAdder value = new LongAdder();
+
+    Counter(String name, String labels) {
+        super(name, labels);
+    }
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    public long get() {
+        return value.sum();
+    }
+
+    @Override
+    String type() {
+        return "counter";
+    }
+
+    @Override
+    void writeTo(StringBuilder out) {
+        appendSeries(out, "", null);
+        out.append(get()).append('\n');
+    }
+}
@@ -0,0 +1,135 @@
+package com.vanilla.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A distribution of non-negative values with log-linear buckets, as HdrHistogram lays them out: values below
+ * {@code 2 * SUB_BUCKETS} have a bucket each, and every power of two above is split into {@code SUB_BUCKETS} equal
+ * buckets. A quantile is therefore within 1/32 (about 3%) of the recorded value, from nanoseconds to centuries, in a
+ * fixed 15 KB table. Recording is an index computed from the leading zeros of the value plus an atomic increment; it
+ * never locks or allocates.
+ *
+ * <p>Quantiles are read from the counts as they are at that moment, so a scrape running alongside writers sees each
+ * recording either fully or not at all per bucket, but not necessarily in the sum and count of the same instant.
+ */
+public final class Histogram extends Metric {
+
+    static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+    private final double scale;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * @param scale multiplies the recorded values when they are exposed, e.g. {@code 1e-9} to expose nanoseconds as
+     *              seconds
+     */
+    Histogram(String name, String labels, double scale) {
+        super(name, labels);
+        this.scale = scale;
+    }
+
+    /**
+     * @param value negative values, e.g. from a clock stepping back, are recorded as 0
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        counts.getAndIncrement(index(value));
+        sum.add(value);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    public long count() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    public long sum() {
+        return sum.sum();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * @param quantile between 0 and 1
+     * @return the highest value equivalent to the one at {@code quantile}, never above {@link #max()}; 0 when
+     *         nothing was recorded
+     */
+    public long valueAtQuantile(double quantile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        return valueAtQuantile(snapshot, total, quantile);
+    }
+
+    private long valueAtQuantile(long[] snapshot, long total, double quantile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestEquivalent(i), max());
+            }
+        }
+        return max();
+    }
+
+    static int index(long value) {
+        int shift = 63 - Long.numberOfLeadingZeros(value | SUB_BUCKETS) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    static long lowestEquivalent(int index) {
+        int shift = Math.max(0, index / SUB_BUCKETS - 1);
+        return (long) (index - shift * SUB_BUCKETS) << shift;
+    }
+
+    static long highestEquivalent(int index) {
+        int shift = Math.max(0, index / SUB_BUCKETS - 1);
+        return lowestEquivalent(index) + (1L << shift) - 1;
+    }
+
+    @Override
+    String type() {
+        return "summary";
+    }
+
+    @Override
+    void writeTo(StringBuilder out) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        for (double quantile : QUANTILES) {
+            appendSeries(out, "", "quantile=\"" + quantile + "\"");
+            out.append(valueAtQuantile(snapshot, total, quantile) * scale).append('\n');
+        }
+        appendSeries(out, "_sum", null);
+        out.append(sum() * scale).append('\n');
+        appendSeries(out, "_count", null);
+        out.append(total).append('\n');
+    }
+}
@@ -0,0 +1,37 @@
+package com.vanilla.metrics;
+
+/**
+ * One series of a {@link MetricsRegistry}: a name plus a fixed set of label values.
+ */
+abstract sealed class Metric permits Counter, Histogram {
+
+    final String name;
+    final String labels;
+
+    Metric(String name, String labels) {
+        this.name = name;
+        this.labels = labels;
+    }
+
+    abstract String type();
+
+    /**
+     * Appends the sample lines of this series in the text exposition format.
+     */
+    abstract void writeTo(StringBuilder out);
+
+    /**
+     * Appends {@code name{labels,extra}}, leaving out the braces when there are no labels at all.
+     */
+    final void appendSeries(StringBuilder out, String suffix, String extraLabel) {
+        out.append(name).append(suffix);
+        if (!labels.isEmpty() || extraLabel != null) {
+            out.append('{').append(labels);
+            if (extraLabel != null) {
+                out.append(labels.isEmpty() ? "" : ",").append(extraLabel);
+            }
+            out.append('}');
+        }
+        out.append(' ');
+    }
+}
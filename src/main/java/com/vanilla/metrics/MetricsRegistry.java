@@ -0,0 +1,113 @@
+package com.vanilla.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+
+/**
+ * Named counters and histograms, exposed together in the Prometheus text format by {@link #scrape()}.
+ *
+ * <p>A series is identified by its name and label values, and asking for it again returns the same instance, so hot
+ * paths look their series up once and keep the reference:
+ *
+ * <pre>{@code
+ * Counter served = MetricsRegistry.global().counter("http_requests_total", "server", "nio", "status", "200");
+ * Histogram latency = MetricsRegistry.global().timer("http_request_duration_seconds", "server", "nio");
+ * }</pre>
+ */
+public final class MetricsRegistry {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final MetricsRegistry GLOBAL = new MetricsRegistry();
+
+    private final ConcurrentMap<String, Metric> series = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Class<?>> families = new ConcurrentHashMap<>();
+
+    /**
+     * The registry the servers and the YAML parser record into.
+     */
+    public static MetricsRegistry global() {
+        return GLOBAL;
+    }
+
+    /**
+     * @param labels alternating label names and values
+     * @throws IllegalArgumentException if {@code name} is registered as another type, or the labels are not in pairs
+     */
+    public Counter counter(String name, String... labels) {
+        return register(name, labels, Counter.class, Counter::new);
+    }
+
+    /**
+     * A histogram of values exposed as recorded, such as sizes in bytes.
+     *
+     * @see #counter(String, String...)
+     */
+    public Histogram histogram(String name, String... labels) {
+        return register(name, labels, Histogram.class, (series, text) -> new Histogram(series, text, 1));
+    }
+
+    /**
+     * A histogram of durations recorded in nanoseconds and exposed in seconds.
+     *
+     * @see #counter(String, String...)
+     */
+    public Histogram timer(String name, String... labels) {
+        return register(name, labels, Histogram.class, (series, text) -> new Histogram(series, text, 1e-9));
+    }
+
+    /**
+     * @return every series, grouped by name under its {@code # TYPE} line
+     */
+    public String scrape() {
+        List<Metric> sorted = new ArrayList<>(series.values());
+        sorted.sort(Comparator.comparing((Metric metric) -> metric.name).thenComparing(metric -> metric.labels));
+        StringBuilder out = new StringBuilder(sorted.size() * 64);
+        String family = null;
+        for (Metric metric : sorted) {
+            if (!metric.name.equals(family)) {
+                family = metric.name;
+                out.append("# TYPE ").append(family).append(' ').append(metric.type()).append('\n');
+            }
+            metric.writeTo(out);
+        }
+        return out.toString();
+    }
+
+    private <M extends Metric> M register(String name, String[] labels, Class<M> type,
+            BiFunction<String, String, M> factory) {
+        Class<?> registered = families.putIfAbsent(name, type);
+        if (registered != null && registered != type) {
+            throw new IllegalArgumentException("Metric '" + name + "' is already registered as a "
+                    + registered.getSimpleName());
+        }
+        String text = labels(labels);
+        return type.cast(series.computeIfAbsent(name + '{' + text + '}', key -> factory.apply(name, text)));
+    }
+
+    private static String labels(String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Expected label names and values in pairs, got " + labels.length);
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            text.append(i == 0 ? "" : ",").append(labels[i]).append("=\"");
+            String value = labels[i + 1];
+            for (int c = 0; c < value.length(); c++) {
+                char ch = value.charAt(c);
+                switch (ch) {
+                    case '\\' -> text.append("\\\\");
+                    case '"' -> text.append("\\\"");
+                    case '\n' -> text.append("\\n");
+                    default -> text.append(ch);
+                }
+            }
+            text.append('"');
+        }
+        return text.toString();
+    }
+}
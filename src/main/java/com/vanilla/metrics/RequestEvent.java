@@ -0,0 +1,42 @@
+package com.vanilla.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event spanning one request, from dispatch until the response is handed to the connection. Started
+ * and committed by {@link RequestMetrics}; when the event is not enabled in the recording, both are no-ops.
+ */
+@Name("com.vanilla.HttpRequest")
+@Label("HTTP Request")
+@Category({ "Vanilla", "HTTP" })
+@Description("A request served by one of the HTTP servers")
+@StackTrace(false)
+public final class RequestEvent extends Event {
+
+    @Label("Server")
+    String server;
+
+    @Label("Method")
+    String method;
+
+    @Label("Path")
+    String path;
+
+    @Label("Status")
+    int status;
+
+    @Label("Response Size")
+    @DataAmount
+    long bytes;
+
+    transient long startNanos;
+
+    RequestEvent() {
+    }
+}
@@ -0,0 +1,86 @@
+package com.vanilla.metrics;
+
+/**
+ * The series one server records per connection and request: requests by status, response bytes and latency. Status
+ * counters are looked up once per status code and kept, so recording a request touches two {@link Counter}s and a
+ * {@link Histogram} and never the registry.
+ *
+ * <pre>{@code
+ * RequestEvent event = metrics.start();
+ * HttpResponse response = handler.handle(request);
+ * metrics.record(event, request.method(), request.path(), response.status(), response.contentLength());
+ * }</pre>
+ */
+public final class RequestMetrics {
+
+    private final MetricsRegistry registry;
+    private final String server;
+    private final Counter connections;
+    private final Counter connectionErrors;
+    private final Counter bytes;
+    private final Histogram latency;
+    private final Counter[] byStatus = new Counter[600];
+
+    /**
+     * @param server the value of the {@code server} label of every series
+     */
+    public RequestMetrics(MetricsRegistry registry, String server) {
+        this.registry = registry;
+        this.server = server;
+        this.connections = registry.counter("http_connections_total", "server", server);
+        this.connectionErrors = registry.counter("http_connection_errors_total", "server", server);
+        this.bytes = registry.counter("http_response_bytes_total", "server", server);
+        this.latency = registry.timer("http_request_duration_seconds", "server", server);
+    }
+
+    public void connectionAccepted() {
+        connections.increment();
+    }
+
+    /**
+     * Counts a connection dropped on an I/O error, such as a client resetting it mid-request.
+     */
+    public void connectionFailed() {
+        connectionErrors.increment();
+    }
+
+    /**
+     * Marks the start of a request; pass the result to {@link #record}.
+     */
+    public RequestEvent start() {
+        RequestEvent event = new RequestEvent();
+        event.begin();
+        event.startNanos = System.nanoTime();
+        return event;
+    }
+
+    /**
+     * @param bytes the length of the response body
+     */
+    public void record(RequestEvent event, String method, String path, int status, long bytes) {
+        latency.record(System.nanoTime() - event.startNanos);
+        status(status).increment();
+        this.bytes.add(bytes);
+        if (event.shouldCommit()) {
+            event.server = server;
+            event.method = method;
+            event.path = path;
+            event.status = status;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    private Counter status(int status) {
+        if (status < 0 || status >= byStatus.length) {
+            return registry.counter("http_requests_total", "server", server, "status", String.valueOf(status));
+        }
+        Counter counter = byStatus[status];
+        if (counter == null) {
+            // racing threads get the same instance from the registry
+            counter = registry.counter("http_requests_total", "server", server, "status", String.valueOf(status));
+            byStatus[status] = counter;
+        }
+        return counter;
+    }
+}
@@ -0,0 +1,156 @@
+package com.vanilla.placeholder;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Replaces {@code ${NAME}} and {@code ${NAME:default}} placeholders with the first value found in a chain of
+ * {@link PlaceholderSource sources}. A value may reference other names, and defaults may nest
+ * ({@code ${HOST:${FALLBACK_HOST:localhost}}}); a name that ends up referencing itself is reported as a cycle.
+ * An unknown name without a default resolves to the empty string.
+ *
+ * <p>Each distinct text is compiled once into literal and reference segments, and the resolved text is kept with it
+ * along with the raw value found for every name it depends on. Resolving it again only looks those names up to check
+ * that none changed, without scanning, concatenating or allocating. At most {@link #MAX_TEMPLATES} texts are kept,
+ * so a resolver fed unbounded distinct input compiles the rest on every call instead of growing. Instances are
+ * thread-safe.
+ */
+public final class PlaceholderResolver {
+
+    static final int MAX_TEMPLATES = 4096;
+
+    private final PlaceholderSource[] sources;
+    private final Map<String, Template> templates = new ConcurrentHashMap<>();
+
+    public PlaceholderResolver(List<PlaceholderSource> sources) {
+        this.sources = sources.toArray(PlaceholderSource[]::new);
+    }
+
+    /**
+     * System properties first, then the environment.
+     */
+    public static PlaceholderResolver defaults() {
+        return new PlaceholderResolver(List.of(PlaceholderSource.systemProperties(), PlaceholderSource.environment()));
+    }
+
+    /**
+     * @throws IllegalArgumentException if a name references itself through its values
+     */
+    public String resolve(String text) {
+        if (text.indexOf("${") < 0) {
+            return text;
+        }
+        Template template = template(text);
+        if (template.isConstant()) {
+            return text;
+        }
+        Template.Resolved cached = template.resolved;
+        if (cached != null && isCurrent(cached)) {
+            return cached.value();
+        }
+        Resolution resolution = new Resolution();
+        String value = template.resolve(this, resolution);
+        template.resolved = new Template.Resolved(resolution.names.toArray(String[]::new),
+                resolution.raws.toArray(String[]::new), value);
+        return value;
+    }
+
+    /**
+     * Looks up, without resolving anything, every name the placeholders of {@code text} may reach: through their
+     * defaults and through the values found for them. Whatever {@code text} resolves to only depends on these.
+     *
+     * @return the raw value of each name, {@code null} when unknown, in the order the names are first referenced
+     */
+    public Map<String, String> references(String text) {
+        Map<String, String> raws = new LinkedHashMap<>();
+        if (text.indexOf("${") >= 0) {
+            collect(Template.compile(text), raws);
+        }
+        return raws;
+    }
+
+    private void collect(Template template, Map<String, String> raws) {
+        for (Template.Reference reference : template.references()) {
+            if (!raws.containsKey(reference.name())) {
+                String raw = lookup(reference.name());
+                raws.put(reference.name(), raw);
+                if (raw != null && raw.indexOf("${") >= 0) {
+                    collect(Template.compile(raw), raws);
+                }
+            }
+            if (reference.defaultValue() != null) {
+                collect(reference.defaultValue(), raws);
+            }
+        }
+    }
+
+    String value(Template.Reference reference, Resolution resolution) {
+        String name = reference.name();
+        if (resolution.resolving.contains(name)) {
+            throw new IllegalArgumentException("Placeholder cycle: " + String.join(" -> ", resolution.resolving)
+                    + " -> " + name);
+        }
+        String raw = lookup(name);
+        resolution.names.add(name);
+        resolution.raws.add(raw);
+        if (raw == null) {
+            return reference.defaultValue() == null ? "" : reference.defaultValue().resolve(this, resolution);
+        }
+        if (raw.indexOf("${") < 0) {
+            return raw;
+        }
+        resolution.resolving.addLast(name);
+        try {
+            return template(raw).resolve(this, resolution);
+        } finally {
+            resolution.resolving.removeLast();
+        }
+    }
+
+    private Template template(String text) {
+        Template template = templates.get(text);
+        if (template == null) {
+            template = Template.compile(text);
+            if (templates.size() < MAX_TEMPLATES) {
+                Template raced = templates.putIfAbsent(text, template);
+                template = raced != null ? raced : template;
+            }
+        }
+        return template;
+    }
+
+    private boolean isCurrent(Template.Resolved resolved) {
+        for (int i = 0; i < resolved.names().length; i++) {
+            if (!Objects.equals(lookup(resolved.names()[i]), resolved.raws()[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String lookup(String name) {
+        for (PlaceholderSource source : sources) {
+            String value = source.get(name);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The state of one resolution: the chain of names being expanded, outermost first, and every lookup made.
+     */
+    static final class Resolution {
+
+        final Deque<String> resolving = new ArrayDeque<>();
+        final List<String> names = new ArrayList<>();
+        final List<String> raws = new ArrayList<>();
+    }
+}
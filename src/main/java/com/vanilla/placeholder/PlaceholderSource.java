@@ -0,0 +1,41 @@
+package com.vanilla.placeholder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Where {@code ${NAME}} placeholders are looked up. A {@link PlaceholderResolver} checks that every value it cached
+ * is still current by looking the names up again, so a source should return the same instance for an unchanged value
+ * to keep that check to a reference comparison.
+ */
+@FunctionalInterface
+public interface PlaceholderSource {
+
+    /**
+     * @return the raw value of {@code name}, which may itself contain placeholders, or {@code null} if it is unknown
+     */
+    String get(String name);
+
+    /**
+     * JVM system properties, read live.
+     */
+    static PlaceholderSource systemProperties() {
+        return System::getProperty;
+    }
+
+    /**
+     * The process environment, which does not change while the JVM runs.
+     */
+    static PlaceholderSource environment() {
+        return System::getenv;
+    }
+
+    /**
+     * A copy of a flattened document such as {@code YamlParser.parseYaml} returns, with its values as text.
+     */
+    static PlaceholderSource of(Map<String, ?> flattened) {
+        Map<String, String> values = new HashMap<>();
+        flattened.forEach((key, value) -> values.put(key, value == null ? null : String.valueOf(value)));
+        return values::get;
+    }
+}
@@ -0,0 +1,109 @@
+package com.vanilla.placeholder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A value containing placeholders, split once into literal text and references so resolving it is a concatenation.
+ * {@code ${NAME:default}} falls back to {@code default}, which may contain placeholders itself; a reference without
+ * a closing brace is kept as literal text.
+ */
+final class Template {
+
+    private final String[] literals;
+    private final Reference[] references;
+    private final int literalLength;
+    volatile Resolved resolved;
+
+    private Template(String[] literals, Reference[] references) {
+        this.literals = literals;
+        this.references = references;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * The value a {@link Template} resolved to, and every name looked up on the way with the raw value found.
+     */
+    record Resolved(String[] names, String[] raws, String value) {
+    }
+
+    record Reference(String name, Template defaultValue) {
+    }
+
+    static Template compile(String text) {
+        List<String> literals = new ArrayList<>();
+        List<Reference> references = new ArrayList<>();
+        int literalStart = 0;
+        int start = text.indexOf("${");
+        while (start >= 0) {
+            int end = closingBrace(text, start + 2);
+            if (end < 0) {
+                break;
+            }
+            literals.add(text.substring(literalStart, start));
+            references.add(reference(text.substring(start + 2, end)));
+            literalStart = end + 1;
+            start = text.indexOf("${", literalStart);
+        }
+        literals.add(text.substring(literalStart));
+        return new Template(literals.toArray(String[]::new), references.toArray(Reference[]::new));
+    }
+
+    Reference[] references() {
+        return references;
+    }
+
+    boolean isConstant() {
+        return references.length == 0;
+    }
+
+    String resolve(PlaceholderResolver resolver, PlaceholderResolver.Resolution resolution) {
+        if (references.length == 0) {
+            return literals[0];
+        }
+        String[] values = new String[references.length];
+        int length = literalLength;
+        for (int i = 0; i < references.length; i++) {
+            values[i] = resolver.value(references[i], resolution);
+            length += values[i].length();
+        }
+        StringBuilder result = new StringBuilder(length).append(literals[0]);
+        for (int i = 0; i < references.length; i++) {
+            result.append(values[i]).append(literals[i + 1]);
+        }
+        return result.toString();
+    }
+
+    private static Reference reference(String body) {
+        int colon = body.indexOf(':');
+        int nested = body.indexOf("${");
+        if (colon < 0 || (nested >= 0 && nested < colon)) {
+            return new Reference(body, null);
+        }
+        return new Reference(body.substring(0, colon), compile(body.substring(colon + 1)));
+    }
+
+    /**
+     * @return the index of the brace closing a reference whose body starts at {@code from}, skipping nested ones
+     */
+    private static int closingBrace(String text, int from) {
+        int depth = 0;
+        for (int i = from; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '$' && i + 1 < text.length() && text.charAt(i + 1) == '{') {
+                depth++;
+                i++;
+            } else if (c == '}') {
+                if (depth == 0) {
+                    return i;
+                }
+                depth--;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,90 @@
+package com.vanilla.yamlParser;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The {@code &anchor} definitions seen so far: raw scalars, and the flattened entries of anchored blocks relative to
+ * the block. A table may be layered over an {@code inherited} one, in which case definitions go to this layer only
+ * and every inherited definition that is read is remembered, so a caller can tell whether re-parsing the same text
+ * against other inherited anchors could produce a different result.
+ */
+final class Anchors {
+
+    final Map<String, String> scalars = new HashMap<>();
+    final Map<String, Map<String, Object>> blocks = new HashMap<>();
+    final Map<String, String> inheritedScalarsRead = new HashMap<>();
+    final Map<String, Map<String, Object>> inheritedBlocksRead = new HashMap<>();
+    private final Anchors inherited;
+
+    Anchors() {
+        this(null);
+    }
+
+    Anchors(Anchors inherited) {
+        this.inherited = inherited;
+    }
+
+    String scalar(String name) {
+        if (inherited == null || scalars.containsKey(name)) {
+            return scalars.get(name);
+        }
+        String value = inherited.scalar(name);
+        inheritedScalarsRead.put(name, value);
+        return value;
+    }
+
+    Map<String, Object> block(String name) {
+        if (inherited == null || blocks.containsKey(name)) {
+            return blocks.get(name);
+        }
+        Map<String, Object> value = inherited.block(name);
+        inheritedBlocksRead.put(name, value);
+        return value;
+    }
+
+    void defineScalar(String name, String raw) {
+        scalars.put(name, raw);
+    }
+
+    /**
+     * Adds an entry to an anchored block. Reusing the name of an inherited anchor extends a copy of it, as reusing
+     * a name within one document does.
+     */
+    void addToBlock(String name, String key, Object value) {
+        Map<String, Object> entries = blocks.get(name);
+        if (entries == null) {
+            Map<String, Object> existing = inherited == null ? null : block(name);
+            entries = existing == null ? new HashMap<>() : new HashMap<>(existing);
+            blocks.put(name, entries);
+        }
+        entries.put(key, value);
+    }
+
+    /**
+     * Applies the definitions of {@code layer}, parsed after everything already in this table.
+     */
+    void putAll(Anchors layer) {
+        scalars.putAll(layer.scalars);
+        blocks.putAll(layer.blocks);
+    }
+
+    /**
+     * @return whether every inherited anchor read by this layer resolves to an equal definition in {@code other}, so
+     *         parsing the same text over {@code other} would give the same result
+     */
+    boolean readsSameAs(Anchors other) {
+        for (Map.Entry<String, String> read : inheritedScalarsRead.entrySet()) {
+            if (!Objects.equals(other.scalar(read.getKey()), read.getValue())) {
+                return false;
+            }
+        }
+        for (Map.Entry<String, Map<String, Object>> read : inheritedBlocksRead.entrySet()) {
+            if (!Objects.equals(other.block(read.getKey()), read.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,35 @@
+package com.vanilla.yamlParser;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * An unmodifiable list over a {@code double[]}, as parsed for long lists of decimals. An item is only boxed when it
+ * is read through {@link #get(int)}; {@link #getDouble(int)} reads it as it is stored.
+ */
+public final class DoubleList extends AbstractList<Double> implements RandomAccess {
+
+    private final double[] values;
+
+    DoubleList(double[] values) {
+        this.values = values;
+    }
+
+    @Override
+    public Double get(int index) {
+        return values[index];
+    }
+
+    public double getDouble(int index) {
+        return values[index];
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    public double[] toDoubleArray() {
+        return values.clone();
+    }
+}
@@ -0,0 +1,212 @@
+package com.vanilla.yamlParser;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Recursive-descent parser of YAML flow collections, {@code [a, b]} and {@code {key: value}}, moving a cursor over
+ * the value text. Collections nest to any depth and may mix, quoted scalars may hold commas, colons and brackets,
+ * and plain scalars are typed in place by a {@link ScalarResolver}. Only the final keys and values are allocated, so
+ * a collection is parsed in time linear in its length.
+ *
+ * <p>Lists are built as by a block sequence, maps are {@link HashMap}s. An entry without a {@code :} has an empty
+ * value. Text that is not a well-formed collection, such as {@code [a, b} or {@code [a] b}, is kept as it is, like
+ * any scalar that cannot be typed.
+ */
+public final class FlowParser {
+
+    private final ScalarResolver scalars;
+
+    public FlowParser(ScalarResolver scalars) {
+        this.scalars = scalars;
+    }
+
+    /**
+     * @param text a trimmed value starting with {@code [} or {@code {}
+     * @return a list or a map, or {@code text} itself if it is malformed
+     */
+    public Object parse(String text) {
+        return new Cursor(text).parse();
+    }
+
+    private final class Cursor {
+
+        private final String text;
+        private final int length;
+        private int position;
+        private boolean malformed;
+
+        Cursor(String text) {
+            this.text = text;
+            this.length = text.length();
+        }
+
+        Object parse() {
+            Object value = value(']');
+            skipSpaces();
+            return malformed || position != length ? text : value;
+        }
+
+        /**
+         * Reads a collection or a scalar; a plain scalar ends at a comma or at {@code close}.
+         */
+        private Object value(char close) {
+            skipSpaces();
+            if (position == length) {
+                return "";
+            }
+            return switch (text.charAt(position)) {
+                case '[' -> list();
+                case '{' -> map();
+                case '"', '\'' -> quoted();
+                default -> scalars.resolve(text, position, plainEnd(close, false));
+            };
+        }
+
+        private Object list() {
+            ListBuilder items = new ListBuilder();
+            position++;
+            if (closes(']')) {
+                return items.build();
+            }
+            while (!malformed) {
+                items.add(value(']'));
+                if (!separates(']') || closes(']')) {
+                    break;
+                }
+            }
+            return items.build();
+        }
+
+        private Object map() {
+            Map<String, Object> entries = new HashMap<>();
+            position++;
+            if (closes('}')) {
+                return entries;
+            }
+            while (!malformed) {
+                skipSpaces();
+                String key = String.valueOf(position < length && isQuote(text.charAt(position)) ? quoted()
+                        : text.substring(position, plainEnd('}', true)));
+                skipSpaces();
+                Object value = "";
+                if (position < length && text.charAt(position) == ':') {
+                    position++;
+                    value = value('}');
+                }
+                entries.put(key, value);
+                if (!separates('}') || closes('}')) {
+                    break;
+                }
+            }
+            return entries;
+        }
+
+        /**
+         * Reads a quoted scalar. Single quotes escape themselves as {@code ''}; in double quotes a backslash escapes
+         * the next character, {@code \n}, {@code \t} and {@code \r} standing for their control characters. Text
+         * without escapes is typed, as a quoted value, by the resolver.
+         */
+        private Object quoted() {
+            char quote = text.charAt(position);
+            int start = position++;
+            StringBuilder unescaped = null;
+            int from = position;
+            while (position < length) {
+                char c = text.charAt(position);
+                if (quote == '"' && c == '\\' && position + 1 < length) {
+                    unescaped = unescaped == null ? new StringBuilder() : unescaped;
+                    unescaped.append(text, from, position).append(unescape(text.charAt(position + 1)));
+                    position += 2;
+                    from = position;
+                } else if (c == quote && quote == '\'' && position + 1 < length && text.charAt(position + 1) == '\'') {
+                    unescaped = unescaped == null ? new StringBuilder() : unescaped;
+                    unescaped.append(text, from, position + 1);
+                    position += 2;
+                    from = position;
+                } else if (c == quote) {
+                    position++;
+                    return unescaped == null ? scalars.resolve(text, start, position)
+                            : unescaped.append(text, from, position - 1).toString();
+                } else {
+                    position++;
+                }
+            }
+            malformed = true;
+            return null;
+        }
+
+        /**
+         * Moves to the end of a plain scalar, at a comma, at {@code close} or, for a key, at a colon.
+         *
+         * @return the end of the scalar without its trailing whitespace
+         */
+        private int plainEnd(char close, boolean key) {
+            int start = position;
+            while (position < length) {
+                char c = text.charAt(position);
+                if (c == ',' || c == close || key && c == ':') {
+                    break;
+                }
+                position++;
+            }
+            int end = position;
+            while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+                end--;
+            }
+            return end;
+        }
+
+        /**
+         * Consumes {@code close} after optional whitespace.
+         *
+         * @return whether the collection ended
+         */
+        private boolean closes(char close) {
+            skipSpaces();
+            if (position < length && text.charAt(position) == close) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Consumes the comma after an item, or the end of the collection.
+         *
+         * @return whether another item may follow; the collection is malformed if neither came
+         */
+        private boolean separates(char close) {
+            skipSpaces();
+            if (position < length && text.charAt(position) == ',') {
+                position++;
+                return true;
+            }
+            if (position < length && text.charAt(position) == close) {
+                position++;
+            } else {
+                malformed = true;
+            }
+            return false;
+        }
+
+        private void skipSpaces() {
+            while (position < length && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+    }
+
+    private static boolean isQuote(char c) {
+        return c == '"' || c == '\'';
+    }
+
+    private static char unescape(char c) {
+        return switch (c) {
+            case 'n' -> '\n';
+            case 't' -> '\t';
+            case 'r' -> '\r';
+            default -> c;
+        };
+    }
+}
@@ -0,0 +1,211 @@
+package com.vanilla.yamlParser;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Re-parses successive versions of one YAML document, reusing the work done for the top-level blocks (a line at
+ * indent 0 and everything below it) that did not change. Each call splits the text at indent-0 lines, lines the blocks
+ * up with the previous version and only parses the blocks whose text differs, plus the unchanged blocks whose
+ * {@code *alias} or {@code <<: *alias} references now resolve to different anchors. Blocks that moved are parsed
+ * again too. The flattened map is then patched for the keys of those blocks alone, so the cost of
+ * a one-line edit is a scan of the text plus the size of the edited block, not the size of the document.
+ *
+ * <p>The result is the same as {@link YamlParser#parseYaml(String)} on the full text, including top-level keys that
+ * appear in several blocks, where the last block wins. Placeholders are resolved when a block is parsed, so a reused
+ * block keeps the values its placeholders had then.
+ *
+ * <p>An instance is not thread-safe, and the map it returns is updated in place by the next call. If a call throws,
+ * the next one parses every block again.
+ */
+public class IncrementalYamlParser {
+
+    /**
+     * The outcome of one {@link #parse(String)}: the flattened document and the keys that differ from the previous
+     * call. {@code reparsedBlocks} counts the top-level blocks that had to be parsed again.
+     */
+    public record Result(Map<String, Object> map, Set<String> added, Set<String> removed, Set<String> modified,
+            int reparsedBlocks) {
+
+        public boolean isUnchanged() {
+            return added.isEmpty() && removed.isEmpty() && modified.isEmpty();
+        }
+    }
+
+    private final YamlParser yamlParser;
+    private final Map<String, Object> map = new HashMap<>();
+    private final Map<String, List<Block>> blocksByRoot = new HashMap<>();
+    private List<Block> blocks = List.of();
+    private boolean stale;
+
+    public IncrementalYamlParser() {
+        this(new YamlParser());
+    }
+
+    public IncrementalYamlParser(YamlParser yamlParser) {
+        this.yamlParser = yamlParser;
+    }
+
+    public Result parse(String document) {
+        try {
+            return update(document);
+        } catch (RuntimeException e) {
+            blocks = List.of();
+            blocksByRoot.clear();
+            stale = true;
+            throw e;
+        }
+    }
+
+    private Result update(String document) {
+        Set<String> dirty = new HashSet<>();
+        if (stale) {
+            dirty.addAll(map.keySet());
+            stale = false;
+        }
+        List<String> texts = YamlParser.splitTopLevel(document);
+        List<Block> next = new ArrayList<>(texts.size());
+        Set<Block> reused = Collections.newSetFromMap(new IdentityHashMap<>());
+        Anchors anchors = new Anchors();
+        int reparsed = 0;
+        for (String text : texts) {
+            Block block = sameBlockAt(next.size(), texts.size() - blocks.size(), text);
+            if (block != null && !reused.add(block)) {
+                block = null;
+            } else if (block != null && !block.anchors.readsSameAs(anchors)) {
+                retire(block, dirty);
+                block = null;
+            }
+            if (block == null) {
+                block = parseBlock(text, anchors);
+                index(block, dirty);
+                reparsed++;
+            }
+            block.position = next.size();
+            next.add(block);
+            anchors.putAll(block.anchors);
+        }
+        for (Block previous : blocks) {
+            if (!reused.contains(previous)) {
+                retire(previous, dirty);
+            }
+        }
+        blocks = next;
+
+        Set<String> added = new HashSet<>();
+        Set<String> removed = new HashSet<>();
+        Set<String> modified = new HashSet<>();
+        for (String key : dirty) {
+            Block owner = owner(key);
+            boolean present = map.containsKey(key);
+            if (owner == null) {
+                if (present) {
+                    map.remove(key);
+                    removed.add(key);
+                }
+                continue;
+            }
+            Object value = owner.entries.get(key);
+            if (!present) {
+                added.add(key);
+            } else if (!Objects.equals(map.get(key), value)) {
+                modified.add(key);
+            }
+            map.put(key, value);
+        }
+        return new Result(map, added, removed, modified, reparsed);
+    }
+
+    /**
+     * Looks for an unchanged block where an edit would have left it: at the same index, or shifted by the number of
+     * blocks {@code added} (negative when removed) ahead of it. This avoids hashing the text of every block.
+     */
+    private Block sameBlockAt(int index, int added, String text) {
+        if (index < blocks.size() && blocks.get(index).text.equals(text)) {
+            return blocks.get(index);
+        }
+        int shifted = index - added;
+        if (added != 0 && shifted >= 0 && shifted < blocks.size() && blocks.get(shifted).text.equals(text)) {
+            return blocks.get(shifted);
+        }
+        return null;
+    }
+
+    private Block parseBlock(String text, Anchors inherited) {
+        Anchors anchors = new Anchors(inherited);
+        Map<String, Object> entries = new HashMap<>();
+        try {
+            yamlParser.parseYaml(new StringReader(text), entries, anchors);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Block(text, entries, anchors);
+    }
+
+    /**
+     * @return the last block defining {@code key}, or {@code null} if none does any more
+     */
+    private Block owner(String key) {
+        List<Block> candidates = blocksByRoot.get(root(key));
+        Block owner = null;
+        if (candidates != null) {
+            for (Block candidate : candidates) {
+                if ((owner == null || candidate.position > owner.position) && candidate.entries.containsKey(key)) {
+                    owner = candidate;
+                }
+            }
+        }
+        return owner;
+    }
+
+    private void index(Block block, Set<String> dirty) {
+        dirty.addAll(block.entries.keySet());
+        for (String root : block.roots) {
+            blocksByRoot.computeIfAbsent(root, k -> new ArrayList<>()).add(block);
+        }
+    }
+
+    private void retire(Block block, Set<String> dirty) {
+        dirty.addAll(block.entries.keySet());
+        for (String root : block.roots) {
+            List<Block> candidates = blocksByRoot.get(root);
+            candidates.remove(block);
+            if (candidates.isEmpty()) {
+                blocksByRoot.remove(root);
+            }
+        }
+    }
+
+    private static String root(String key) {
+        int dot = key.indexOf('.');
+        return dot < 0 ? key : key.substring(0, dot);
+    }
+
+    private static final class Block {
+
+        final String text;
+        final Map<String, Object> entries;
+        final Anchors anchors;
+        final Set<String> roots = new HashSet<>();
+        int position;
+
+        Block(String text, Map<String, Object> entries, Anchors anchors) {
+            this.text = text;
+            this.entries = entries;
+            this.anchors = anchors;
+            for (String key : entries.keySet()) {
+                roots.add(root(key));
+            }
+        }
+    }
+}
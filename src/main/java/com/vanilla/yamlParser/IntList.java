@@ -0,0 +1,35 @@
+package com.vanilla.yamlParser;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * An unmodifiable list over an {@code int[]}, as parsed for long lists of integers. An item is only boxed when it is
+ * read through {@link #get(int)}; {@link #getInt(int)} reads it as it is stored.
+ */
+public final class IntList extends AbstractList<Integer> implements RandomAccess {
+
+    private final int[] values;
+
+    IntList(int[] values) {
+        this.values = values;
+    }
+
+    @Override
+    public Integer get(int index) {
+        return values[index];
+    }
+
+    public int getInt(int index) {
+        return values[index];
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    public int[] toIntArray() {
+        return values.clone();
+    }
+}
@@ -0,0 +1,99 @@
+package com.vanilla.yamlParser;
+
+import java.util.Objects;
+
+class LineWithIdentation {
+    final String raw;
+    final int indent;
+    String key;
+    String aliasKey;
+    String value;
+    boolean isAlias = false;
+    boolean rowAlias = false;
+    final boolean isBlank;
+    /**
+     * Whether the line is an entry {@code - item} of a block sequence; its key and value are not meaningful.
+     */
+    final boolean isSequenceItem;
+    /**
+     * Whether the line is a {@code ---} or {@code ...} document marker at indent 0.
+     */
+    final boolean isDocumentMarker;
+    private final int end;
+
+    public LineWithIdentation(String raw) {
+        this.raw = raw;
+        int start = 0;
+        while (start < raw.length() && raw.charAt(start) == ' ') {
+            start++;
+        }
+        this.indent = start;
+        int end = raw.length();
+        while (end > start && Character.isWhitespace(raw.charAt(end - 1))) {
+            end--;
+        }
+        this.end = end;
+        this.isBlank = start == end || raw.charAt(start) == '#';
+        this.isSequenceItem = !isBlank && raw.charAt(start) == '-'
+                && (start + 1 == end || raw.charAt(start + 1) == ' ');
+        this.isDocumentMarker = start == 0 && end >= 3 && (raw.startsWith("---") || raw.startsWith("..."))
+                && (end == 3 || raw.charAt(3) == ' ' && raw.substring(3, end).trim().startsWith("#"));
+        if (isBlank) {
+            return;
+        }
+        int colon = raw.indexOf(':', start);
+        if (colon < 0 || colon >= end) {
+            this.key = raw.substring(start, end);
+            return;
+        }
+        this.key = raw.substring(start, colon);
+        String trimmedValue = raw.substring(colon + 1, end).trim();
+        if (trimmedValue.startsWith("&")) {
+            int space = trimmedValue.indexOf(' ');
+            this.rowAlias = space > 0;
+            this.isAlias = !this.rowAlias;
+            this.aliasKey = trimmedValue.substring(1, rowAlias ? space : trimmedValue.length());
+            trimmedValue = rowAlias ? trimmedValue.substring(space).trim() : "";
+        }
+        this.value = trimmedValue;
+    }
+
+    public boolean hasValue() {
+        return Objects.nonNull(value);
+    }
+
+    /**
+     * Whether the value is empty once a trailing comment is dropped, i.e. the line can only open a nested block.
+     */
+    boolean hasEmptyValue() {
+        return value.isEmpty() || value.charAt(0) == '#';
+    }
+
+    boolean isBlockScalar() {
+        return "|".equals(value) || ">".equals(value);
+    }
+
+    /**
+     * @return the column where the content after the {@code -} of a sequence item starts
+     */
+    int itemColumn() {
+        int column = indent + 1;
+        return column + countSpaces(raw, column);
+    }
+
+    /**
+     * @return the content after the {@code -} of a sequence item, empty for a bare {@code -} or a comment
+     */
+    String itemContent() {
+        int column = Math.min(itemColumn(), end);
+        return column == end || raw.charAt(column) == '#' ? "" : raw.substring(column, end);
+    }
+
+    private static int countSpaces(String raw, int from) {
+        int count = 0;
+        while (from + count < raw.length() && raw.charAt(from + count) == ' ') {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,64 @@
+package com.vanilla.yamlParser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Collects the items of a flow or block list. Items are kept in a primitive array while they are all ints, or all
+ * doubles, and moved to an {@link ArrayList} at the first item that is not. A list of at least
+ * {@link #COMPACT_SIZE} items that stayed primitive is returned as an {@link IntList} or a {@link DoubleList}: 4 or 8
+ * bytes an item instead of a reference and a boxed value of 16 bytes or more. Shorter lists are plain
+ * {@link ArrayList}s, as they always were.
+ */
+final class ListBuilder {
+
+    static final int COMPACT_SIZE = 16;
+
+    private int[] ints = new int[COMPACT_SIZE];
+    private double[] doubles;
+    private List<Object> objects;
+    private int size;
+
+    void add(Object item) {
+        if (objects == null) {
+            if (ints != null && item instanceof Integer value) {
+                ints = size == ints.length ? Arrays.copyOf(ints, size * 2) : ints;
+                ints[size++] = value;
+                return;
+            }
+            if (size == 0 && item instanceof Double) {
+                ints = null;
+                doubles = new double[COMPACT_SIZE];
+            }
+            if (doubles != null && item instanceof Double value) {
+                doubles = size == doubles.length ? Arrays.copyOf(doubles, size * 2) : doubles;
+                doubles[size++] = value;
+                return;
+            }
+            objects = boxed(size + 1);
+        }
+        objects.add(item);
+        size++;
+    }
+
+    List<Object> build() {
+        if (objects == null && size >= COMPACT_SIZE) {
+            @SuppressWarnings({ "unchecked", "rawtypes" })
+            List<Object> compact = ints != null ? (List) new IntList(Arrays.copyOf(ints, size))
+                    : (List) new DoubleList(Arrays.copyOf(doubles, size));
+            return compact;
+        }
+        return objects != null ? objects : boxed(size);
+    }
+
+    private List<Object> boxed(int capacity) {
+        List<Object> list = new ArrayList<>(Math.max(capacity, size));
+        for (int i = 0; i < size; i++) {
+            list.add(ints != null ? (Object) ints[i] : (Object) doubles[i]);
+        }
+        ints = null;
+        doubles = null;
+        return list;
+    }
+}
@@ -0,0 +1,236 @@
+package com.vanilla.yamlParser;
+
+import com.vanilla.placeholder.PlaceholderResolver;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * Types a raw YAML scalar by scanning its characters once: comments are cut, then the text is classified as null,
+ * boolean, int, long, double, quoted string, explicitly typed ({@code !!float}, {@code !!timestamp}) or flow
+ * collection. Only the final value is allocated, and {@code ${NAME:default}} placeholders are only handed to the
+ * {@link PlaceholderResolver} when the text actually contains {@code ${}.
+ */
+public final class ScalarResolver {
+
+    private final Function<String, Object> flowCollections;
+    private final PlaceholderResolver placeholders;
+
+    /**
+     * @param flowCollections parses a trimmed {@code {...}} or {@code [...]} value
+     */
+    public ScalarResolver(Function<String, Object> flowCollections) {
+        this(flowCollections, PlaceholderResolver.defaults());
+    }
+
+    public ScalarResolver(Function<String, Object> flowCollections, PlaceholderResolver placeholders) {
+        this.flowCollections = flowCollections;
+        this.placeholders = placeholders;
+    }
+
+    public Object resolve(String valueString) {
+        int end = commentStart(valueString);
+        if (valueString.indexOf("${") >= 0) {
+            valueString = placeholders.resolve(valueString.substring(0, end));
+            end = valueString.length();
+        }
+        int start = 0;
+        while (start < end && Character.isWhitespace(valueString.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(valueString.charAt(end - 1))) {
+            end--;
+        }
+        return classify(valueString, start, end);
+    }
+
+    /**
+     * Types the trimmed scalar {@code s[start, end)} of a flow collection without copying it first. Commas and
+     * brackets have already been cut by the caller, so no comment is looked for.
+     */
+    Object resolve(String s, int start, int end) {
+        for (int i = start; i + 1 < end; i++) {
+            if (s.charAt(i) == '$' && s.charAt(i + 1) == '{') {
+                return resolve(s.substring(start, end));
+            }
+        }
+        return classify(s, start, end);
+    }
+
+    private Object classify(String s, int start, int end) {
+        int length = end - start;
+        if (length == 0) {
+            return "";
+        }
+        char first = s.charAt(start);
+        char last = s.charAt(end - 1);
+        switch (first) {
+            case 'n', 'N' -> {
+                if (length == 4 && s.regionMatches(true, start, "null", 0, 4)) {
+                    return null;
+                }
+            }
+            case 't', 'T' -> {
+                if (length == 4 && s.regionMatches(true, start, "true", 0, 4)) {
+                    return true;
+                }
+            }
+            case 'f', 'F' -> {
+                if (length == 5 && s.regionMatches(true, start, "false", 0, 5)) {
+                    return false;
+                }
+            }
+            case '\'', '"' -> {
+                if (length > 1 && last == first) {
+                    return s.substring(start + 1, end - 1);
+                }
+            }
+            case '{' -> {
+                if (last == '}') {
+                    return flowCollections.apply(s.substring(start, end));
+                }
+            }
+            case '[' -> {
+                if (last == ']') {
+                    return flowCollections.apply(s.substring(start, end));
+                }
+            }
+            case '!' -> {
+                if (length > 1 && s.charAt(start + 1) == '!') {
+                    return parseExplicitTyping(s.substring(start + 2, end));
+                }
+            }
+            default -> {
+                if (first == '-' || (first >= '0' && first <= '9')) {
+                    Object number = parseNumber(s, start, end);
+                    if (number != null) {
+                        return number;
+                    }
+                }
+            }
+        }
+        return s.substring(start, end);
+    }
+
+    /**
+     * Accepts {@code -?\d+} as an Integer, or a Long once it no longer fits, and {@code -?\d+\.\d+} as a Double.
+     * Returns {@code null} for anything else, including integers that overflow a long.
+     */
+    private static Object parseNumber(String s, int start, int end) {
+        boolean negative = s.charAt(start) == '-';
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        int i = negative ? start + 1 : start;
+        int digitsStart = i;
+        long value = 0;
+        boolean overflow = false;
+        for (; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            int digit = c - '0';
+            if (value < limit / 10 || value * 10 < limit + digit) {
+                overflow = true;
+            } else {
+                value = value * 10 - digit;
+            }
+        }
+        if (i == digitsStart) {
+            return null;
+        }
+        if (i == end) {
+            if (overflow) {
+                return null;
+            }
+            value = negative ? value : -value;
+            if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                return (int) value;
+            }
+            return value;
+        }
+        if (s.charAt(i) != '.' || i + 1 == end) {
+            return null;
+        }
+        for (i = i + 1; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return null;
+            }
+        }
+        return Double.parseDouble(s.substring(start, end));
+    }
+
+    private static Object parseExplicitTyping(String valueString) {
+        int space = valueString.indexOf(' ');
+        if (space < 0) {
+            return valueString;
+        }
+        String tag = valueString.substring(0, space);
+        String value = valueString.substring(space + 1).trim();
+        if ("float".equals(tag)) {
+            return Float.parseFloat(value);
+        }
+        if ("timestamp".equals(tag)) {
+            return LocalDateTime.parse(value);
+        }
+        return valueString;
+    }
+
+    /**
+     * A {@code #} only starts a comment at the beginning of the value or after whitespace, so {@code a#b} is kept,
+     * and never inside a {@code '...'} or {@code "..."} scalar. A quote only opens such a scalar where a token starts,
+     * so the apostrophe of {@code it's} does not hide the comment after it.
+     */
+    private static int commentStart(String valueString) {
+        int length = valueString.length();
+        if (valueString.indexOf('#') < 0) {
+            return length;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = valueString.charAt(i);
+            boolean tokenStart = i == 0 || isTokenSeparator(valueString.charAt(i - 1));
+            if (c == '#' && (i == 0 || Character.isWhitespace(valueString.charAt(i - 1)))) {
+                return i;
+            } else if (c == '\'' && tokenStart) {
+                i = closingSingleQuote(valueString, i + 1);
+            } else if (c == '"' && tokenStart) {
+                i = closingDoubleQuote(valueString, i + 1);
+            }
+        }
+        return length;
+    }
+
+    private static boolean isTokenSeparator(char c) {
+        return Character.isWhitespace(c) || c == '[' || c == '{' || c == ',' || c == ':';
+    }
+
+    /**
+     * @return the index of the quote closing a single-quoted scalar, where {@code ''} is an escaped quote
+     */
+    private static int closingSingleQuote(String s, int from) {
+        for (int i = from; i < s.length(); i++) {
+            if (s.charAt(i) == '\'') {
+                if (i + 1 < s.length() && s.charAt(i + 1) == '\'') {
+                    i++;
+                } else {
+                    return i;
+                }
+            }
+        }
+        return s.length();
+    }
+
+    /**
+     * @return the index of the quote closing a double-quoted scalar, skipping backslash escapes
+     */
+    private static int closingDoubleQuote(String s, int from) {
+        for (int i = from; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '"') {
+                return i;
+            }
+        }
+        return s.length();
+    }
+}
@@ -0,0 +1,87 @@
+package com.vanilla.yamlParser;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Builds the value of a block sequence from the events between its {@link YamlEvent.Type#START_SEQUENCE} and the
+ * matching {@link YamlEvent.Type#END_SEQUENCE}. Unlike the maps of a document, which are flattened into dotted keys,
+ * a sequence is kept whole: its items become a {@link List}, maps within it {@link LinkedHashMap}s in document
+ * order. Aliases and merge keys are not resolved inside sequences.
+ */
+final class SequenceBuilder {
+
+    private final Function<String, Object> scalars;
+    private final String key;
+    private final String path;
+    private final Deque<Open> open = new ArrayDeque<>();
+
+    /**
+     * @param start the event that opened the sequence
+     */
+    SequenceBuilder(YamlEvent start, Function<String, Object> scalars) {
+        this.scalars = scalars;
+        this.key = start.key();
+        this.path = start.path();
+        open.push(new Open(null, new ListBuilder()));
+    }
+
+    String key() {
+        return key;
+    }
+
+    String path() {
+        return path;
+    }
+
+    /**
+     * @return the finished list once {@code event} closes the sequence, otherwise {@code null}
+     */
+    List<Object> accept(YamlEvent event) {
+        switch (event.type()) {
+            case START_MAP -> open.push(new Open(event.key(), new LinkedHashMap<String, Object>()));
+            case START_SEQUENCE -> open.push(new Open(event.key(), new ListBuilder()));
+            case END_MAP, END_SEQUENCE -> {
+                Open closed = open.pop();
+                Object value = closed.value();
+                if (open.isEmpty()) {
+                    return castList(value);
+                }
+                add(closed.key, value);
+            }
+            case SCALAR -> add(event.key(), event.block() ? event.value() : scalars.apply(event.value().trim()));
+            default -> {
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void add(String itemKey, Object value) {
+        Object container = open.peek().container;
+        if (container instanceof ListBuilder list) {
+            list.add(value);
+        } else {
+            ((Map<String, Object>) container).put(itemKey, value);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> castList(Object value) {
+        return (List<Object>) value;
+    }
+
+    /**
+     * A map or list being filled, and the key it goes under in its enclosing map, {@code null} in a list.
+     */
+    private record Open(String key, Object container) {
+
+        Object value() {
+            return container instanceof ListBuilder list ? list.build() : container;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.vanilla.yamlParser;
+
+/**
+ * A single step of a {@link YamlEventReader} walk.
+ *
+ * @param type   what the event represents
+ * @param key    the key of the current line, {@code null} for the items of a sequence and for the end events
+ * @param path   the dotted path of {@code key}, as it appears in {@link YamlParser#parseYaml(String)}; items are
+ *               numbered from 0 after the path of their sequence. {@code null} for {@link Type#END_DOCUMENT}
+ * @param anchor the {@code &anchor} declared on a map, sequence or scalar, otherwise {@code null}
+ * @param value  the raw, untyped scalar text; {@code null} for anything but {@link Type#SCALAR}
+ * @param block  whether {@code value} was folded from a {@code |} or {@code >} block and must not be typed
+ */
+public record YamlEvent(Type type, String key, String path, String anchor, String value, boolean block) {
+
+    public enum Type {
+        KEY,
+        SCALAR,
+        START_MAP,
+        END_MAP,
+        START_SEQUENCE,
+        END_SEQUENCE,
+        /**
+         * A {@code ---} or {@code ...} line after some content; the events that follow belong to the next document.
+         */
+        END_DOCUMENT
+    }
+}
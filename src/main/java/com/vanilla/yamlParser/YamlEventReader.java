@@ -0,0 +1,262 @@
+package com.vanilla.yamlParser;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.NoSuchElementException;
+
+/**
+ * Pull parser over a YAML {@link Reader}. Lines are read one at a time through a bounded buffer, so only the open
+ * maps and sequences, one line of lookahead and the block scalar being folded are kept in memory. Callers may stop
+ * pulling and {@link #close()} as soon as they have seen the keys they need.
+ *
+ * <pre>{@code
+ * key1:           KEY key1, START_MAP
+ *   sub: value    KEY sub, SCALAR value
+ * key2: other     END_MAP, KEY key2, SCALAR other
+ * list:           KEY list, START_SEQUENCE
+ * - item          SCALAR item (no key, path list.0)
+ * - name: x       START_MAP (no key, path list.1), KEY name, SCALAR x
+ * ---             END_MAP, END_SEQUENCE, END_DOCUMENT
+ * }</pre>
+ *
+ * Items of a block sequence may sit at the indent of their key, as in {@code config.yml}. A {@code ---} or
+ * {@code ...} line at indent 0 ends the document; documents without any content produce no event at all.
+ */
+public class YamlEventReader implements Closeable {
+
+    private final BufferedReader reader;
+    private final Deque<Frame> frames = new ArrayDeque<>();
+    private final Deque<YamlEvent> pending = new ArrayDeque<>();
+    private LineWithIdentation lookahead;
+    private boolean exhausted;
+    private boolean documentStarted;
+
+    public YamlEventReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader bufferedReader ? bufferedReader : new BufferedReader(reader);
+    }
+
+    public boolean hasNext() throws IOException {
+        fill();
+        return !pending.isEmpty();
+    }
+
+    public YamlEvent next() throws IOException {
+        fill();
+        if (pending.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return pending.poll();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void fill() throws IOException {
+        while (pending.isEmpty() && !exhausted) {
+            LineWithIdentation line = nextStructuralLine();
+            if (line == null) {
+                exhausted = true;
+                closeAllFrames();
+                return;
+            }
+            if (line.isDocumentMarker) {
+                closeAllFrames();
+                if (documentStarted) {
+                    pending.add(new YamlEvent(YamlEvent.Type.END_DOCUMENT, null, null, null, null, false));
+                    documentStarted = false;
+                }
+                continue;
+            }
+            documentStarted = true;
+            closeFrames(line);
+            Frame top = frames.peek();
+            if (top != null && top.sequence) {
+                if (line.isSequenceItem && line.indent == top.indent) {
+                    item(line, top);
+                }
+            } else if (!line.isSequenceItem) {
+                keyLine(line);
+            }
+        }
+    }
+
+    /**
+     * Emits the events of a {@code key: value} line, opening a map or a sequence when the value is on the lines
+     * below.
+     */
+    private void keyLine(LineWithIdentation line) throws IOException {
+        if (!line.hasValue()) {
+            return;
+        }
+        String path = frames.isEmpty() ? line.key : frames.peek().path + "." + line.key;
+        pending.add(new YamlEvent(YamlEvent.Type.KEY, line.key, path, null, null, false));
+        if (line.isBlockScalar()) {
+            String text = readBlockScalar(line.indent, line.value);
+            pending.add(new YamlEvent(YamlEvent.Type.SCALAR, line.key, path, line.aliasKey, text, true));
+        } else if (line.isAlias || line.hasEmptyValue()) {
+            LineWithIdentation next = peekStructuralLine();
+            if (next != null && next.isSequenceItem && next.indent >= line.indent) {
+                frames.push(new Frame(next.indent, path, true));
+                pending.add(new YamlEvent(YamlEvent.Type.START_SEQUENCE, line.key, path, line.aliasKey, null, false));
+            } else if (next != null && next.indent > line.indent) {
+                frames.push(new Frame(line.indent, path, false));
+                pending.add(new YamlEvent(YamlEvent.Type.START_MAP, line.key, path, line.aliasKey, null, false));
+            } else if (line.isAlias) {
+                pending.add(new YamlEvent(YamlEvent.Type.START_MAP, line.key, path, line.aliasKey, null, false));
+                pending.add(new YamlEvent(YamlEvent.Type.END_MAP, null, path, null, null, false));
+            } else {
+                pending.add(new YamlEvent(YamlEvent.Type.SCALAR, line.key, path, null, line.value, false));
+            }
+        } else {
+            pending.add(new YamlEvent(YamlEvent.Type.SCALAR, line.key, path, line.aliasKey, line.value, false));
+        }
+    }
+
+    /**
+     * Emits the events of a {@code - item} line of {@code sequence}: a scalar, the first entry of a map whose other
+     * entries follow at the column of the first, a nested {@code - - item} sequence, or, for a bare {@code -}, the
+     * block on the lines below.
+     */
+    private void item(LineWithIdentation line, Frame sequence) throws IOException {
+        String path = sequence.path + "." + sequence.items++;
+        String content = line.itemContent();
+        int column = line.itemColumn();
+        if (content.isEmpty()) {
+            LineWithIdentation next = peekStructuralLine();
+            if (next != null && next.indent > line.indent) {
+                boolean nested = next.isSequenceItem;
+                frames.push(new Frame(nested ? next.indent : next.indent - 1, path, nested));
+                YamlEvent.Type type = nested ? YamlEvent.Type.START_SEQUENCE : YamlEvent.Type.START_MAP;
+                pending.add(new YamlEvent(type, null, path, null, null, false));
+            } else {
+                pending.add(new YamlEvent(YamlEvent.Type.SCALAR, null, path, null, "", false));
+            }
+            return;
+        }
+        LineWithIdentation inner = new LineWithIdentation(" ".repeat(column) + content);
+        if (inner.isSequenceItem) {
+            Frame nested = new Frame(column, path, true);
+            frames.push(nested);
+            pending.add(new YamlEvent(YamlEvent.Type.START_SEQUENCE, null, path, null, null, false));
+            item(inner, nested);
+        } else if (isMapEntry(content)) {
+            frames.push(new Frame(column - 1, path, false));
+            pending.add(new YamlEvent(YamlEvent.Type.START_MAP, null, path, null, null, false));
+            keyLine(inner);
+        } else if ("|".equals(content) || ">".equals(content)) {
+            String text = readBlockScalar(line.indent, content);
+            pending.add(new YamlEvent(YamlEvent.Type.SCALAR, null, path, null, text, true));
+        } else {
+            pending.add(new YamlEvent(YamlEvent.Type.SCALAR, null, path, null, content, false));
+        }
+    }
+
+    /**
+     * Whether an item reads as {@code key: value} rather than as a scalar that merely contains a colon, such as a
+     * quoted string, a flow collection or a URL.
+     */
+    private static boolean isMapEntry(String content) {
+        char first = content.charAt(0);
+        if (first == '"' || first == '\'' || first == '[' || first == '{') {
+            return false;
+        }
+        int colon = content.indexOf(':');
+        return colon > 0 && (colon == content.length() - 1 || content.charAt(colon + 1) == ' ');
+    }
+
+    /**
+     * Closes the frames {@code line} is not part of: maps it is not indented into, and sequences it is neither
+     * indented into nor an item of.
+     */
+    private void closeFrames(LineWithIdentation line) {
+        while (!frames.isEmpty()) {
+            Frame top = frames.peek();
+            if (line.indent > top.indent || top.sequence && line.indent == top.indent && line.isSequenceItem) {
+                return;
+            }
+            close(frames.pop());
+        }
+    }
+
+    private void closeAllFrames() {
+        while (!frames.isEmpty()) {
+            close(frames.pop());
+        }
+    }
+
+    private void close(Frame frame) {
+        YamlEvent.Type type = frame.sequence ? YamlEvent.Type.END_SEQUENCE : YamlEvent.Type.END_MAP;
+        pending.add(new YamlEvent(type, null, frame.path, null, null, false));
+    }
+
+    private LineWithIdentation nextStructuralLine() throws IOException {
+        LineWithIdentation line = peekStructuralLine();
+        lookahead = null;
+        return line;
+    }
+
+    private LineWithIdentation peekStructuralLine() throws IOException {
+        while (lookahead == null) {
+            String raw = reader.readLine();
+            if (raw == null) {
+                return null;
+            }
+            LineWithIdentation line = new LineWithIdentation(raw);
+            if (!line.isBlank) {
+                lookahead = line;
+            }
+        }
+        return lookahead;
+    }
+
+    /**
+     * Folds every following line indented deeper than {@code indent}, the indent of the line that opened the block
+     * with {@code style}. Blank lines are only counted until the next deeper line proves they belong to the block,
+     * so trailing blank lines are dropped.
+     */
+    private String readBlockScalar(int indent, String style) throws IOException {
+        StringBuilder groupedValue = new StringBuilder();
+        String lineSeparator = "|".equals(style) ? "\n" : " ";
+        int pendingBlankLines = 0;
+        String raw;
+        while ((raw = reader.readLine()) != null) {
+            if (raw.isBlank()) {
+                pendingBlankLines++;
+                continue;
+            }
+            LineWithIdentation line = new LineWithIdentation(raw);
+            if (line.indent <= indent) {
+                lookahead = line.isBlank ? null : line;
+                break;
+            }
+            for (; pendingBlankLines > 0; pendingBlankLines--) {
+                groupedValue.append(lineSeparator);
+            }
+            groupedValue.append(groupedValue.isEmpty() ? "" : lineSeparator).append(raw.trim());
+        }
+        return groupedValue.toString();
+    }
+
+    /**
+     * An open map, closed by the first line at or left of {@code indent}, or an open sequence whose items sit at
+     * {@code indent} and are numbered into their paths.
+     */
+    private static final class Frame {
+        final int indent;
+        final String path;
+        final boolean sequence;
+        int items;
+
+        Frame(int indent, String path, boolean sequence) {
+            this.indent = indent;
+            this.path = path;
+            this.sequence = sequence;
+        }
+    }
+}
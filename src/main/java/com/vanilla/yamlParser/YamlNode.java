@@ -0,0 +1,143 @@
+package com.vanilla.yamlParser;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * One map or scalar of a document parsed by {@link YamlParser#parseTree(String)}. Keys are stored as one interned
+ * segment per node instead of one dotted string per entry, and a {@code <<: *alias} or {@code key: *alias} merge
+ * points the node at the anchored node as its base instead of copying the anchored entries. Lookups fall back to the
+ * base for children and values the node does not define itself; writing below a merged node adds a local node
+ * layered over the base's, so anchored nodes are never modified through an alias.
+ */
+public final class YamlNode {
+
+    private static final Object NO_VALUE = new Object();
+
+    private Map<String, YamlNode> children;
+    private YamlNode base;
+    private Object value = NO_VALUE;
+
+    YamlNode() {
+    }
+
+    public boolean hasValue() {
+        return value != NO_VALUE || (base != null && base.hasValue());
+    }
+
+    /**
+     * @return the scalar at this node, {@code null} when there is none or it is explicitly null
+     */
+    public Object value() {
+        if (value != NO_VALUE) {
+            return value;
+        }
+        return base == null ? null : base.value();
+    }
+
+    /**
+     * @return the direct child called {@code name}, or {@code null}
+     */
+    public YamlNode child(String name) {
+        YamlNode child = children == null ? null : children.get(name);
+        if (child == null && base != null) {
+            return base.child(name);
+        }
+        return child;
+    }
+
+    /**
+     * @param path dotted, relative to this node
+     * @return the node at {@code path}, or {@code null}
+     */
+    public YamlNode get(String path) {
+        YamlNode node = this;
+        int start = 0;
+        while (node != null) {
+            int dot = path.indexOf('.', start);
+            if (dot < 0) {
+                return node.child(path.substring(start));
+            }
+            node = node.child(path.substring(start, dot));
+            start = dot + 1;
+        }
+        return null;
+    }
+
+    /**
+     * @return the names of the children, own and merged, in sorted order
+     */
+    public Set<String> childNames() {
+        Set<String> names = new TreeSet<>();
+        for (YamlNode node = this; node != null; node = node.base) {
+            if (node.children != null) {
+                names.addAll(node.children.keySet());
+            }
+        }
+        return Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * @return the dotted entries below this node, as {@link YamlParser#parseYaml(String)} returns them
+     */
+    public Map<String, Object> flatten() {
+        Map<String, Object> map = new HashMap<>();
+        flatten("", map);
+        return map;
+    }
+
+    private void flatten(String prefix, Map<String, Object> map) {
+        for (String name : childNames()) {
+            YamlNode child = child(name);
+            if (child.hasValue()) {
+                map.put(prefix + name, child.value());
+            }
+            child.flatten(prefix + name + ".", map);
+        }
+    }
+
+    void setValue(Object value) {
+        this.value = value;
+    }
+
+    /**
+     * @return the local child called {@code name}, created and layered over the base's child if needed
+     */
+    YamlNode childForWrite(String name) {
+        YamlNode child = children == null ? null : children.get(name);
+        if (child == null) {
+            child = new YamlNode();
+            child.base = base == null ? null : base.child(name);
+            if (children == null) {
+                children = new HashMap<>(4);
+            }
+            children.put(name, child);
+        }
+        return child;
+    }
+
+    /**
+     * Merges the children of {@code anchored} into this node, overriding what is already here as the flattened
+     * parser does. A node with nothing of its own just shares {@code anchored}; otherwise the entries are copied.
+     */
+    void merge(YamlNode anchored) {
+        if (anchored == null || anchored == this) {
+            return;
+        }
+        if (children == null && base == null && value == NO_VALUE) {
+            base = anchored;
+            return;
+        }
+        for (String name : anchored.childNames()) {
+            YamlNode source = anchored.child(name);
+            YamlNode target = childForWrite(name);
+            if (source.hasValue()) {
+                target.setValue(source.value());
+            }
+            target.merge(source);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.vanilla.yamlParser;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event spanning one {@link YamlParser#parseYaml(java.io.Reader)} or
+ * {@link YamlParser#parseYamlParallel(String, java.util.concurrent.ForkJoinPool)} call.
+ */
+@Name("com.vanilla.YamlParse")
+@Label("YAML Parse")
+@Category({ "Vanilla", "YAML" })
+@Description("A YAML document flattened into dotted keys")
+final class YamlParseEvent extends Event {
+
+    @Label("Mode")
+    @Description("sequential or parallel")
+    String mode;
+
+    @Label("Entries")
+    int entries;
+
+    @Label("Chunks")
+    @Description("Runs of top-level blocks parsed apart, 1 for a sequential parse")
+    int chunks;
+
+    @Label("Scan Time")
+    @Description("Reading lines into events; 0 for a parallel parse")
+    @Timespan
+    long scanTime;
+
+    @Label("Build Time")
+    @Description("Resolving scalars, aliases and merges into the map; 0 for a parallel parse")
+    @Timespan
+    long buildTime;
+}
@@ -1,245 +1,508 @@
 package com.vanilla.yamlParser;
 
-import java.time.LocalDateTime;
+import com.vanilla.metrics.Histogram;
+import com.vanilla.metrics.MetricsRegistry;
+import com.vanilla.placeholder.PlaceholderResolver;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public class YamlParser {
 
-    public Map<String, Object> parseYaml(String yamlString) {
+    private static final int MIN_PARALLEL_CHUNK = 16 * 1024;
 
-        Map<String, Object> map = new HashMap<>();
-        Map<String, Map<String, Object>> aliasKeysReference = new HashMap<>();
+    /**
+     * Events are read in batches so the scan and build phases can be timed apart with two clock reads per batch
+     * instead of two per event.
+     */
+    private static final int EVENT_BATCH = 256;
 
-        List<LineWithIdentation> lineWithIdentations = Stream.of(yamlString.split("\n"))
-                .map(LineWithIdentation::new)
-                .toList();
+    private static final Histogram SEQUENTIAL = MetricsRegistry.global().timer("yaml_parse_duration_seconds",
+            "mode", "sequential");
+    private static final Histogram PARALLEL = MetricsRegistry.global().timer("yaml_parse_duration_seconds",
+            "mode", "parallel");
+    private static final Histogram SCAN = phase("scan");
+    private static final Histogram BUILD = phase("build");
+    private static final Histogram SPLIT = phase("split");
+    private static final Histogram CHUNKS = phase("chunks");
+    private static final Histogram MERGE = phase("merge");
 
-        for (int i = 0; i < lineWithIdentations.size(); i++) {
-            LineWithIdentation currentLine = lineWithIdentations.get(i);
-            if (currentLine.hasValue() && !currentLine.isAlias) {
+    private final PlaceholderResolver placeholders;
+    private final ScalarResolver scalarResolver;
+    private final FlowParser flowParser;
 
-                Map<String, List<String>> aliasKeys = new HashMap<>();
-                String completeKey = extractCompleteKey(
-                        aliasKeysReference, lineWithIdentations, currentLine.indent, i, aliasKeys);
+    public YamlParser() {
+        this(PlaceholderResolver.defaults());
+    }
 
-                String key = ("".equals(completeKey) ? "" : completeKey + ".") + currentLine.key;
+    /**
+     * @param placeholders resolves the {@code ${NAME:default}} placeholders of scalar values
+     */
+    public YamlParser(PlaceholderResolver placeholders) {
+        this.placeholders = placeholders;
+        this.scalarResolver = new ScalarResolver(this::parseFlowCollection, placeholders);
+        this.flowParser = new FlowParser(scalarResolver);
+    }
 
-                Object value = parseValue(currentLine.value.trim());
-                if ("".equals(value) && lineWithIdentations.get(i + 1).indent > currentLine.indent) {
-                    continue;
-                }
-                if (List.of("|", ">").contains(lineWithIdentations.get(i).value)) {
-                    String groupedValue = handleMultilineString(i, lineWithIdentations,currentLine.value);
-                    map.put(key, groupedValue);
-                } else if ("<<".equals(lineWithIdentations.get(i).key)) {
-                    handleAliasedMerge(map, aliasKeysReference, lineWithIdentations, i, completeKey);
-                } else if (String.valueOf(value).startsWith("*")) {
-                    String aliasKey = String.valueOf(value).replace("*", "");
-                    map.put(key, parseValue(aliasKeysReference.get(aliasKey).get(aliasKey).toString()));
-                } else {
-                    map.put(key, value);
-                }
-                HandleAliasValueAssignment(aliasKeysReference, lineWithIdentations, aliasKeys, value, i);
-            }
+    public PlaceholderResolver placeholders() {
+        return placeholders;
+    }
+
+    public Map<String, Object> parseYaml(String yamlString) {
+        try {
+            return parseYaml(new StringReader(yamlString));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return map;
     }
 
-    private static void HandleAliasValueAssignment(Map<String, Map<String, Object>> aliasKeysReference, List<LineWithIdentation> lineWithIdentations, Map<String, List<String>> aliasKeys, Object value, int finalI) {
-        aliasKeys.forEach((a, b) -> b.stream().filter(p -> p.endsWith("$")).forEach(c -> {
-            String newKey = c.replace("$", "");
-            newKey = ("".equals(newKey) ? "" : newKey + ".") + lineWithIdentations.get(
-                    finalI).key;
-            Map<String, Object> orDefault = aliasKeysReference.computeIfAbsent(a,
-                    k1 -> new HashMap<>());
-            orDefault.put(newKey, value);
-        }));
+    public Map<String, Object> parseYaml(Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path)) {
+            return parseYaml(reader);
+        }
     }
 
-    private static void handleAliasedMerge(Map<String, Object> map, Map<String, Map<String, Object>> aliasKeysReference, List<LineWithIdentation> lineWithIdentations, int i, String completeKey) {
-        Map<String, Object> stringObjectMap = aliasKeysReference.get(
-                lineWithIdentations.get(i).value.trim().replace("*", ""));
-        stringObjectMap.forEach((a, b) -> map.put(completeKey + "." + a, b));
+    public Map<String, Object> parseYaml(InputStream inputStream) throws IOException {
+        return parseYaml(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
     }
 
-    private String handleMultilineString(
-            int currentIndex, List<LineWithIdentation> linesWithIndentation, String currentValue) {
-        StringBuilder groupedValue = new StringBuilder();
-        String lineSeparator = "|".equals(currentValue) ? "\n" : " ";
-        do {
-            ++currentIndex;
-            groupedValue.append(groupedValue.toString().isBlank() ? "" :
-                    lineSeparator).append(linesWithIndentation.get(currentIndex).key);
-        } while( linesWithIndentation.size()-1 > currentIndex && linesWithIndentation.get(currentIndex).isText);
-        return groupedValue.toString();
+    /**
+     * Flattens the document read from {@code reader} into dotted keys. Block sequences are kept whole as lists under
+     * the key that opens them. The documents of a {@code ---} separated stream are merged, later keys winning; use
+     * {@link #parseDocuments(Reader)} to read them one by one. The reader is consumed but not closed.
+     *
+     * <p>The time spent scanning lines into events and building the map from them is recorded in
+     * {@link MetricsRegistry#global()} as {@code yaml_parse_phase_seconds}, and as a {@code com.vanilla.YamlParse}
+     * Flight Recorder event.
+     */
+    public Map<String, Object> parseYaml(Reader reader) throws IOException {
+        YamlParseEvent parseEvent = new YamlParseEvent();
+        parseEvent.begin();
+        long start = System.nanoTime();
+        Map<String, Object> map = new HashMap<>();
+        long scan = parseYaml(reader, map, new Anchors());
+        long elapsed = System.nanoTime() - start;
+        SEQUENTIAL.record(elapsed);
+        SCAN.record(scan);
+        BUILD.record(elapsed - scan);
+        if (parseEvent.shouldCommit()) {
+            parseEvent.mode = "sequential";
+            parseEvent.entries = map.size();
+            parseEvent.chunks = 1;
+            parseEvent.scanTime = scan;
+            parseEvent.buildTime = elapsed - scan;
+            parseEvent.commit();
+        }
+        return map;
     }
 
-    private static String extractCompleteKey(
-            Map<String, Map<String, Object>> aliasKeysReference, List<LineWithIdentation> lineWithIdentations,
-            Integer currentIdent, Integer k, Map<String, List<String>> aliasKeys) {
-        String completeKey = "";
+    /**
+     * Flattens a document, or a run of its top-level blocks, into {@code map}, resolving aliases against and
+     * recording definitions into {@code anchors}.
+     *
+     * @return the nanoseconds spent reading events, the rest of the call being spent on building the map
+     */
+    long parseYaml(Reader reader, Map<String, Object> map, Anchors anchors) throws IOException {
+        DocumentBuilder document = new DocumentBuilder(map, anchors);
+        long scan = 0;
+
+        YamlEventReader events = new YamlEventReader(reader);
+        YamlEvent[] batch = new YamlEvent[EVENT_BATCH];
+        int count;
         do {
-            LineWithIdentation line = lineWithIdentations.get(k);
-            int ident = line.indent;
-
-            if (ident < currentIdent) {
-                if (line.isAlias) {
-                    List<String> orDefault = aliasKeys.computeIfAbsent(
-                            line.aliasKey, k1 -> new ArrayList<>());
-                    orDefault.add(completeKey + "$");
-                }
-                currentIdent = ident;
-                completeKey = line.key + (completeKey.isBlank() ? "" : "." + completeKey);
+            long scanStart = System.nanoTime();
+            for (count = 0; count < EVENT_BATCH && events.hasNext(); count++) {
+                batch[count] = events.next();
             }
-            //TODO extrair
-            if (line.rowAlias) {
-                aliasKeysReference.put(line.aliasKey, Map.of(line.aliasKey, line.value));
+            scan += System.nanoTime() - scanStart;
+            for (int i = 0; i < count; i++) {
+                document.accept(batch[i]);
             }
+        } while (count == EVENT_BATCH);
+        return scan;
+    }
+
+    public Iterator<Map<String, Object>> parseDocuments(String yamlString) {
+        return parseDocuments(new StringReader(yamlString));
+    }
+
+    /**
+     * Flattens the documents of a {@code ---} separated stream one at a time, each as {@link #parseYaml(Reader)}
+     * would with its own anchors. A document is only read once the iterator is advanced to it, and documents
+     * without any content are skipped. The reader is consumed but not closed; read errors are thrown as
+     * {@link UncheckedIOException}.
+     */
+    public Iterator<Map<String, Object>> parseDocuments(Reader reader) {
+        YamlEventReader events = new YamlEventReader(reader);
+        return new Iterator<>() {
+            private Map<String, Object> next;
 
-            k--;
-        } while (k >= 0);
-        return completeKey;
-    }
-
-    private static class LineWithIdentation {
-        int indent;
-        String key;
-        String aliasKey;
-        String value;
-        Boolean isAlias = false;
-        Boolean rowAlias = false;
-        Boolean isText;
-
-        public LineWithIdentation(String value) {
-            this.indent = (int) (value.chars().takeWhile(p -> p == ' ').count() / 2);
-            String[] split = value.trim().split(":", 2);
-            this.key = split[0];
-            if (split.length > 1) {
-                String trimmedValue = split[1].trim();
-                boolean startWithAlias = trimmedValue.startsWith("&");
-                if (startWithAlias) {
-                    this.rowAlias = trimmedValue.split(" ").length > 1;
-                    this.isAlias = !this.rowAlias;
-                    this.aliasKey = trimmedValue.substring(1, trimmedValue.split(" ")[0].length());
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    next = readDocument(events);
                 }
-                this.value = trimmedValue.substring(isAlias || rowAlias ? trimmedValue.split(" ")[0].length() : 0).trim();
+                return next != null;
             }
-            this.isText = !value.contains(":");
-        }
 
-        public boolean hasValue() {
-            return Objects.nonNull(value);
+            @Override
+            public Map<String, Object> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Map<String, Object> document = next;
+                next = null;
+                return document;
+            }
+        };
+    }
+
+    /**
+     * @return the next document of {@code events}, or {@code null} once they are exhausted
+     */
+    private Map<String, Object> readDocument(YamlEventReader events) {
+        try {
+            if (!events.hasNext()) {
+                return null;
+            }
+            Map<String, Object> map = new HashMap<>();
+            DocumentBuilder document = new DocumentBuilder(map, new Anchors());
+            while (events.hasNext() && !document.accept(events.next())) {
+                // the document ends at its END_DOCUMENT event or with the stream
+            }
+            return map;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
-    String regex = "\\$\\{([^:}]+)(?::([^}]*))?}";
+    public YamlNode parseTree(String yamlString) {
+        try {
+            return parseTree(new StringReader(yamlString));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
+    /**
+     * Parses the document into a tree of interned key segments in which merged anchors are shared, not copied.
+     * {@link YamlNode#flatten()} gives back what {@link #parseYaml(Reader)} returns, except that an anchor name
+     * defined twice refers to its last definition alone. The reader is consumed but not closed.
+     */
+    public YamlNode parseTree(Reader reader) throws IOException {
+        return new YamlTreeBuilder(this::parseValue).build(reader);
+    }
 
-    private Object parseValue(String valueString) {
-        valueString = valueString.split("#")[0];
+    /**
+     * Parses the top-level blocks of {@code yamlString} on the common {@link ForkJoinPool}.
+     *
+     * @see #parseYamlParallel(String, ForkJoinPool)
+     */
+    public Map<String, Object> parseYamlParallel(String yamlString) {
+        return parseYamlParallel(yamlString, ForkJoinPool.commonPool());
+    }
 
-        Matcher matcher = Pattern.compile(regex).matcher(valueString);
-        valueString = getValueFromProperties(valueString, matcher);
-        if (valueString.equalsIgnoreCase("null")) {
-            return null;
+    /**
+     * Gives the same result as {@link #parseYaml(String)}, parsing runs of top-level blocks on {@code pool}. Every
+     * chunk is parsed without the anchors of the chunks before it; a final pass, in document order, parses again
+     * the few chunks whose aliases resolved differently, or that could not be parsed on their own, then merges the
+     * chunks so later keys still win. Documents too small to split, or a pool with a single worker, are parsed
+     * sequentially.
+     *
+     * <p>The split, chunk and merge phases are recorded as {@code yaml_parse_phase_seconds}, as for
+     * {@link #parseYaml(Reader)}.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> parseYamlParallel(String yamlString, ForkJoinPool pool) {
+        int chunkSize = Math.max(MIN_PARALLEL_CHUNK, yamlString.length() / (pool.getParallelism() * 4));
+        if (pool.getParallelism() == 1 || yamlString.length() < 2 * chunkSize) {
+            return parseYaml(yamlString);
         }
-        if (valueString.equalsIgnoreCase("true")) {
-            return true;
+        YamlParseEvent parseEvent = new YamlParseEvent();
+        parseEvent.begin();
+        long started = System.nanoTime();
+        List<String> chunks = new ArrayList<>();
+        int start = 0;
+        while (start < yamlString.length()) {
+            int end = nextTopLevelLine(yamlString, Math.min(yamlString.length(), start + chunkSize));
+            chunks.add(yamlString.substring(start, end));
+            start = end;
         }
-        if (valueString.equalsIgnoreCase("false")) {
-            return false;
+
+        long split = System.nanoTime();
+        Anchors unresolved = new Anchors();
+        @SuppressWarnings("rawtypes")
+        Map<String, Object>[] maps = new Map[chunks.size()];
+        Anchors[] chunkAnchors = new Anchors[chunks.size()];
+        pool.invoke(new ChunkTask(chunks, 0, chunks.size(), unresolved, maps, chunkAnchors));
+        long parsed = System.nanoTime();
+
+        Anchors anchors = new Anchors();
+        int size = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            if (maps[i] == null || !chunkAnchors[i].readsSameAs(anchors)) {
+                maps[i] = new HashMap<>();
+                chunkAnchors[i] = new Anchors(anchors);
+                parseChunk(chunks.get(i), maps[i], chunkAnchors[i]);
+            }
+            anchors.putAll(chunkAnchors[i]);
+            size += maps[i].size();
         }
-        if (valueString.matches("-?\\d+")) {
-            return Integer.parseInt(valueString);
+        Map<String, Object> map = new HashMap<>(Math.max(16, size * 4 / 3 + 1));
+        for (Map<String, Object> chunkMap : maps) {
+            map.putAll(chunkMap);
         }
-        if (valueString.matches("-?\\d+\\.\\d+")) {
-            return Double.parseDouble(valueString);
+        long end = System.nanoTime();
+        PARALLEL.record(end - started);
+        SPLIT.record(split - started);
+        CHUNKS.record(parsed - split);
+        MERGE.record(end - parsed);
+        if (parseEvent.shouldCommit()) {
+            parseEvent.mode = "parallel";
+            parseEvent.entries = map.size();
+            parseEvent.chunks = chunks.size();
+            parseEvent.commit();
         }
-        if ((valueString.startsWith("'") && valueString.endsWith("'")) ||
-                (valueString.startsWith("\"") && valueString.endsWith("\""))) {
-            return valueString.substring(1, valueString.length() - 1);
+        return map;
+    }
+
+    private static Histogram phase(String name) {
+        return MetricsRegistry.global().timer("yaml_parse_phase_seconds", "phase", name);
+    }
+
+    /**
+     * Cuts a document before every line that starts a top-level key; blank and comment lines, and the items of a
+     * sequence written at indent 0, stay with the block above them.
+     */
+    static List<String> splitTopLevel(String document) {
+        List<String> blocks = new ArrayList<>();
+        int start = 0;
+        for (int end = nextTopLevelLine(document, 1); start < document.length(); end = nextTopLevelLine(document,
+                end + 1)) {
+            blocks.add(document.substring(start, end));
+            start = end;
         }
-        if (valueString.startsWith("{") && valueString.endsWith("}")) {
-            return parseMap(valueString);
+        return blocks;
+    }
+
+    /**
+     * @return the offset of the first line at or after {@code from} that starts a top-level key, or the length of
+     *         the document
+     */
+    private static int nextTopLevelLine(String document, int from) {
+        for (int newline = document.indexOf('\n', from - 1); newline >= 0 && newline + 1 < document.length();
+                newline = document.indexOf('\n', newline + 1)) {
+            char first = document.charAt(newline + 1);
+            if (first != ' ' && first != '\t' && first != '\r' && first != '\n' && first != '#'
+                    && !(first == '-' && isItemDash(document, newline + 2))) {
+                return newline + 1;
+            }
         }
-        if (valueString.startsWith("[") & valueString.endsWith("]")) {
-            return parseList(valueString);
+        return document.length();
+    }
+
+    /**
+     * @return whether the {@code -} before {@code next} is the dash of a sequence item rather than part of a key
+     */
+    private static boolean isItemDash(String document, int next) {
+        if (next >= document.length()) {
+            return true;
         }
-        if (valueString.startsWith("!!")) {
+        char c = document.charAt(next);
+        return c == ' ' || c == '\r' || c == '\n';
+    }
 
-            return parceSplitTyping(valueString);
+    private void parseChunk(String chunk, Map<String, Object> map, Anchors anchors) {
+        try {
+            parseYaml(new StringReader(chunk), map, anchors);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return valueString.trim();
     }
 
-    private String getValueFromProperties(String valueString, Matcher matcher) {
-        StringBuffer result = new StringBuffer();
+    /**
+     * Parses the chunks in {@code [from, to)}, halving the range until one chunk is left. A chunk that fails, e.g. on
+     * an alias whose anchor is in an earlier chunk, is left {@code null} for the final pass.
+     */
+    private final class ChunkTask extends RecursiveAction {
 
-        while (matcher.find()) {
-            String envVarName = matcher.group(1);
-            String defaultValue = matcher.group(2);
+        private static final long serialVersionUID = 1L;
 
-            String envVarValue = System.getProperty(envVarName);
-            String replacement = (envVarValue != null) ? envVarValue : defaultValue;
-            matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
+        private final List<String> chunks;
+        private final int from;
+        private final int to;
+        private final Anchors unresolved;
+        private final Map<String, Object>[] maps;
+        private final Anchors[] anchors;
+
+        ChunkTask(List<String> chunks, int from, int to, Anchors unresolved, Map<String, Object>[] maps,
+                Anchors[] anchors) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+            this.unresolved = unresolved;
+            this.maps = maps;
+            this.anchors = anchors;
         }
-        matcher.appendTail(result);
 
-        return result.toString();
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ChunkTask(chunks, from, middle, unresolved, maps, anchors),
+                        new ChunkTask(chunks, middle, to, unresolved, maps, anchors));
+                return;
+            }
+            Map<String, Object> map = new HashMap<>();
+            Anchors chunkAnchors = new Anchors(unresolved);
+            try {
+                parseChunk(chunks.get(from), map, chunkAnchors);
+            } catch (RuntimeException e) {
+                return;
+            }
+            maps[from] = map;
+            anchors[from] = chunkAnchors;
+        }
     }
 
-    private Object parceSplitTyping(String valueString) {
-        if (valueString.startsWith("!!")) {
-            return parceSplitTyping(valueString.substring(2));
+    private void handleScalar(Map<String, Object> map, Anchors anchors, KeyScope scope, YamlEvent event) {
+        if (event.block()) {
+            put(map, anchors, scope, event.path(), event.value());
+            return;
+        }
+        if (event.anchor() != null) {
+            anchors.defineScalar(event.anchor(), event.value());
         }
-        String[] s = valueString.split(" ");
-        if ("float".equals(s[0])) {
-            return Float.parseFloat(s[1]);
+        if ("<<".equals(event.key())) {
+            handleAliasedMerge(map, anchors, scope, event.value().trim().replace("*", ""));
+            return;
         }
-        if ("timestamp".equals(s[0])) {
-            return LocalDateTime.parse(s[1]);
+        Object value = parseValue(event.value().trim());
+        if (String.valueOf(value).startsWith("*")) {
+            String aliasKey = String.valueOf(value).replace("*", "");
+            Map<String, Object> block = anchors.block(aliasKey);
+            if (block != null) {
+                block.forEach((a, b) -> put(map, anchors, scope, event.path() + "." + a, b));
+            } else {
+                put(map, anchors, scope, event.path(), parseValue(anchors.scalar(aliasKey)));
+            }
+        } else {
+            put(map, anchors, scope, event.path(), value);
         }
-        return valueString;
     }
 
-    private List<Object> parseList(String valueString) {
-        if (valueString.startsWith("[") && valueString.endsWith("]")) {
-            return parseList(valueString.substring(1, valueString.length() - 1));
+    /**
+     * Stores a flattened entry and records it, relative to the anchored block, under every enclosing {@code &anchor}
+     * so later {@code *alias} and {@code <<: *alias} references can replay it.
+     */
+    private static void put(Map<String, Object> map, Anchors anchors, KeyScope scope, String key, Object value) {
+        map.put(key, value);
+        for (KeyScope anchored = scope == null ? null : scope.anchorScope; anchored != null;
+                anchored = anchored.parent == null ? null : anchored.parent.anchorScope) {
+            anchors.addToBlock(anchored.anchor, key.substring(anchored.path.length() + 1), value);
         }
-        return Stream.of(valueString.split(",")).map(String::trim).map(this::parseValue).collect(
-                Collectors.toList());
     }
 
-    public Map<String, Object> parseMap(String input) {
-        return parseMapHelper(input, new HashMap<>());
+    private static void handleAliasedMerge(Map<String, Object> map, Anchors anchors, KeyScope scope,
+            String aliasKey) {
+        Map<String, Object> block = anchors.block(aliasKey);
+        if (block != null) {
+            block.forEach((a, b) -> put(map, anchors, scope, scope == null ? a : scope.path + "." + a, b));
+        }
     }
 
-    private Map<String, Object> parseMapHelper(String input, Map<String, Object> map) {
-        if (input == null || input.isEmpty() || input.isBlank()) {
-            return map;
+    /**
+     * Flattens the events of one document into a map, resolving aliases against and recording definitions into
+     * its anchors. Events between the start and the end of a block sequence go to a {@link SequenceBuilder}.
+     */
+    private final class DocumentBuilder {
+        private final Map<String, Object> map;
+        private final Anchors anchors;
+        private KeyScope scope;
+        private SequenceBuilder sequence;
+
+        DocumentBuilder(Map<String, Object> map, Anchors anchors) {
+            this.map = map;
+            this.anchors = anchors;
+        }
+
+        /**
+         * @return whether {@code event} ended the document
+         */
+        boolean accept(YamlEvent event) {
+            if (sequence != null) {
+                List<Object> list = sequence.accept(event);
+                if (list != null) {
+                    put(map, anchors, scope, sequence.path(), list);
+                    sequence = null;
+                }
+                return false;
+            }
+            switch (event.type()) {
+                case START_MAP -> scope = new KeyScope(scope, event.path(), event.anchor());
+                case END_MAP -> scope = scope.parent;
+                case START_SEQUENCE -> sequence = new SequenceBuilder(event, YamlParser.this::parseValue);
+                case SCALAR -> handleScalar(map, anchors, scope, event);
+                case END_DOCUMENT -> {
+                    return true;
+                }
+                default -> {
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * One open map of the document: its dotted path, plus the nearest enclosing scope (itself included) that carries
+     * a block {@code &anchor}, so anchored entries are found without walking every ancestor.
+     */
+    private static class KeyScope {
+        final KeyScope parent;
+        final String path;
+        final String anchor;
+        final KeyScope anchorScope;
+
+        KeyScope(KeyScope parent, String path, String anchor) {
+            this.parent = parent;
+            this.path = path;
+            this.anchor = anchor;
+            this.anchorScope = anchor != null ? this : parent == null ? null : parent.anchorScope;
+        }
+    }
+
+    private Object parseValue(String valueString) {
+        return scalarResolver.resolve(valueString);
+    }
+
+    private Object parseFlowCollection(String valueString) {
+        return flowParser.parse(valueString);
+    }
+
+    /**
+     * Parses a flow map, with or without its braces.
+     *
+     * @throws IllegalArgumentException if {@code input} is not a well-formed flow map
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> parseMap(String input) {
+        if (input == null || input.isBlank()) {
+            return new HashMap<>();
         }
         input = input.trim();
-        if (input.charAt(0) == '{' && input.charAt(input.length() - 1) == '}') {
-            input = input.substring(1, input.length() - 1);
-        }
-        String[] splitComma = input.split(",", 2);
-        String[] split = splitComma[0].split(":", 2);
-        String key = split[0].trim();
-        String value = split.length > 1 ? split[1].trim() : "";
-        if (value.startsWith("{")) {
-            int indexOCurly = input.indexOf("{");
-            int indexCCurly = input.indexOf("}");
-            Map<String, Object> nestedMap = new HashMap<>();
-            parseMapHelper(input.substring(indexOCurly, indexCCurly+1), nestedMap);
-            map.put(key, nestedMap);
-            return parseMapHelper(input.substring(indexCCurly + 1), map);
-        } else {
-            map.put(key, parseValue(value));
+        Object map = flowParser.parse(input.charAt(0) == '{' ? input : "{" + input + "}");
+        if (!(map instanceof Map)) {
+            throw new IllegalArgumentException("Not a flow map: " + input);
         }
-        return splitComma.length > 1 ? parseMapHelper(splitComma[1], map) : map;
+        return (Map<String, Object>) map;
     }
 }
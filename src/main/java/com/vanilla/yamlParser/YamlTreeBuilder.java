@@ -0,0 +1,93 @@
+package com.vanilla.yamlParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Builds a {@link YamlNode} tree from the events of a document, following the same rules as
+ * {@link YamlParser#parseYaml(Reader)}. Key segments are interned per document, so a key repeated in every block,
+ * such as {@code port}, is one string however many times it appears.
+ */
+final class YamlTreeBuilder {
+
+    private final Function<String, Object> scalars;
+    private final Map<String, String> segments = new HashMap<>();
+    private final Map<String, String> scalarAnchors = new HashMap<>();
+    private final Map<String, YamlNode> blockAnchors = new HashMap<>();
+    private final Deque<YamlNode> open = new ArrayDeque<>();
+
+    YamlTreeBuilder(Function<String, Object> scalars) {
+        this.scalars = scalars;
+    }
+
+    YamlNode build(Reader reader) throws IOException {
+        YamlNode root = new YamlNode();
+        open.push(root);
+        YamlEventReader events = new YamlEventReader(reader);
+        SequenceBuilder sequence = null;
+        while (events.hasNext()) {
+            YamlEvent event = events.next();
+            if (sequence != null) {
+                List<Object> list = sequence.accept(event);
+                if (list != null) {
+                    open.peek().childForWrite(intern(sequence.key())).setValue(list);
+                    sequence = null;
+                }
+                continue;
+            }
+            switch (event.type()) {
+                case START_MAP -> {
+                    YamlNode node = open.peek().childForWrite(intern(event.key()));
+                    if (event.anchor() != null) {
+                        blockAnchors.put(event.anchor(), node);
+                    }
+                    open.push(node);
+                }
+                case END_MAP -> open.pop();
+                case START_SEQUENCE -> sequence = new SequenceBuilder(event, scalars);
+                case SCALAR -> handleScalar(open.peek(), event);
+                default -> {
+                }
+            }
+        }
+        return root;
+    }
+
+    private void handleScalar(YamlNode parent, YamlEvent event) {
+        if (event.block()) {
+            parent.childForWrite(intern(event.key())).setValue(event.value());
+            return;
+        }
+        if (event.anchor() != null) {
+            scalarAnchors.put(event.anchor(), event.value());
+        }
+        if ("<<".equals(event.key())) {
+            parent.merge(blockAnchors.get(event.value().trim().replace("*", "")));
+            return;
+        }
+        Object value = scalars.apply(event.value().trim());
+        YamlNode node = parent.childForWrite(intern(event.key()));
+        if (String.valueOf(value).startsWith("*")) {
+            String aliasKey = String.valueOf(value).replace("*", "");
+            YamlNode anchored = blockAnchors.get(aliasKey);
+            if (anchored != null) {
+                node.merge(anchored);
+            } else {
+                node.setValue(scalars.apply(scalarAnchors.get(aliasKey)));
+            }
+        } else {
+            node.setValue(value);
+        }
+    }
+
+    private String intern(String segment) {
+        String interned = segments.putIfAbsent(segment, segment);
+        return interned == null ? segment : interned;
+    }
+}
@@ -0,0 +1,290 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import com.vanilla.config.Config;
+import com.vanilla.httpServer.ApplicationHttpServer;
+import com.vanilla.httpServer.ApplicationTcpServer;
+import com.vanilla.httpServer.HttpServerSettings;
+import com.vanilla.httpServer.admission.AdmissionController;
+import com.vanilla.httpServer.admission.AdmissionSettings;
+import com.vanilla.httpServer.admission.ConcurrencyLimiter;
+import com.vanilla.httpServer.nio.NioHttpServer;
+import com.vanilla.httpServer.routing.Router;
+import com.vanilla.metrics.Counter;
+import com.vanilla.metrics.MetricsRegistry;
+import com.vanilla.yamlParser.YamlParser;
+
+public class AdmissionTest {
+
+    public static void main(String[] args) {
+        // one at a time: the overload test measures latency, which other tests running alongside would skew
+        TestRunner.runAndExit(new AdmissionTest(new YamlParser()), 1);
+    }
+
+    private final YamlParser yamlParser;
+
+    private AdmissionTest(YamlParser yamlParser) {
+        this.yamlParser = yamlParser;
+    }
+
+    private static ConcurrencyLimiter limiter(AdmissionSettings settings) {
+        MetricsRegistry registry = new MetricsRegistry();
+        return new ConcurrencyLimiter(settings, registry.counter("full"), registry.counter("timeout"));
+    }
+
+    private static long percentile(List<Long> values, double quantile) {
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted.isEmpty() ? 0 : sorted.get((int) Math.ceil(quantile * sorted.size()) - 1);
+    }
+
+    /**
+     * Sends {@code count} requests at once and collects the latency of each, in milliseconds, by status.
+     */
+    private static List<List<Long>> burst(int port, int count) {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/slow")).build();
+        List<CompletableFuture<long[]>> responses = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long started = System.nanoTime();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).thenApply(response -> new long[] { response.statusCode(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) }));
+        }
+        List<Long> served = new ArrayList<>();
+        List<Long> rejected = new ArrayList<>();
+        for (CompletableFuture<long[]> response : responses) {
+            long[] result = response.join();
+            (result[0] == 200 ? served : rejected).add(result[1]);
+            assert result[0] == 200 || result[0] == 503 : "Unexpected status " + result[0];
+        }
+        return List.of(served, rejected);
+    }
+
+    private static String exchange(Socket socket) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        out.write("GET /users HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+        out.flush();
+        InputStream in = socket.getInputStream();
+        byte[] buffer = new byte[1024];
+        int read = in.read(buffer);
+        return read < 0 ? "" : new String(buffer, 0, read, StandardCharsets.ISO_8859_1);
+    }
+
+    @Test
+    void testLimiterQueuesInOrderAndTurnsAwayTheRest() throws InterruptedException {
+        MetricsRegistry registry = new MetricsRegistry();
+        Counter full = registry.counter("full");
+        Counter timedOut = registry.counter("timeout");
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(AdmissionSettings.limit(2, 1, 2_000), full, timedOut);
+        AtomicBoolean queuedAdmitted = new AtomicBoolean();
+
+        assert limiter.acquire() && limiter.acquire() : "Expected two requests to be admitted";
+        Thread queued = new Thread(() -> queuedAdmitted.set(limiter.acquire()));
+        queued.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (limiter.queued() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assert limiter.queued() == 1 : "Expected the request to be queued, but got " + limiter.queued();
+
+        assert !limiter.acquire() : "Expected a request beyond the queue to be turned away";
+        assert full.get() == 1 : "Expected '1' queue-full rejection, but got " + full.get();
+        limiter.release(0);
+        queued.join();
+
+        assert queuedAdmitted.get() : "Expected the queued request to be admitted once a slot freed up";
+        assert limiter.inFlight() == 2 : "Expected '2', but got " + limiter.inFlight();
+
+        ConcurrencyLimiter noWait = limiter(AdmissionSettings.limit(1, 1, 20));
+        assert noWait.acquire() : "Expected the first request to be admitted";
+        long started = System.nanoTime();
+        boolean admitted = noWait.acquire();
+        long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        assert !admitted && waited >= 19 : "Expected to be turned away after 20 ms, but waited " + waited + " ms, admitted " + admitted;
+    }
+
+    @Test
+    void testAdaptiveLimitBacksOffAndRecovers() {
+        ConcurrencyLimiter limiter = limiter(AdmissionSettings.limit(20, 0, 0).withAdaptiveLimit(10));
+        long slow = TimeUnit.MILLISECONDS.toNanos(50);
+        long fast = TimeUnit.MILLISECONDS.toNanos(1);
+
+        for (int round = 0; round < 6; round++) {
+            int limit = limiter.limit();
+            for (int i = 0; i < limit; i++) {
+                limiter.acquire();
+            }
+            for (int i = 0; i < limit; i++) {
+                limiter.release(slow);
+            }
+        }
+        int backedOff = limiter.limit();
+        for (int round = 0; round < 200; round++) {
+            int limit = limiter.limit();
+            for (int i = 0; i < limit; i++) {
+                limiter.acquire();
+            }
+            for (int i = 0; i < limit; i++) {
+                limiter.release(fast);
+            }
+        }
+
+        assert backedOff <= 4 : "Expected six slow rounds to cut 20 to at most 4, but got " + backedOff;
+        assert limiter.limit() == 20 : "Expected fast requests to restore the limit of 20, but got " + limiter.limit();
+    }
+
+    @Test
+    void testOverloadKeepsLatencyBounded() throws IOException {
+        Semaphore database = new Semaphore(4);
+        HttpHandler slow = exchange -> {
+            database.acquireUninterruptibly();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                database.release();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        };
+        Router<HttpHandler> router = Router.<HttpHandler>builder().route("GET", "/slow", slow).build();
+        HttpServerSettings settings = HttpServerSettings.from(Config.of(yamlParser.parseYaml("""
+                app:
+                  http:
+                    backlog: 256
+                    executor: platform-pool
+                    pool-size: 128
+                """)));
+        HttpServer unlimited = ApplicationHttpServer.start(new InetSocketAddress(0), settings, router);
+        HttpServer limited = ApplicationHttpServer.start(new InetSocketAddress(0), settings, router,
+                new AdmissionController(AdmissionSettings.UNLIMITED, MetricsRegistry.global(), "test")
+                        .limit("GET", "/slow", AdmissionSettings.limit(4, 8, 100)));
+        try {
+            burst(limited.getAddress().getPort(), 20);
+            List<List<Long>> queued = burst(unlimited.getAddress().getPort(), 120);
+            List<List<Long>> admitted = burst(limited.getAddress().getPort(), 120);
+
+            long queuedP99 = percentile(queued.get(0), 0.99);
+            long admittedP99 = percentile(admitted.get(0), 0.99);
+            assert queued.get(1).isEmpty() : "Expected no rejections without limits, but got " + queued.get(1).size();
+            assert !admitted.get(1).isEmpty() : "Expected the burst to be partly turned away";
+            assert admittedP99 * 2 < queuedP99 : "Expected admission to at least halve the p99 of " + queuedP99 + " ms, but got " + admittedP99 + " ms";
+            assert percentile(admitted.get(1), 0.99) < queuedP99 : "Expected rejections to answer before the queued p99 of " + queuedP99 + " ms";
+        } finally {
+            unlimited.stop(0);
+            limited.stop(0);
+        }
+    }
+
+    @Test
+    void testTurnsAwayConnectionsBeyondTheLimit() throws IOException, InterruptedException {
+        Config config = Config.of(yamlParser.parseYaml("""
+                app:
+                  admission:
+                    max-connections: 2
+                """));
+        try (NioHttpServer nio = ApplicationTcpServer.startNonBlocking(new InetSocketAddress(0), 1,
+                ApplicationTcpServer.router(config), AdmissionSettings.from(config))) {
+            Socket first = new Socket("localhost", nio.getPort());
+            try (Socket second = new Socket("localhost", nio.getPort())) {
+                assert exchange(first).startsWith("HTTP/1.1 200") && exchange(second).startsWith("HTTP/1.1 200") : "Expected the first two connections to be served";
+                try (Socket third = new Socket("localhost", nio.getPort())) {
+                    String response = exchange(third);
+
+                    assert response.startsWith("HTTP/1.1 503") && response.contains("Retry-After: 1") : "Expected a 503, but got " + response;
+                    assert third.getInputStream().read() < 0 : "Expected the turned away connection to be closed";
+                }
+                first.close();
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (nio.openConnections() > 1 && System.nanoTime() < deadline) {
+                    Thread.sleep(5);
+                }
+                try (Socket fourth = new Socket("localhost", nio.getPort())) {
+                    assert exchange(fourth).startsWith("HTTP/1.1 200") : "Expected a connection to be served once another closed";
+                }
+            }
+        }
+    }
+
+    private static Thread serveInBackground(ApplicationTcpServer server) {
+        Thread serving = new Thread(() -> {
+            try {
+                server.serve();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        serving.start();
+        return serving;
+    }
+
+    @Test
+    void testBlockingServerAnswersSilentClientsWith408() throws IOException, InterruptedException {
+        ApplicationTcpServer server = new ApplicationTcpServer(0, 200);
+        Thread serving = serveInBackground(server);
+        try {
+            try (Socket silent = new Socket("localhost", server.getPort())) {
+                byte[] buffer = new byte[1024];
+                int read = silent.getInputStream().read(buffer);
+                String response = read < 0 ? "" : new String(buffer, 0, read, StandardCharsets.ISO_8859_1);
+
+                assert response.startsWith("HTTP/1.1 408") : "Expected a 408, but got " + response;
+            }
+            try (Socket next = new Socket("localhost", server.getPort())) {
+                String response = exchange(next);
+
+                assert response.startsWith("HTTP/1.1 200") : "Expected the next client to be served, but got " + response;
+            }
+        } finally {
+            server.close();
+            serving.join(5_000);
+        }
+    }
+
+    @Test
+    void testBlockingServerKeepsServingAfterAReset() throws IOException, InterruptedException {
+        Counter failed = MetricsRegistry.global().counter("http_connection_errors_total", "server", "tcp");
+        ApplicationTcpServer server = new ApplicationTcpServer(0, 2_000);
+        Thread serving = serveInBackground(server);
+        try {
+            long failedBefore = failed.get();
+            try (Socket reset = new Socket("localhost", server.getPort())) {
+                reset.setSoLinger(true, 0);
+                reset.getOutputStream().write("GET /users HTTP/1.1\r\n".getBytes(StandardCharsets.ISO_8859_1));
+                reset.getOutputStream().flush();
+                Thread.sleep(50);
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (failed.get() == failedBefore && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assert failed.get() == failedBefore + 1 : "Expected the reset connection to be counted, but got " + (failed.get() - failedBefore);
+            assert serving.isAlive() : "Expected the accept loop to survive the reset";
+            try (Socket next = new Socket("localhost", server.getPort())) {
+                String response = exchange(next);
+
+                assert response.startsWith("HTTP/1.1 200") : "Expected the next client to be served, but got " + response;
+            }
+        } finally {
+            server.close();
+            serving.join(5_000);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import com.sun.net.httpserver.HttpServer;
+import com.vanilla.config.Config;
+import com.vanilla.httpServer.ApplicationHttpServer;
+import com.vanilla.httpServer.ApplicationTcpServer;
+import com.vanilla.httpServer.HttpServerSettings;
+import com.vanilla.httpServer.admission.AdmissionSettings;
+import com.vanilla.httpServer.compression.CompressionSettings;
+import com.vanilla.httpServer.compression.Compressor;
+import com.vanilla.httpServer.compression.ContentCoding;
+import com.vanilla.httpServer.compression.Precompressed;
+import com.vanilla.httpServer.nio.NioHttpServer;
+import com.vanilla.json.JsonOutput;
+import com.vanilla.yamlParser.YamlParser;
+
+public class CompressionTest {
+
+    public static void main(String[] args) {
+        TestRunner.runAndExit(new CompressionTest(new YamlParser()));
+    }
+
+    private final YamlParser yamlParser;
+
+    private CompressionTest(YamlParser yamlParser) {
+        this.yamlParser = yamlParser;
+    }
+
+    private static byte[] decompress(String coding, byte[] body) throws IOException {
+        InputStream in = new ByteArrayInputStream(body);
+        try (InputStream decoded = switch (coding) {
+            case "gzip" -> new GZIPInputStream(in);
+            case "deflate" -> new InflaterInputStream(in);
+            default -> in;
+        }) {
+            return decoded.readAllBytes();
+        }
+    }
+
+    private static HttpResponse<byte[]> get(HttpClient client, int port, String path, String acceptEncoding)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+        if (acceptEncoding != null) {
+            request.header("Accept-Encoding", acceptEncoding);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static byte[] sample(int records) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < records; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"name\":\"user-").append(i)
+                    .append("\",\"active\":").append(i % 3 == 0).append('}');
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testNegotiatesTheBestAcceptedCoding() {
+        assert ContentCoding.negotiate(null) == ContentCoding.IDENTITY : "Expected identity without the header";
+        assert ContentCoding.negotiate("gzip, deflate, br") == ContentCoding.GZIP : "Expected gzip on a tie";
+        assert ContentCoding.negotiate("gzip;q=0.5, deflate") == ContentCoding.DEFLATE : "Expected the higher q value";
+        assert ContentCoding.negotiate("DEFLATE ; Q=0.9 , gzip ; q=0") == ContentCoding.DEFLATE : "Expected gzip;q=0 to be excluded";
+        assert ContentCoding.negotiate("*;q=0.1, gzip;q=0") == ContentCoding.DEFLATE : "Expected the wildcard to stand for deflate";
+        assert ContentCoding.negotiate("br, identity") == ContentCoding.IDENTITY : "Expected identity for unknown codings";
+        assert ContentCoding.negotiate("x-gzip") == ContentCoding.GZIP : "Expected x-gzip as gzip";
+        assert ContentCoding.negotiate("gzip;q=abc") == ContentCoding.IDENTITY : "Expected an invalid q value to exclude gzip";
+        assert CompressionSettings.DISABLED.negotiate("gzip") == ContentCoding.IDENTITY : "Expected identity while disabled";
+    }
+
+    @Test
+    void testCompressesStreamsAcrossBuffers() throws IOException {
+        byte[] body = sample(5_000);
+        for (ContentCoding coding : List.of(ContentCoding.GZIP, ContentCoding.DEFLATE)) {
+            List<Integer> writes = new ArrayList<>();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            Compressor compressor = new Compressor(new JsonOutput() {
+                @Override
+                public void write(byte[] buffer, int length) {
+                    writes.add(length);
+                    compressed.write(buffer, 0, length);
+                }
+
+                @Override
+                public void close(byte[] buffer, int length) {
+                    compressed.write(buffer, 0, length);
+                }
+            }, coding, 6);
+            for (int offset = 0; offset < body.length; offset += 8192) {
+                int length = Math.min(8192, body.length - offset);
+                if (offset + length < body.length) {
+                    compressor.write(Arrays.copyOfRange(body, offset, offset + length), length);
+                } else {
+                    compressor.close(Arrays.copyOfRange(body, offset, offset + length), length);
+                }
+            }
+            byte[] oneShot = Compressor.compress(body, coding, 6);
+
+            assert Arrays.equals(body, decompress(coding.token(), compressed.toByteArray())) : "Expected the " + coding + " stream to round-trip";
+            assert Arrays.equals(compressed.toByteArray(), oneShot) : "Expected a pooled deflater to compress like a fresh one";
+            assert compressed.size() * 5 < body.length : "Expected at least 5:1 on repetitive JSON, but got " + compressed.size() + " of " + body.length;
+            assert writes.stream().allMatch(length -> length == 8192) : "Expected full buffers before the close, but got " + writes;
+        }
+        assert Arrays.equals(new byte[0], decompress("gzip", Compressor.compress(new byte[0], ContentCoding.GZIP, 1))) : "Expected an empty body to round-trip";
+    }
+
+    @Test
+    void testKeepsCompressedFormsOnlyWhenTheyPayOff() {
+        CompressionSettings settings = CompressionSettings.DEFAULT;
+        Precompressed large = Precompressed.of(sample(200));
+        Precompressed small = Precompressed.of("{\"name\": \"John\"}".getBytes(StandardCharsets.UTF_8));
+        byte[] random = new byte[4096];
+        new Random(7).nextBytes(random);
+
+        assert large.body(ContentCoding.GZIP, settings) == large.body(ContentCoding.GZIP, settings) : "Expected the gzip form to be compressed once";
+        assert large.body(ContentCoding.IDENTITY, settings) == null : "Expected identity to send the body as it is";
+        assert small.body(ContentCoding.GZIP, settings) == null : "Expected bodies below the min-size to stay uncompressed";
+        assert Precompressed.of(random).body(ContentCoding.GZIP, settings) == null : "Expected incompressible bodies to stay uncompressed";
+        assert large.body(ContentCoding.GZIP, settings.withEnabled(false)) == null : "Expected nothing compressed while disabled";
+    }
+
+    @Test
+    void testServersNegotiateCompression() throws IOException, InterruptedException {
+        StringBuilder yaml = new StringBuilder("""
+                app:
+                  name: demo
+                  endpoint:
+                    GET:
+                      path: /catalog
+                      type:
+                        json:
+                          response:
+                """);
+        for (int i = 0; i < 100; i++) {
+            yaml.append("                item").append(i).append(": product number ").append(i).append('\n');
+        }
+        yaml.append("big:\n");
+        for (int i = 0; i < 2_000; i++) {
+            yaml.append("  key").append(i).append(": value ").append(i).append('\n');
+        }
+        Config config = Config.of(yamlParser.parseYaml(yaml.toString()));
+        HttpServer http = ApplicationHttpServer.start(new InetSocketAddress(0), HttpServerSettings.DEFAULT,
+                ApplicationHttpServer.router(config));
+        HttpClient client = HttpClient.newHttpClient();
+        try (NioHttpServer nio = ApplicationTcpServer.startNonBlocking(new InetSocketAddress(0), 1,
+                ApplicationTcpServer.router(config));
+                NioHttpServer plain = ApplicationTcpServer.startNonBlocking(new InetSocketAddress(0), 1,
+                        ApplicationTcpServer.router(config), AdmissionSettings.UNLIMITED, CompressionSettings.DISABLED)) {
+            for (int port : new int[] { http.getAddress().getPort(), nio.getPort() }) {
+                for (String path : new String[] { "/catalog", "/config/big", "/config/app", "/users" }) {
+                    byte[] identity = get(client, port, path, null).body();
+                    for (String coding : new String[] { "gzip", "deflate" }) {
+                        HttpResponse<byte[]> response = get(client, port, path, coding + ", identity;q=0.5");
+                        String encoding = response.headers().firstValue("content-encoding").orElse("identity");
+                        boolean large = identity.length >= 1024;
+
+                        assert Arrays.equals(identity, decompress(encoding, response.body())) : "Expected the same " + path + " in " + encoding + " on port " + port;
+                        assert encoding.equals(large ? coding : "identity") : "Expected " + path + " of " + identity.length + " bytes in " + (large ? coding : "identity") + ", but got " + encoding + " on port " + port;
+                        assert response.headers().firstValue("vary").isPresent() == large : "Expected Vary only on compressible " + path + " on port " + port;
+                        assert !large || response.body().length * 3 < identity.length : "Expected " + path + " to shrink, but got " + response.body().length + " of " + identity.length;
+                    }
+                }
+                HttpResponse<byte[]> streamed = get(client, port, "/config/big", "gzip");
+                assert streamed.headers().firstValue("transfer-encoding").orElse("").equals("chunked") : "Expected the large dump to be compressed as a stream on port " + port;
+                HttpResponse<byte[]> cached = get(client, port, "/catalog", "gzip");
+                assert cached.statusCode() == 200 : "Expected '200', but got " + cached.statusCode();
+                assert cached.headers().firstValue("content-length").isPresent() : "Expected the static body precompressed, with a length, on port " + port;
+            }
+            HttpResponse<byte[]> disabled = get(client, plain.getPort(), "/config/big", "gzip");
+            assert disabled.headers().firstValue("content-encoding").isEmpty() : "Expected no compression while disabled";
+        } finally {
+            http.stop(0);
+        }
+    }
+}
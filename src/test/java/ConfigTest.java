@@ -0,0 +1,372 @@
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.vanilla.config.Config;
+import com.vanilla.config.ConfigChange;
+import com.vanilla.config.ConfigWatcher;
+import com.vanilla.config.MappedConfig;
+import com.vanilla.yamlParser.factory.Tuple;
+import com.vanilla.yamlParser.YamlParser;
+
+public class ConfigTest {
+
+    public static void main(String[] args) {
+        TestRunner.runAndExit(new ConfigTest(new YamlParser()));
+    }
+
+    private final YamlParser yamlParser;
+
+    private ConfigTest(YamlParser yamlParser) {
+        this.yamlParser = yamlParser;
+    }
+
+    private Config parse(String value) {
+        return Config.of(yamlParser.parseYaml(value));
+    }
+
+    @Test
+    void testPrimitiveAccessors() {
+        Config config = parse("""
+                server:
+                  port: 8080
+                  timeout: 9223372036854775807
+                  ratio: 0.75
+                  secure: true
+                  name: main
+                """);
+
+        assert config.getInt("server.port") == 8080 : "Expected '8080', but got " + config.getInt("server.port");
+        assert config.getLong("server.timeout") == Long.MAX_VALUE : "Expected '" + Long.MAX_VALUE + "', but got " + config.getLong("server.timeout");
+        assert config.getDouble("server.ratio") == 0.75 : "Expected '0.75', but got " + config.getDouble("server.ratio");
+        assert config.getDouble("server.port") == 8080.0 : "Expected '8080.0', but got " + config.getDouble("server.port");
+        assert config.getBoolean("server.secure") : "Expected 'true', but got " + config.getBoolean("server.secure");
+        assert "main".equals(config.getString("server.name")) : "Expected 'main', but got " + config.getString("server.name");
+        assert config.getInt("server.missing", 42) == 42 : "Expected '42', but got " + config.getInt("server.missing", 42);
+    }
+
+    @Test
+    void testMissingAndMismatchedValues() {
+        Config config = parse("""
+                name: main
+                """);
+
+        boolean missing = false;
+        try {
+            config.getInt("port");
+        } catch (NoSuchElementException e) {
+            missing = true;
+        }
+        boolean mismatched = false;
+        try {
+            config.getBoolean("name");
+        } catch (IllegalArgumentException e) {
+            mismatched = true;
+        }
+
+        assert missing : "Expected NoSuchElementException for a missing key";
+        assert mismatched : "Expected IllegalArgumentException for a non boolean value";
+    }
+
+    @Test
+    void testSubtreeViews() {
+        Config config = parse("""
+                app:
+                  endpoint:
+                    GET:
+                      path: /users
+                    POST:
+                      path: /orders
+                  endpointless: true
+                other: 1
+                """);
+
+        Config endpoint = config.subtree("app.endpoint");
+        List<String> keys = endpoint.keys();
+
+        assert List.of("GET.path", "POST.path").equals(keys) : "Expected '[GET.path, POST.path]', but got " + keys;
+        assert "/orders".equals(endpoint.subtree("POST").getString("path")) : "Expected '/orders', but got " + endpoint.subtree("POST").getString("path");
+        assert !endpoint.contains("endpointless") : "Expected the subtree to exclude 'app.endpointless'";
+        assert endpoint == config.subtree("app.endpoint") : "Expected the subtree view to be cached";
+        assert config.subtree("missing").isEmpty() : "Expected an empty subtree";
+    }
+
+    @Test
+    void testAsMap() {
+        Config config = Config.of(Map.of("b", 2, "a", 1));
+
+        assert Map.of("a", 1, "b", 2).equals(config.asMap()) : "Expected '{a=1, b=2}', but got " + config.asMap();
+        assert "{a=1, b=2}".equals(config.toString()) : "Expected sorted keys, but got " + config;
+    }
+
+    @Test
+    void testWatcherReportsChangesUnderPrefix() throws IOException {
+        Path file = Files.createTempFile("config", ".yml");
+        Files.writeString(file, "app:\n  http:\n    backlog: 128\n    executor: virtual\n  name: demo\n");
+        try (ConfigWatcher watcher = new ConfigWatcher(file, yamlParser)) {
+            List<ConfigChange> changes = new ArrayList<>();
+            watcher.subscribe("app.http", changes::add);
+
+            Files.writeString(file, "app:\n  http:\n    backlog: 256\n    pool-size: 8\n  name: other\n");
+            watcher.reload();
+
+            assert watcher.current().getInt("app.http.backlog") == 256 : "Expected the new snapshot to be current";
+            assert changes.size() == 1 : "Expected one change, but got " + changes;
+            ConfigChange change = changes.get(0);
+            assert List.of("app.http.pool-size").equals(change.added()) : "Unexpected added keys " + change.added();
+            assert List.of("app.http.executor").equals(change.removed()) : "Unexpected removed keys " + change.removed();
+            assert List.of("app.http.backlog").equals(change.modified()) : "Unexpected modified keys " + change.modified();
+            assert change.previous().getInt("app.http.backlog") == 128 : "Expected the previous snapshot to be kept";
+
+            Files.writeString(file, "app:\n  http:\n    backlog: 256\n    pool-size: 8\n  name: third\n");
+            watcher.reload();
+            assert changes.size() == 1 : "Expected no notification for changes outside the prefix";
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testWatcherPicksUpFileChanges() throws IOException, InterruptedException {
+        Path directory = Files.createTempDirectory("config");
+        Path file = directory.resolve("config.yml");
+        Files.writeString(file, "app:\n  server: 8080\n");
+        try (ConfigWatcher watcher = new ConfigWatcher(file, yamlParser).start()) {
+            BlockingQueue<ConfigChange> changes = new ArrayBlockingQueue<>(8);
+            watcher.subscribe("", changes::add);
+
+            Files.writeString(file, "app:\n  server: 9090\n");
+            ConfigChange change = changes.poll(10, TimeUnit.SECONDS);
+
+            assert change != null : "Expected the watcher to reload the file";
+            assert List.of("app.server").equals(change.modified()) : "Unexpected modified keys " + change.modified();
+            assert watcher.current().getInt("app.server") == 9090 : "Expected 9090, but got " + watcher.current();
+        } finally {
+            Files.deleteIfExists(file);
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    void testMappedSnapshotRoundTrip() throws IOException {
+        Map<String, Object> flattened = yamlParser.parseYaml("""
+                server:
+                  port: 8080
+                  big: 9999999999
+                  ratio: 0.75
+                  weight: !!float 1.5
+                  secure: true
+                  name: "vanilla"
+                  nothing: null
+                  started: !!timestamp 2024-01-02T03:04:05
+                  tags: [a, 1, true]
+                  limits: {cpu: 2, policy: strict}
+                  t\u00edtulo: a\u00e7\u00e3o
+                """);
+        Path snapshot = Files.createTempFile("config", ".snapshot");
+        try {
+            MappedConfig.write(flattened, MappedConfig.sourceHash(new byte[0]), snapshot);
+            MappedConfig config = MappedConfig.open(snapshot);
+
+            assert config.size() == flattened.size() : "Expected " + flattened.size() + " entries, but got " + config.size();
+            assert config.getInt("server.port") == 8080 : "Expected 8080, but got " + config.getInt("server.port");
+            assert config.getLong("server.big") == 9999999999L : "Expected 9999999999, but got " + config.getLong("server.big");
+            assert config.getDouble("server.ratio") == 0.75 : "Expected 0.75, but got " + config.getDouble("server.ratio");
+            assert config.getBoolean("server.secure") : "Expected true";
+            assert "a\u00e7\u00e3o".equals(config.getString("server.t\u00edtulo")) : "Expected 'a\u00e7\u00e3o', but got " + config.get("server.t\u00edtulo");
+            assert config.get("server.nothing") == null && config.contains("server.nothing") : "Expected an explicit null";
+            assert !config.contains("server.missing") : "Expected 'server.missing' to be absent";
+            assert config.getInt("server.missing", 7) == 7 : "Expected the default value";
+            assert Config.of(flattened).asMap().equals(config.toConfig().asMap()) : "Expected the decoded snapshot to match, but got " + config.toConfig();
+            assert config.keys().equals(Config.of(flattened).keys()) : "Expected sorted keys, but got " + config.keys();
+        } finally {
+            Files.delete(snapshot);
+        }
+    }
+
+    @Test
+    void testMappedSnapshotIsRewrittenWhenSourceChanges() throws IOException {
+        Path directory = Files.createTempDirectory("config");
+        Path yaml = directory.resolve("config.yml");
+        Path snapshot = directory.resolve("config.snapshot");
+        try {
+            Files.writeString(yaml, "app:\n  server: 8080\n");
+            MappedConfig first = MappedConfig.load(yaml, snapshot, yamlParser);
+            assert first.getInt("app.server") == 8080 : "Expected 8080, but got " + first.get("app.server");
+
+            Files.writeString(yaml, "app:\n  server: 9090\n");
+            MappedConfig second = MappedConfig.load(yaml, snapshot, yamlParser);
+            assert second.getInt("app.server") == 9090 : "Expected the snapshot to be rewritten, but got " + second.get("app.server");
+
+            Files.writeString(snapshot, "garbage");
+            MappedConfig third = MappedConfig.load(yaml, snapshot, yamlParser);
+            assert third.getInt("app.server") == 9090 : "Expected a corrupt snapshot to be rewritten";
+        } finally {
+            Files.deleteIfExists(yaml);
+            Files.deleteIfExists(snapshot);
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    void testMappedSnapshotIsRewrittenWhenPlaceholdersChange() throws IOException {
+        Path directory = Files.createTempDirectory("config");
+        Path yaml = directory.resolve("config.yml");
+        Path snapshot = directory.resolve("config.snapshot");
+        System.clearProperty("X-SNAPSHOT-PORT");
+        try {
+            Files.writeString(yaml, "app:\n  server: ${X-SNAPSHOT-PORT:8080}\n");
+            MappedConfig first = MappedConfig.load(yaml, snapshot, yamlParser);
+            assert first.getInt("app.server") == 8080 : "Expected 8080, but got " + first.get("app.server");
+
+            System.setProperty("X-SNAPSHOT-PORT", "9090");
+            MappedConfig second = MappedConfig.load(yaml, snapshot, yamlParser);
+            assert second.getInt("app.server") == 9090 : "Expected the snapshot to be rewritten, but got " + second.get("app.server");
+
+            System.clearProperty("X-SNAPSHOT-PORT");
+            MappedConfig third = MappedConfig.load(yaml, snapshot, yamlParser);
+            assert third.getInt("app.server") == 8080 : "Expected the default again, but got " + third.get("app.server");
+        } finally {
+            System.clearProperty("X-SNAPSHOT-PORT");
+            Files.deleteIfExists(yaml);
+            Files.deleteIfExists(snapshot);
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    void testUnknownSubtreesAreNotKept() throws ReflectiveOperationException {
+        Config config = parse("""
+                app:
+                  http:
+                    port: 8080
+                """);
+        Config http = config.subtree("app.http");
+
+        for (int i = 0; i < 100_000; i++) {
+            assert config.subtree("missing" + i).isEmpty() : "Expected nothing below missing" + i;
+            assert config.subtreeUncached("app.missing" + i).isEmpty() : "Expected nothing below app.missing" + i;
+            assert config.subtreeUncached("app.http").getInt("port") == 8080 : "Expected the request view to see the entries";
+        }
+
+        int views = cachedViews(config);
+        assert views == 1 : "Expected only the app.http view to be kept, but got " + views;
+        assert config.subtree("app.http") == http : "Expected views with entries to stay shared";
+    }
+
+    private static int cachedViews(Config config) throws ReflectiveOperationException {
+        Field storeField = Config.class.getDeclaredField("store");
+        storeField.setAccessible(true);
+        Object store = storeField.get(config);
+        Field subtrees = store.getClass().getDeclaredField("subtrees");
+        subtrees.setAccessible(true);
+        return ((Map<?, ?>) subtrees.get(store)).size();
+    }
+
+    private enum Mode { VIRTUAL, FIXED_POOL }
+
+    private record Http(int backlog, Integer poolSize, Mode executor, boolean secure) {
+    }
+
+    private record Endpoint(String path, Map<String, Object> type) {
+    }
+
+    private record Server(String name, long port, List<String> tags) {
+        Server {
+            if (port <= 0) {
+                throw new IllegalArgumentException("port must be positive");
+            }
+        }
+    }
+
+    private record App(Http http, Map<String, Endpoint> endpoint, List<Server> servers, List<Double> weights) {
+    }
+
+    private record Fleet(List<Server> servers) {
+    }
+
+    private record Socket(Thread owner) {
+    }
+
+    @Test
+    void testBindsSubtreesToRecords() {
+        Config config = parse("""
+                app:
+                  http:
+                    backlog: 128
+                    pool-size: 64
+                    executor: fixed-pool
+                  endpoint:
+                    GET:
+                      path: /sistemas
+                      type:
+                        json:
+                          response: pamonha
+                    POST:
+                      path: /sistemas
+                  servers:
+                    - name: a
+                      port: 8080
+                      tags: [x, y]
+                    - name: b
+                      port: 8081
+                  weights: [1, 2.5]
+                pair:
+                  first: one
+                  second: 2
+                """);
+
+        App app = config.bind("app", App.class);
+        Tuple<?, ?> pair = config.bind("pair", Tuple.class);
+
+        assert new Http(128, 64, Mode.FIXED_POOL, false).equals(app.http()) : "Unexpected http " + app.http();
+        assert List.of("GET", "POST").equals(List.copyOf(app.endpoint().keySet())) : "Expected both methods, but got " + app.endpoint().keySet();
+        assert "/sistemas".equals(app.endpoint().get("GET").path()) : "Expected '/sistemas', but got " + app.endpoint().get("GET").path();
+        assert Map.of("json", Map.of("response", "pamonha")).equals(app.endpoint().get("GET").type()) : "Expected the type block as a map, but got " + app.endpoint().get("GET").type();
+        assert app.endpoint().get("POST").type() == null : "Expected a missing block to stay null";
+        assert List.of(new Server("a", 8080, List.of("x", "y")), new Server("b", 8081, null)).equals(app.servers()) : "Unexpected servers " + app.servers();
+        assert List.of(1.0, 2.5).equals(app.weights()) : "Expected ints widened to doubles, but got " + app.weights();
+        assert "one".equals(pair.first()) && Integer.valueOf(2).equals(pair.second()) : "Unexpected tuple " + pair;
+    }
+
+    @Test
+    void testBindingChecksTypes() {
+        Config config = parse("""
+                app:
+                  http:
+                    backlog: lots
+                  servers:
+                    - name: a
+                      port: 0
+                  executor:
+                    executor: threads
+                """);
+
+        String backlog = bindingError(() -> config.bind("app.http", Http.class));
+        String port = bindingError(() -> config.bind("app", Fleet.class));
+        String executor = bindingError(() -> config.bind("app.executor", Http.class));
+        String socket = bindingError(() -> config.bind("app", Socket.class));
+
+        assert backlog.contains("'app.http.backlog' is not an int") : "Expected the key and type, but got " + backlog;
+        assert port.contains("Invalid Server at 'app.servers.0'") && port.contains("port must be positive") : "Expected the record's own check, but got " + port;
+        assert executor.contains("'app.executor.executor' is not one of [VIRTUAL, FIXED_POOL]") : "Expected the enum constants, but got " + executor;
+        assert socket.contains("java.lang.Thread") : "Expected unsupported components to be rejected, but got " + socket;
+    }
+
+    private static String bindingError(Runnable binding) {
+        try {
+            binding.run();
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+        throw new AssertionError("Expected an IllegalArgumentException");
+    }
+}
@@ -0,0 +1,254 @@
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sun.net.httpserver.HttpServer;
+import com.vanilla.config.Config;
+import com.vanilla.httpServer.ApplicationHttpServer;
+import com.vanilla.httpServer.ApplicationTcpServer;
+import com.vanilla.httpServer.HttpServerSettings;
+import com.vanilla.httpServer.nio.NioHttpServer;
+import com.vanilla.json.JsonLimitException;
+import com.vanilla.json.JsonLimits;
+import com.vanilla.json.JsonReader;
+import com.vanilla.json.JsonWriter;
+import com.vanilla.json.MalformedJsonException;
+import com.vanilla.yamlParser.YamlParser;
+
+public class JsonReaderTest {
+
+    public static void main(String[] args) {
+        TestRunner.runAndExit(new JsonReaderTest(new YamlParser()));
+    }
+
+    private final YamlParser yamlParser;
+
+    private JsonReaderTest(YamlParser yamlParser) {
+        this.yamlParser = yamlParser;
+    }
+
+    record Item(String sku, int quantity) {
+    }
+
+    record Order(String id, long total, boolean paid, List<Item> items, Map<String, Double> taxes) {
+
+        Order {
+            if (id == null) {
+                throw new IllegalArgumentException("id is required");
+            }
+        }
+    }
+
+    private static Object parse(String json) throws IOException {
+        try (JsonReader reader = new JsonReader(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)),
+                JsonLimits.DEFAULT)) {
+            Object value = reader.readValue();
+            reader.endDocument();
+            return value;
+        }
+    }
+
+    /**
+     * Hands out at most {@code chunk} bytes per read, so every token ends up split across two buffers somewhere.
+     */
+    private static InputStream trickle(byte[] bytes, int chunk) {
+        return new ByteArrayInputStream(bytes) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, chunk));
+            }
+        };
+    }
+
+    private static HttpResponse<String> post(HttpClient client, int port, String path, String body)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void testReadsValuesIntoMapsAndLists() throws IOException {
+        Object parsed = parse(" {\"name\": \"caf\\u00e9 \u00e9\u20ac\ud83d\ude00\", \"escapes\": \"\\\"\\\\\\/\\b\\f\\n\\r\\t\\ud83d\\ude00\","
+                + " \"numbers\": [0, -7, 2147483648, 123456789012345678901, 1.5, -2e3, 1E-2],"
+                + " \"flags\": [true, false, null], \"empty\": {}, \"none\": []} ");
+
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("name", "caf\u00e9 \u00e9\u20ac\ud83d\ude00");
+        expected.put("escapes", "\"\\/\b\f\n\r\t\ud83d\ude00");
+        expected.put("numbers", List.of(0, -7, 2147483648L, new BigInteger("123456789012345678901"), 1.5, -2000.0, 0.01));
+        expected.put("flags", java.util.Arrays.asList(true, false, null));
+        expected.put("empty", Map.of());
+        expected.put("none", List.of());
+        assert expected.equals(parsed) : "Unexpected value " + parsed;
+        assert List.of("name", "escapes", "numbers", "flags", "empty", "none").equals(new ArrayList<>(((Map<?, ?>) parsed).keySet())) : "Expected document order, but got " + ((Map<?, ?>) parsed).keySet();
+    }
+
+    @Test
+    void testReadsTokensSplitAcrossBuffers() throws IOException {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (int i = 0; i < 3_000; i++) {
+            values.put("key" + i, List.of("value \"" + i + "\" \u00e9\ud83d\ude00", i * 1_000_003L, i + 0.25, i % 2 == 0));
+        }
+        byte[] encoded = JsonWriter.toByteArray(values);
+
+        for (int chunk : new int[] { 1, 7, 8192 }) {
+            try (JsonReader json = new JsonReader(trickle(encoded, chunk), JsonLimits.DEFAULT)) {
+                Object parsed = json.readValue();
+                json.endDocument();
+
+                assert values.toString().equals(parsed.toString()) : "Unexpected value when reading " + chunk + " bytes at a time";
+            }
+        }
+    }
+
+    @Test
+    void testBindsRecords() throws IOException {
+        String json = "[{\"id\": \"a1\", \"total\": 30, \"unknown\": {\"deep\": [1, {\"x\": \"]}\"}]},"
+                + " \"items\": [{\"sku\": \"s1\", \"quantity\": 2}, {\"sku\": \"s2\"}], \"taxes\": {\"vat\": 0.2}}, {\"id\": \"a2\"}]";
+        List<Order> orders = new ArrayList<>();
+        try (JsonReader reader = new JsonReader(trickle(json.getBytes(StandardCharsets.UTF_8), 5), JsonLimits.DEFAULT)) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                orders.add(reader.read(Order.class));
+            }
+            reader.endArray();
+            reader.endDocument();
+        }
+
+        assert new Order("a1", 30, false, List.of(new Item("s1", 2), new Item("s2", 0)), Map.of("vat", 0.2)).equals(orders.get(0)) : "Unexpected order " + orders.get(0);
+        assert new Order("a2", 0, false, null, null).equals(orders.get(1)) : "Unexpected order " + orders.get(1);
+        for (String invalid : new String[] { "{\"total\": 1}", "{\"id\": \"a\", \"total\": 1.5}", "{\"id\": 5}", "{\"id\": \"a\", \"items\": {}}" }) {
+            try (JsonReader reader = new JsonReader(ByteBuffer.wrap(invalid.getBytes(StandardCharsets.UTF_8)), JsonLimits.DEFAULT)) {
+                reader.read(Order.class);
+                assert false : "Expected " + invalid + " to be rejected";
+            } catch (MalformedJsonException expected) {
+                // a missing id, a fractional long, a number for a string or an object for a list
+            }
+        }
+    }
+
+    @Test
+    void testRejectsMalformedDocuments() throws IOException {
+        String[] malformed = { "", "{", "[1,]", "{\"a\":1,}", "{\"a\" 1}", "{a: 1}", "01", "1.", "-", "1e", "tru", "nul",
+                "\"abc", "\"\\x\"", "\"\\u12g4\"", "\"\u0001\"", "[1] 2", "[1 2]", "{\"a\":1}}" };
+        for (String json : malformed) {
+            try {
+                parse(json);
+                assert false : "Expected " + json + " to be rejected";
+            } catch (MalformedJsonException expected) {
+                // not JSON
+            }
+        }
+        for (byte[] utf8 : new byte[][] { { '"', (byte) 0xc3, '"' }, { '"', (byte) 0xc0, (byte) 0x80, '"' }, { '"', (byte) 0xed, (byte) 0xa0, (byte) 0x80, '"' } }) {
+            try (JsonReader json = new JsonReader(ByteBuffer.wrap(utf8), JsonLimits.DEFAULT)) {
+                json.nextString();
+                assert false : "Expected malformed UTF-8 to be rejected";
+            } catch (MalformedJsonException expected) {
+                // a truncated sequence, an overlong form and an encoded surrogate
+            }
+        }
+    }
+
+    @Test
+    void testEnforcesLimits() throws IOException {
+        JsonLimits limits = new JsonLimits(64, 3);
+        long[] served = new long[1];
+        InputStream endless = new InputStream() {
+            @Override
+            public int read() {
+                served[0]++;
+                return ' ';
+            }
+        };
+
+        assert List.of(List.of(List.of(1))).equals(new JsonReader(ByteBuffer.wrap("[[[1]]]".getBytes()), limits).readValue()) : "Expected three levels to be accepted";
+        assert List.of(1).equals(new JsonReader(ByteBuffer.wrap("[1]".getBytes()), new JsonLimits(Long.MAX_VALUE, 1)).readValue()) : "Expected an unbounded size to be accepted";
+        assert "x".repeat(62).equals(new JsonReader(ByteBuffer.wrap(("\"" + "x".repeat(62) + "\"").getBytes()), limits).readValue()) : "Expected 64 bytes to be accepted";
+        for (String json : new String[] { "[[[[1]]]]", "{\"a\": {\"b\": {\"c\": {}}}}", "\"" + "x".repeat(63) + "\"" }) {
+            try (JsonReader reader = new JsonReader(ByteBuffer.wrap(json.getBytes()), limits)) {
+                reader.readValue();
+                assert false : "Expected " + json + " to exceed the limits";
+            } catch (JsonLimitException expected) {
+                // four levels, or 65 bytes
+            }
+        }
+        try (JsonReader reader = new JsonReader(endless, limits)) {
+            reader.readValue();
+            assert false : "Expected an endless document to exceed the limits";
+        } catch (JsonLimitException expected) {
+            assert served[0] == 65 : "Expected reading to stop one byte past the limit, but read " + served[0];
+        }
+    }
+
+    @Test
+    void testServersAcceptJsonBodies() throws IOException, InterruptedException {
+        Config config = Config.of(yamlParser.parseYaml("""
+                app:
+                  json:
+                    max-bytes: 256
+                  endpoint:
+                    POST:
+                      path: /orders
+                      type:
+                        json:
+                          request:
+                            id: a1
+                            customer:
+                              name: Ann
+                """));
+        HttpServer http = ApplicationHttpServer.start(new InetSocketAddress(0), HttpServerSettings.DEFAULT,
+                ApplicationHttpServer.router(config));
+        HttpClient client = HttpClient.newHttpClient();
+        try (NioHttpServer nio = ApplicationTcpServer.startNonBlocking(new InetSocketAddress(0), 1,
+                ApplicationTcpServer.router(config))) {
+            for (int port : new int[] { http.getAddress().getPort(), nio.getPort() }) {
+                HttpResponse<String> created = post(client, port, "/users", "{\"name\": \"Ann \\u00e9\", \"age\": [1, 2]}");
+                HttpResponse<String> blank = post(client, port, "/users", "{\"name\": \" \"}");
+                HttpResponse<String> invalid = post(client, port, "/users", "{\"name\": ");
+                HttpResponse<String> tooLarge = post(client, port, "/users", "{\"name\": \"" + "x".repeat(1_000) + "\"}");
+                HttpResponse<String> accepted = post(client, port, "/orders", "{\"id\": \"b2\", \"customer\": {\"name\": \"Bo\"}, \"note\": 1}");
+                HttpResponse<String> mismatched = post(client, port, "/orders", "{\"id\": \"b2\", \"customer\": {\"name\": 7}}");
+
+                assert created.statusCode() == 201 && "{\"name\":\"Ann \u00e9\"}".equals(created.body()) : "Unexpected response " + created.statusCode() + " " + created.body() + " on port " + port;
+                assert blank.statusCode() == 400 && blank.body().contains("name must not be blank") : "Unexpected response " + blank.body() + " on port " + port;
+                assert invalid.statusCode() == 400 : "Expected '400', but got " + invalid.statusCode() + " on port " + port;
+                assert tooLarge.statusCode() == 413 : "Expected '413', but got " + tooLarge.statusCode() + " on port " + port;
+                assert accepted.statusCode() == 200 && "{\"id\":\"b2\",\"customer\":{\"name\":\"Bo\"},\"note\":1}".equals(accepted.body()) : "Unexpected echo " + accepted.body() + " on port " + port;
+                assert mismatched.statusCode() == 400 && mismatched.body().contains("customer.name") : "Unexpected response " + mismatched.body() + " on port " + port;
+            }
+        } finally {
+            http.stop(0);
+        }
+    }
+
+    @Test
+    void testMalformedRequestErrorsAreValidJson() throws IOException {
+        try (NioHttpServer nio = ApplicationTcpServer.startNonBlocking(new InetSocketAddress(0), 1);
+                Socket socket = new Socket("localhost", nio.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            out.write("GET /users HTTP/1.1\r\nBad\"Header\\\u0001\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+            out.flush();
+            String response = new String(socket.getInputStream().readAllBytes(), StandardCharsets.ISO_8859_1);
+            String body = response.substring(response.indexOf("\r\n\r\n") + 4);
+
+            assert response.startsWith("HTTP/1.1 400") : "Expected a 400, but got " + response;
+            Object error = parse(body);
+            assert Map.of("error", "Malformed header: Bad\"Header\\\u0001").equals(error) : "Expected the header in the error, but got " + body;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.sun.net.httpserver.HttpServer;
+import com.vanilla.config.Config;
+import com.vanilla.httpServer.ApplicationHttpServer;
+import com.vanilla.httpServer.ApplicationTcpServer;
+import com.vanilla.httpServer.HttpServerSettings;
+import com.vanilla.httpServer.nio.NioHttpServer;
+import com.vanilla.json.JsonOutput;
+import com.vanilla.json.JsonWriter;
+import com.vanilla.yamlParser.YamlParser;
+
+public class JsonWriterTest {
+
+    public static void main(String[] args) {
+        TestRunner.runAndExit(new JsonWriterTest(new YamlParser()));
+    }
+
+    private final YamlParser yamlParser;
+
+    private JsonWriterTest(YamlParser yamlParser) {
+        this.yamlParser = yamlParser;
+    }
+
+    private static String json(Object value) {
+        return new String(JsonWriter.toByteArray(value), StandardCharsets.UTF_8);
+    }
+
+    private static HttpResponse<String> get(HttpClient client, int port, String path)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void testEncodesParsedValues() {
+        Map<String, Object> parsed = new TreeMap<>(yamlParser.parseYaml("""
+                server:
+                  port: 8080
+                  ratio: 0.5
+                  secure: false
+                  name: main
+                  hosts: [a, b]
+                  empty:
+                """));
+
+        String encoded = json(parsed);
+
+        assert "{\"server.empty\":\"\",\"server.hosts\":[\"a\",\"b\"],\"server.name\":\"main\",\"server.port\":8080,\"server.ratio\":0.5,\"server.secure\":false}".equals(encoded) : "Unexpected JSON " + encoded;
+        assert "[-9223372036854775808,0,-7,null]".equals(json(List.of(Long.MIN_VALUE, 0, -7L, Double.NaN))) : "Unexpected numbers " + json(List.of(Long.MIN_VALUE, 0, -7L, Double.NaN));
+    }
+
+    @Test
+    void testEscapesAndEncodesUtf8() {
+        String text = "q\"b\\n\n\t\u0001 \u00e9\u20ac\ud83d\ude00\ud800";
+
+        String encoded = json(text);
+
+        assert "\"q\\\"b\\\\n\\n\\t\\u0001 \u00e9\u20ac\ud83d\ude00?\"".equals(encoded) : "Unexpected JSON " + encoded;
+    }
+
+    @Test
+    void testLargeDocumentsSpanBuffers() throws IOException {
+        Map<String, Object> values = new LinkedHashMap<>();
+        StringBuilder expected = new StringBuilder("{");
+        for (int i = 0; i < 5_000; i++) {
+            values.put("key" + i, "value \"" + i + "\"");
+            expected.append(i == 0 ? "" : ",").append("\"key").append(i).append("\":\"value \\\"").append(i).append("\\\"\"");
+        }
+        expected.append('}');
+        List<Integer> writes = new ArrayList<>();
+        StringBuilder received = new StringBuilder();
+        JsonOutput output = new JsonOutput() {
+            @Override
+            public void write(byte[] buffer, int length) {
+                writes.add(length);
+                received.append(new String(buffer, 0, length, StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public void close(byte[] buffer, int length) {
+                writes.add(-length);
+                received.append(new String(buffer, 0, length, StandardCharsets.UTF_8));
+            }
+        };
+
+        try (JsonWriter json = new JsonWriter(output)) {
+            json.value(values);
+        }
+        ByteBuffer target = ByteBuffer.allocate(expected.length());
+        try (JsonWriter json = new JsonWriter(target)) {
+            json.value(values);
+        }
+
+        assert expected.toString().equals(received.toString()) : "Unexpected JSON of length " + received.length();
+        assert writes.size() > 2 && writes.get(writes.size() - 1) <= 0 : "Expected several writes, then a close, but got " + writes;
+        assert !target.hasRemaining() : "Expected the buffer to be filled, but " + target.remaining() + " bytes are left";
+    }
+
+    @Test
+    void testMisplacedCallsAndIncompleteDocuments() throws IOException {
+        List<String> closed = new ArrayList<>();
+        JsonOutput output = new JsonOutput() {
+            @Override
+            public void write(byte[] buffer, int length) {
+            }
+
+            @Override
+            public void close(byte[] buffer, int length) {
+                closed.add(new String(buffer, 0, length, StandardCharsets.UTF_8));
+            }
+        };
+
+        try (JsonWriter json = new JsonWriter(output)) {
+            json.beginObject().name("a").beginArray().value(1);
+        }
+        try (JsonWriter json = new JsonWriter(output)) {
+            json.beginObject();
+            json.value("no name");
+            assert false : "Expected a value without a name to be rejected";
+        } catch (IllegalStateException expected) {
+            // an object needs a name first
+        }
+        try (JsonWriter json = new JsonWriter(output)) {
+            json.value(1).value(2);
+            assert false : "Expected a second top-level value to be rejected";
+        } catch (IllegalStateException expected) {
+            // one value per document
+        }
+
+        assert List.of("1").equals(closed) : "Expected only the complete document to be closed, but got " + closed;
+    }
+
+    @Test
+    void testServersStreamConfigDumps() throws IOException, InterruptedException {
+        StringBuilder yaml = new StringBuilder("app:\n  name: demo\nbig:\n");
+        for (int i = 0; i < 2_000; i++) {
+            yaml.append("  key").append(i).append(": value ").append(i).append('\n');
+        }
+        Config config = Config.of(yamlParser.parseYaml(yaml.toString()));
+        HttpServer http = ApplicationHttpServer.start(new InetSocketAddress(0), HttpServerSettings.DEFAULT,
+                ApplicationHttpServer.router(config));
+        HttpClient client = HttpClient.newHttpClient();
+        try (NioHttpServer nio = ApplicationTcpServer.startNonBlocking(new InetSocketAddress(0), 1,
+                ApplicationTcpServer.router(config))) {
+            for (int port : new int[] { http.getAddress().getPort(), nio.getPort() }) {
+                HttpResponse<String> small = get(client, port, "/config/app");
+                HttpResponse<String> big = get(client, port, "/config/big");
+                HttpResponse<String> missing = get(client, port, "/config/none");
+
+                assert "{\"name\":\"demo\"}".equals(small.body()) : "Unexpected dump " + small.body();
+                assert small.headers().firstValue("content-length").isPresent() : "Expected a Content-Length on port " + port;
+                assert json(config.subtree("big").asMap()).equals(big.body()) : "Unexpected dump of length " + big.body().length();
+                assert big.headers().firstValue("transfer-encoding").orElse("").equals("chunked") : "Expected a chunked dump on port " + port;
+                assert missing.statusCode() == 404 : "Expected '404', but got " + missing.statusCode();
+            }
+        } finally {
+            http.stop(0);
+        }
+    }
+}
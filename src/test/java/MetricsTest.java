@@ -0,0 +1,160 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpServer;
+import com.vanilla.httpServer.ApplicationHttpServer;
+import com.vanilla.httpServer.ApplicationTcpServer;
+import com.vanilla.httpServer.HttpServerSettings;
+import com.vanilla.httpServer.nio.NioHttpServer;
+import com.vanilla.metrics.Counter;
+import com.vanilla.metrics.Histogram;
+import com.vanilla.metrics.MetricsRegistry;
+import com.vanilla.yamlParser.YamlParser;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class MetricsTest {
+
+    public static void main(String[] args) {
+        TestRunner.runAndExit(new MetricsTest());
+    }
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private String get(int port, String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    @Test
+    void testHistogramQuantiles() {
+        Histogram histogram = new MetricsRegistry().histogram("latency");
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+        histogram.record(-5);
+
+        long median = histogram.valueAtQuantile(0.5);
+        long p99 = histogram.valueAtQuantile(0.99);
+
+        assert Math.abs(median - 50_000) <= 50_000 / 32 : "Expected about '50000', but got " + median;
+        assert Math.abs(p99 - 99_000) <= 99_000 / 32 : "Expected about '99000', but got " + p99;
+        assert histogram.valueAtQuantile(1) == 100_000 : "Expected '100000', but got " + histogram.valueAtQuantile(1);
+        assert histogram.valueAtQuantile(0) == 0 : "Expected '0', but got " + histogram.valueAtQuantile(0);
+        assert histogram.count() == 100_001 : "Expected '100001', but got " + histogram.count();
+        assert histogram.sum() == 5_000_050_000L : "Expected '5000050000', but got " + histogram.sum();
+    }
+
+    @Test
+    void testScrapeFormat() {
+        MetricsRegistry registry = new MetricsRegistry();
+        Counter ok = registry.counter("requests_total", "status", "200");
+        ok.add(3);
+        registry.counter("requests_total", "status", "404").increment();
+        registry.timer("duration_seconds").record(2_000_000_000L);
+
+        String scrape = registry.scrape();
+
+        assert registry.counter("requests_total", "status", "200") == ok : "Expected the registered counter back";
+        assert scrape.startsWith("""
+                # TYPE duration_seconds summary
+                duration_seconds{quantile="0.5"} 2.0
+                """) : "Unexpected summary in:\n" + scrape;
+        assert scrape.contains("duration_seconds_count 1\n") : "Expected a count of 1 in:\n" + scrape;
+        assert scrape.endsWith("""
+                # TYPE requests_total counter
+                requests_total{status="200"} 3
+                requests_total{status="404"} 1
+                """) : "Unexpected counters in:\n" + scrape;
+        try {
+            registry.histogram("requests_total");
+            assert false : "Expected a counter name to be rejected as a histogram";
+        } catch (IllegalArgumentException expected) {
+            // the family keeps its type
+        }
+    }
+
+    @Test
+    void testServersExposeRequestMetrics() throws IOException, InterruptedException {
+        HttpServer http = ApplicationHttpServer.start(new InetSocketAddress(0), HttpServerSettings.DEFAULT);
+        try (NioHttpServer nio = ApplicationTcpServer.startNonBlocking(new InetSocketAddress(0), 1)) {
+            int httpPort = http.getAddress().getPort();
+            get(httpPort, "/users");
+            get(httpPort, "/missing");
+            get(nio.getPort(), "/users");
+
+            String httpScrape = get(httpPort, "/metrics");
+            String nioScrape = get(nio.getPort(), "/metrics");
+
+            for (String expected : List.of("http_requests_total{server=\"http\",status=\"200\"}",
+                    "http_requests_total{server=\"http\",status=\"404\"}",
+                    "http_requests_total{server=\"nio\",status=\"200\"}",
+                    "http_request_duration_seconds_count{server=\"nio\"}",
+                    "http_connections_total{server=\"nio\"}")) {
+                assert nioScrape.contains(expected) : "Expected '" + expected + "' in:\n" + nioScrape;
+            }
+            assert httpScrape.contains("http_response_bytes_total{server=\"http\"}") : "Expected response bytes in:\n" + httpScrape;
+        } finally {
+            http.stop(0);
+        }
+    }
+
+    @Test
+    void testResetConnectionsAreCounted() throws IOException, InterruptedException {
+        Counter failed = MetricsRegistry.global().counter("http_connection_errors_total", "server", "nio");
+        try (NioHttpServer nio = ApplicationTcpServer.startNonBlocking(new InetSocketAddress(0), 1)) {
+            long failedBefore = failed.get();
+            try (Socket reset = new Socket("localhost", nio.getPort())) {
+                reset.setSoLinger(true, 0);
+                reset.getOutputStream().write("GET /users HTTP/1.1\r\n".getBytes(StandardCharsets.ISO_8859_1));
+                reset.getOutputStream().flush();
+                Thread.sleep(50);
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (failed.get() == failedBefore && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+
+            assert failed.get() > failedBefore : "Expected the reset to be counted";
+            assert get(nio.getPort(), "/users").contains("Hello world!") : "Expected the server to keep serving";
+        }
+    }
+
+    @Test
+    void testParserRecordsPhasesAndFlightRecorderEvents() throws IOException {
+        Path dump = Files.createTempFile("parse", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.vanilla.YamlParse");
+            recording.start();
+            new YamlParser().parseYaml("""
+                    server:
+                      port: 8080
+                      name: main
+                    """);
+            recording.stop();
+            recording.dump(dump);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+            String scrape = MetricsRegistry.global().scrape();
+
+            assert events.size() == 1 : "Expected '1' event, but got " + events.size();
+            assert events.get(0).getInt("entries") == 2 : "Expected '2' entries, but got " + events.get(0).getInt("entries");
+            assert "sequential".equals(events.get(0).getString("mode")) : "Expected 'sequential', but got " + events.get(0).getString("mode");
+            assert scrape.contains("yaml_parse_phase_seconds_count{phase=\"scan\"}") : "Expected scan timings in:\n" + scrape;
+            assert scrape.contains("yaml_parse_phase_seconds_count{phase=\"build\"}") : "Expected build timings in:\n" + scrape;
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+}
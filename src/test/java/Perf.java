@@ -0,0 +1,20 @@
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * A budget for a {@link Test}, checked by {@link TestRunner} once the test returns: it fails when it took more than
+ * {@link #maxMillis()} of wall time, or when its thread allocated more than {@link #maxAllocatedBytes()}. Zero leaves
+ * a limit unchecked. Tests run side by side, so budgets should be set well above a quiet run.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Perf {
+
+    long maxMillis() default 0;
+
+    long maxAllocatedBytes() default 0;
+}
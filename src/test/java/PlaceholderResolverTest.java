@@ -0,0 +1,95 @@
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+
+import com.vanilla.placeholder.PlaceholderResolver;
+import com.vanilla.placeholder.PlaceholderSource;
+import com.vanilla.yamlParser.YamlParser;
+
+public class PlaceholderResolverTest {
+
+    public static void main(String[] args) {
+        TestRunner.runAndExit(new PlaceholderResolverTest());
+    }
+
+    private static PlaceholderResolver resolver(Map<String, ?> values) {
+        return new PlaceholderResolver(List.of(PlaceholderSource.of(values)));
+    }
+
+    @Test
+    void testDefaultsAndNesting() {
+        PlaceholderResolver resolver = resolver(Map.of("HOST", "db.local", "PORT", 5432));
+
+        String plain = resolver.resolve("${HOST}:${PORT}");
+        String nested = resolver.resolve("${MISSING:${OTHER:${HOST}}}/x");
+        String empty = resolver.resolve("[${MISSING}]");
+        String unclosed = resolver.resolve("${HOST");
+
+        assert "db.local:5432".equals(plain) : "Expected 'db.local:5432', but got " + plain;
+        assert "db.local/x".equals(nested) : "Expected 'db.local/x', but got " + nested;
+        assert "[]".equals(empty) : "Expected '[]', but got " + empty;
+        assert "${HOST".equals(unclosed) : "Expected '${HOST', but got " + unclosed;
+    }
+
+    @Test
+    void testRecursiveReferencesAndCycles() {
+        PlaceholderResolver resolver = resolver(Map.of(
+                "url", "jdbc://${host}:${port}", "host", "${name}.internal", "name", "orders", "port", "5432",
+                "a", "${b}", "b", "x-${a}"));
+
+        String url = resolver.resolve("${url}");
+        assert "jdbc://orders.internal:5432".equals(url) : "Expected 'jdbc://orders.internal:5432', but got " + url;
+
+        try {
+            resolver.resolve("${a}");
+            assert false : "Expected a cycle to be reported";
+        } catch (IllegalArgumentException e) {
+            assert e.getMessage().contains("a -> b -> a") : "Unexpected message " + e.getMessage();
+        }
+    }
+
+    @Test
+    void testSourceChainOrderAndInvalidation() {
+        PlaceholderResolver resolver = new PlaceholderResolver(List.of(PlaceholderSource.systemProperties(),
+                PlaceholderSource.of(Map.of("X-CHAIN", "from yaml"))));
+
+        System.clearProperty("X-CHAIN");
+        String fromYaml = resolver.resolve("value: ${X-CHAIN}");
+        System.setProperty("X-CHAIN", "from property");
+        String fromProperty = resolver.resolve("value: ${X-CHAIN}");
+        System.clearProperty("X-CHAIN");
+
+        assert "value: from yaml".equals(fromYaml) : "Expected 'value: from yaml', but got " + fromYaml;
+        assert "value: from property".equals(fromProperty) : "Expected the cached value to be refreshed, but got " + fromProperty;
+        assert resolver.resolve("value: ${X-CHAIN}") == resolver.resolve("value: ${X-CHAIN}") : "Expected the resolved value to be cached";
+    }
+
+    @Test
+    void testParserUsesConfiguredSources() {
+        YamlParser yamlParser = new YamlParser(resolver(Map.of("app.port", 9090)));
+
+        Map<String, Object> map = yamlParser.parseYaml("""
+                server:
+                  port: ${app.port:8080}
+                  name: ${app.name:vanilla}
+                """);
+
+        assert Integer.valueOf(9090).equals(map.get("server.port")) : "Expected 9090, but got " + map.get("server.port");
+        assert "vanilla".equals(map.get("server.name")) : "Expected 'vanilla', but got " + map.get("server.name");
+    }
+
+    @Test
+    void testCompiledTemplatesAreBounded() throws ReflectiveOperationException {
+        PlaceholderResolver resolver = resolver(Map.of("HOST", "db.local"));
+
+        for (int i = 0; i < 20_000; i++) {
+            String resolved = resolver.resolve("${HOST}/" + i);
+            assert ("db.local/" + i).equals(resolved) : "Expected 'db.local/" + i + "', but got " + resolved;
+        }
+
+        Field templates = PlaceholderResolver.class.getDeclaredField("templates");
+        templates.setAccessible(true);
+        int cached = ((Map<?, ?>) templates.get(resolver)).size();
+        assert cached <= 4096 : "Expected at most 4096 cached templates, but got " + cached;
+    }
+}
@@ -0,0 +1,86 @@
+import java.util.List;
+import java.util.Map;
+
+import com.vanilla.config.Config;
+import com.vanilla.httpServer.routing.RouteDefinition;
+import com.vanilla.httpServer.routing.Router;
+
+public class RouterTest {
+
+    public static void main(String[] args) {
+        TestRunner.runAndExit(new RouterTest(Router.<String>builder()
+                .route("GET", "/users", "list")
+                .route("GET", "/users/{id}", "get")
+                .route("GET", "/users/me", "me")
+                .route("POST", "/users/{id}/orders/{order}", "order")
+                .build()));
+    }
+
+    private final Router<String> router;
+
+    private RouterTest(Router<String> router) {
+        this.router = router;
+    }
+
+    @Test
+    void testStaticRoute() {
+        Router.Match<String> match = router.match("GET", "/users?page=2");
+
+        assert match.status() == Router.Match.Status.FOUND : "Expected 'FOUND', but got " + match.status();
+        assert "list".equals(match.handler()) : "Expected 'list', but got " + match.handler();
+    }
+
+    @Test
+    void testPathParameters() {
+        Router.Match<String> match = router.match("POST", "/users/7/orders/9");
+
+        assert "order".equals(match.handler()) : "Expected 'order', but got " + match.handler();
+        assert "7".equals(match.param("id")) : "Expected '7', but got " + match.param("id");
+        assert "9".equals(match.param("order")) : "Expected '9', but got " + match.param("order");
+    }
+
+    @Test
+    void testStaticSegmentWinsOverParameter() {
+        Router.Match<String> match = router.match("GET", "/users/me");
+
+        assert "me".equals(match.handler()) : "Expected 'me', but got " + match.handler();
+        assert "get".equals(router.match("GET", "/users/42").handler()) : "Expected 'get' for /users/42";
+    }
+
+    @Test
+    @Perf(maxAllocatedBytes = 512 * 1024)
+    void testStaticRoutesDoNotAllocate() {
+        int found = 0;
+        for (int i = 0; i < 200_000; i++) {
+            found += router.match("GET", "/users/me").handler() != null ? 1 : 0;
+            found += router.match("GET", "/users?page=2").handler() != null ? 1 : 0;
+        }
+
+        assert found == 400_000 : "Expected '400000' matches, but got " + found;
+    }
+
+    @Test
+    void testMethodNotAllowedAndNotFound() {
+        Router.Match.Status methodNotAllowed = router.match("DELETE", "/users").status();
+        Router.Match.Status notFound = router.match("GET", "/orders").status();
+
+        assert methodNotAllowed == Router.Match.Status.METHOD_NOT_ALLOWED : "Expected 'METHOD_NOT_ALLOWED', but got " + methodNotAllowed;
+        assert notFound == Router.Match.Status.NOT_FOUND : "Expected 'NOT_FOUND', but got " + notFound;
+    }
+
+    @Test
+    void testRoutesFromConfig() {
+        Map<String, Object> config = Map.of(
+                "app.endpoint.GET.path", "/sistemas",
+                "app.endpoint.GET.type.json.response.sistemas", "pamonha",
+                "app.endpoint.POST.type.json.request.sistemas", "pirulito");
+
+        List<RouteDefinition> routes = RouteDefinition.fromConfig(Config.of(config));
+
+        assert routes.size() == 2 : "Expected '2', but got " + routes.size();
+        assert "/sistemas".equals(routes.get(0).path()) : "Expected '/sistemas', but got " + routes.get(0).path();
+        assert "{\"sistemas\": \"pamonha\"}".equals(routes.get(0).responseJson()) : "Expected '{\"sistemas\": \"pamonha\"}', but got " + routes.get(0).responseJson();
+        assert "/".equals(routes.get(1).path()) : "Expected '/', but got " + routes.get(1).path();
+        assert "pirulito".equals(routes.get(1).request().get("sistemas")) : "Expected 'pirulito', but got " + routes.get(1).request();
+    }
+}
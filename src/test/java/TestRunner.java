@@ -0,0 +1,125 @@
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the {@link Test} methods of a test instance on an executor, by default one thread per processor or
+ * {@code -Dtest.threads}. A failing test is reported and the others still run. Each result comes with the test's
+ * wall time and the bytes its thread allocated, read from the {@link com.sun.management.ThreadMXBean}, and a test
+ * over its {@link Perf} budget fails. Threads a test starts itself, such as server threads, are not counted.
+ *
+ * <pre>
+ * java -ea -Dtest.threads=4 -cp target/classes:target/test-classes YamlParserTest
+ * </pre>
+ */
+final class TestRunner {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    record Result(String name, long nanos, long allocatedBytes, Throwable failure) {
+
+        boolean passed() {
+            return failure == null;
+        }
+    }
+
+    private TestRunner() {
+    }
+
+    /**
+     * Runs the tests of {@code test} on {@code -Dtest.threads} threads and exits with status 1 if any failed.
+     */
+    static void runAndExit(Object test) {
+        runAndExit(test, Integer.getInteger("test.threads", Runtime.getRuntime().availableProcessors()));
+    }
+
+    static void runAndExit(Object test, int threads) {
+        boolean assertions = false;
+        assert assertions = true;
+        if (!assertions) {
+            System.out.println("Assertions are disabled, run with -ea");
+        }
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Result> results;
+        try {
+            results = run(test, executor);
+        } finally {
+            executor.shutdown();
+        }
+        long failed = results.stream().filter(result -> !result.passed()).count();
+        System.out.printf("%s: %d passed, %d failed in %.1f s on %d threads%n", test.getClass().getSimpleName(),
+                results.size() - failed, failed, (System.nanoTime() - start) / 1e9, threads);
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Submits every test method of {@code test} to {@code executor} and prints the results in declaration order.
+     */
+    static List<Result> run(Object test, ExecutorService executor) {
+        List<Future<Result>> futures = new ArrayList<>();
+        for (Method method : test.getClass().getDeclaredMethods()) {
+            if (method.isAnnotationPresent(Test.class)) {
+                futures.add(executor.submit(() -> runTest(test, method)));
+            }
+        }
+        List<Result> results = new ArrayList<>(futures.size());
+        for (Future<Result> future : futures) {
+            Result result;
+            try {
+                result = future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the tests", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("The runner itself failed", e.getCause());
+            }
+            System.out.printf("%s: %s (%.1f ms, %d KB)%n", result.name(), result.passed() ? "SUCCESS" : "FAILED",
+                    result.nanos() / 1e6, result.allocatedBytes() / 1024);
+            if (!result.passed()) {
+                result.failure().printStackTrace(System.out);
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    private static Result runTest(Object test, Method method) {
+        method.setAccessible(true);
+        Throwable failure = null;
+        long allocated = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        try {
+            method.invoke(test);
+        } catch (InvocationTargetException e) {
+            failure = e.getCause();
+        } catch (IllegalAccessException e) {
+            failure = e;
+        }
+        long nanos = System.nanoTime() - start;
+        long bytes = THREADS.getCurrentThreadAllocatedBytes() - allocated;
+
+        Perf perf = method.getAnnotation(Perf.class);
+        if (failure == null && perf != null) {
+            long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            if (perf.maxMillis() > 0 && millis > perf.maxMillis()) {
+                failure = new AssertionError("Expected at most " + perf.maxMillis() + " ms, but took " + millis
+                        + " ms");
+            } else if (perf.maxAllocatedBytes() > 0 && bytes > perf.maxAllocatedBytes()) {
+                failure = new AssertionError("Expected at most " + perf.maxAllocatedBytes()
+                        + " bytes allocated, but got " + bytes);
+            }
+        }
+        return new Result(method.getName(), nanos, bytes, failure);
+    }
+}
@@ -1,28 +1,25 @@
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.io.IOException;
+import java.io.StringReader;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import com.vanilla.yamlParser.DoubleList;
+import com.vanilla.yamlParser.IncrementalYamlParser;
+import com.vanilla.yamlParser.IntList;
+import com.vanilla.yamlParser.YamlEvent;
+import com.vanilla.yamlParser.YamlEventReader;
+import com.vanilla.yamlParser.YamlNode;
 import com.vanilla.yamlParser.YamlParser;
 
 public class YamlParserTest {
 
-    public static void main(String[] args)
-            throws InvocationTargetException, IllegalAccessException {
-
-        Class<? extends YamlParserTest> aClass = YamlParserTest.class;
-        Method[] declaredMethods = aClass.getDeclaredMethods();
-
-        YamlParserTest test = new YamlParserTest(new YamlParser());
-        for (Method declaredMethod : declaredMethods) {
-            if (declaredMethod.isAnnotationPresent(Test.class)) {
-                System.out.print(declaredMethod.getName());
-                declaredMethod.invoke(test);
-                System.out.println(": SUCCESS");
-            }
-        }
+    public static void main(String[] args) {
+        TestRunner.runAndExit(new YamlParserTest(new YamlParser()));
     }
 
     private final YamlParser yamlParser;
@@ -274,4 +271,323 @@ public class YamlParserTest {
         assert "This value 'This is a property' comes from JVM".equals(map.get("string")) : "Expected '\"This value 'This is a property' comes from JVM\"', but got " + map.get("string");
         assert "This comes from another place -> Arrow!!!!!, with a second one 99999 2".equals(map.get("value")) : "Expected '\"This comes from another place -> Arrow!!!!!, with a second one 99999 2\"', but got " + map.get("value");
     }
+
+    @Test
+    void testParseFromReader() throws IOException {
+        String value = """
+                person:
+                  name: John Doe
+                  age: 30
+                """;
+
+        Map<String, Object> map = yamlParser.parseYaml(new StringReader(value));
+
+        assert "John Doe".equals(map.get("person.name")) : "Expected 'John Doe', but got " + map.get("person.name");
+        assert Integer.valueOf(30).equals(map.get("person.age")) : "Expected '30', but got " + map.get("person.age");
+    }
+
+    @Test
+    void testEventReaderStopsEarly() throws IOException {
+        String value = """
+                server:
+                  port: 8080
+                huge:
+                  key: value
+                """;
+
+        List<YamlEvent.Type> types = new ArrayList<>();
+        try (YamlEventReader events = new YamlEventReader(new StringReader(value))) {
+            while (events.hasNext()) {
+                YamlEvent event = events.next();
+                types.add(event.type());
+                if ("server.port".equals(event.path()) && event.type() == YamlEvent.Type.SCALAR) {
+                    assert "8080".equals(event.value()) : "Expected '8080', but got " + event.value();
+                    break;
+                }
+            }
+        }
+
+        List<YamlEvent.Type> expected = List.of(YamlEvent.Type.KEY, YamlEvent.Type.START_MAP, YamlEvent.Type.KEY,
+                YamlEvent.Type.SCALAR);
+        assert expected.equals(types) : "Expected " + expected + ", but got " + types;
+    }
+
+    @Test
+    void testLargeNumbersAndTrailingComments() {
+        String value = """
+                big: 9223372036854775807
+                port: 8080 # default port
+                tag: a#b
+                """;
+
+        Map<String, Object> map = yamlParser.parseYaml(value);
+
+        assert Long.valueOf(Long.MAX_VALUE).equals(map.get("big")) : "Expected '" + Long.MAX_VALUE + "', but got " + map.get("big");
+        assert Integer.valueOf(8080).equals(map.get("port")) : "Expected '8080', but got " + map.get("port");
+        assert "a#b".equals(map.get("tag")) : "Expected 'a#b', but got " + map.get("tag");
+    }
+
+    @Test
+    void testHashInsideQuotedScalarIsNotAComment() {
+        String value = """
+                color: "#ff0000"
+                channel: '#general' # team chat
+                escaped: "say \\"hi\\" # twice" # comment
+                doubled: 'it''s # here'
+                plain: it's # a comment
+                list: ["#a", '#b'] # tags
+                """;
+
+        Map<String, Object> map = yamlParser.parseYaml(value);
+
+        assert "#ff0000".equals(map.get("color")) : "Expected '#ff0000', but got " + map.get("color");
+        assert "#general".equals(map.get("channel")) : "Expected '#general', but got " + map.get("channel");
+        String escaped = "say \\\"hi\\\" # twice";
+        assert escaped.equals(map.get("escaped")) : "Expected '" + escaped + "', but got " + map.get("escaped");
+        assert "it''s # here".equals(map.get("doubled")) : "Expected 'it''s # here', but got " + map.get("doubled");
+        assert "it's".equals(map.get("plain")) : "Expected 'it's', but got " + map.get("plain");
+        assert List.of("#a", "#b").equals(map.get("list")) : "Expected '[#a, #b]', but got " + map.get("list");
+    }
+
+    @Test
+    void testIncrementalParseReusesUnchangedBlocks() {
+        String original = """
+                defaults: &defaults
+                  timeout: 30
+                  retries: 3
+                service:
+                  name: &name billing
+                  port: 8080
+                copy:
+                  <<: *defaults
+                  label: *name
+                service:
+                  port: 9090
+                """;
+        IncrementalYamlParser incremental = new IncrementalYamlParser(yamlParser);
+
+        IncrementalYamlParser.Result first = incremental.parse(original);
+        assert yamlParser.parseYaml(original).equals(first.map()) : "Expected the full parse, but got " + first.map();
+        assert first.reparsedBlocks() == 4 : "Expected 4 parsed blocks, but got " + first.reparsedBlocks();
+
+        String portEdited = original.replace("port: 8080", "port: 8081");
+        IncrementalYamlParser.Result second = incremental.parse(portEdited);
+        assert yamlParser.parseYaml(portEdited).equals(second.map()) : "Expected the full parse, but got " + second.map();
+        assert second.reparsedBlocks() == 1 : "Expected 1 parsed block, but got " + second.reparsedBlocks();
+        assert second.isUnchanged() : "Expected the later 'service' block to keep winning, but got " + second;
+
+        String anchorEdited = portEdited.replace("timeout: 30", "timeout: 60");
+        IncrementalYamlParser.Result third = incremental.parse(anchorEdited);
+        assert yamlParser.parseYaml(anchorEdited).equals(third.map()) : "Expected the full parse, but got " + third.map();
+        assert third.reparsedBlocks() == 2 : "Expected the anchor and its alias to be parsed, but got " + third.reparsedBlocks();
+        assert Set.of("defaults.timeout", "copy.timeout").equals(third.modified()) : "Unexpected modified keys " + third.modified();
+
+        String blockRemoved = anchorEdited.replace("service:\n  port: 9090\n", "");
+        IncrementalYamlParser.Result fourth = incremental.parse(blockRemoved);
+        assert yamlParser.parseYaml(blockRemoved).equals(fourth.map()) : "Expected the full parse, but got " + fourth.map();
+        assert fourth.reparsedBlocks() == 0 : "Expected no parsed block, but got " + fourth.reparsedBlocks();
+        assert Set.of("service.port").equals(fourth.modified()) : "Unexpected modified keys " + fourth.modified();
+        assert fourth.added().isEmpty() && fourth.removed().isEmpty() : "Unexpected change " + fourth;
+
+        IncrementalYamlParser.Result fifth = incremental.parse(blockRemoved + "extra: true\n");
+        assert Set.of("extra").equals(fifth.added()) : "Unexpected added keys " + fifth.added();
+        IncrementalYamlParser.Result sixth = incremental.parse(blockRemoved);
+        assert Set.of("extra").equals(sixth.removed()) : "Unexpected removed keys " + sixth.removed();
+    }
+
+    @Test
+    void testParallelParseMatchesSequential() {
+        StringBuilder document = new StringBuilder("""
+                base: &base
+                  timeout: 30
+                  name: &name shared
+                """);
+        for (int block = 0; block < 5000; block++) {
+            document.append("service").append(block % 4000).append(":\n")
+                    .append("  port: ").append(8000 + block).append('\n')
+                    .append("  tags: [a, b, ").append(block).append("]\n");
+            if (block % 100 == 0) {
+                document.append("  defaults:\n    <<: *base\n  label: *name\n");
+            }
+            if (block % 1000 == 999) {
+                document.append("base: &base\n  timeout: ").append(block).append('\n');
+            }
+        }
+        String value = document.toString();
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Map<String, Object> sequential = yamlParser.parseYaml(value);
+            Map<String, Object> parallel = yamlParser.parseYamlParallel(value, pool);
+
+            assert sequential.equals(parallel) : "Expected the parallel parse to match the sequential one";
+            assert Integer.valueOf(999).equals(parallel.get("service1000.defaults.timeout")) : "Expected the redefined anchor, but got " + parallel.get("service1000.defaults.timeout");
+            assert Integer.valueOf(12000).equals(parallel.get("service0.port")) : "Expected the last block to win, but got " + parallel.get("service0.port");
+            assert yamlParser.parseYaml("a: 1\n").equals(yamlParser.parseYamlParallel("a: 1\n", pool)) : "Expected a small document to parse";
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testTreeSharesMergedAnchors() {
+        String value = """
+                defaults: &defaults
+                  timeout: 30
+                  retry:
+                    count: 3
+                    delay: 100
+                billing:
+                  <<: *defaults
+                  retry:
+                    count: 5
+                shipping:
+                  <<: *defaults
+                """;
+
+        YamlNode tree = yamlParser.parseTree(value);
+
+        assert yamlParser.parseYaml(value).equals(tree.flatten()) : "Expected the flattened tree to match parseYaml, but got " + tree.flatten();
+        assert tree.get("shipping.retry") == tree.get("defaults.retry") : "Expected the merged subtree to be shared";
+        assert Integer.valueOf(5).equals(tree.get("billing.retry.count").value()) : "Expected the override, but got " + tree.get("billing.retry.count").value();
+        assert Integer.valueOf(100).equals(tree.get("billing.retry.delay").value()) : "Expected the merged value, but got " + tree.get("billing.retry.delay").value();
+        assert Integer.valueOf(3).equals(tree.get("defaults.retry.count").value()) : "Expected the anchor to be untouched, but got " + tree.get("defaults.retry.count").value();
+        assert Set.of("retry", "timeout").equals(tree.child("billing").childNames()) : "Unexpected children " + tree.child("billing").childNames();
+    }
+
+    @Test
+    void testBlockSequences() {
+        String value = """
+                app:
+                  arrays:
+                    type2:
+                      - item1
+                      - item2
+                  servers:
+                  - name: a
+                    port: 8080
+                    tags:
+                    - x
+                    - y
+                  - name: b
+                  matrix:
+                    - - 1
+                      - 2
+                    - [3, 4]
+                  url:
+                    - http://localhost:80
+                  after: done
+                """;
+
+        Map<String, Object> map = yamlParser.parseYaml(value);
+
+        assert List.of("item1", "item2").equals(map.get("app.arrays.type2")) : "Expected [item1, item2], but got " + map.get("app.arrays.type2");
+        assert List.of(Map.of("name", "a", "port", 8080, "tags", List.of("x", "y")), Map.of("name", "b")).equals(map.get("app.servers")) : "Unexpected servers " + map.get("app.servers");
+        assert List.of(List.of(1, 2), List.of(3, 4)).equals(map.get("app.matrix")) : "Unexpected matrix " + map.get("app.matrix");
+        assert List.of("http://localhost:80").equals(map.get("app.url")) : "Expected a URL item to stay a scalar, but got " + map.get("app.url");
+        assert "done".equals(map.get("app.after")) : "Expected the map to go on after the sequence, but got " + map.get("app.after");
+        assert !map.containsKey("app.servers.name") : "Expected no entry leaking out of the sequence";
+        assert map.equals(yamlParser.parseTree(value).flatten()) : "Expected the tree to hold the same sequences";
+    }
+
+    @Test
+    void testMultiDocumentStreams() {
+        String value = """
+                ---
+                # nothing but a comment
+                ---
+                name: first
+                list:
+                - 1
+                ---
+                name: second
+                ...
+                """;
+
+        Iterator<Map<String, Object>> documents = yamlParser.parseDocuments(value);
+        List<Map<String, Object>> parsed = new ArrayList<>();
+        documents.forEachRemaining(parsed::add);
+
+        List<Map<String, Object>> expected = List.of(Map.of("name", "first", "list", List.of(1)), Map.of("name", "second"));
+        assert expected.equals(parsed) : "Expected " + expected + ", but got " + parsed;
+        assert Map.of("name", "second", "list", List.of(1)).equals(yamlParser.parseYaml(value)) : "Expected parseYaml to merge the documents, but got " + yamlParser.parseYaml(value);
+    }
+
+    @Test
+    void testLargeNumericListsAreCompact() {
+        StringBuilder document = new StringBuilder("ids:\n");
+        for (int i = 0; i < 1000; i++) {
+            document.append("  - ").append(i * 3).append('\n');
+        }
+        document.append("weights: [0.5, 1.5, 2.5, 3.5, 4.5, 5.5, 6.5, 7.5, 8.5, 9.5, 10.5, 11.5, 12.5, 13.5, 14.5, 15.5]\n");
+        document.append("mixed: [1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16.5]\n");
+
+        Map<String, Object> map = yamlParser.parseYaml(document.toString());
+
+        assert map.get("ids") instanceof IntList : "Expected an IntList, but got " + map.get("ids").getClass();
+        IntList ids = (IntList) map.get("ids");
+        assert ids.size() == 1000 && ids.getInt(999) == 2997 : "Expected 1000 ids up to 2997, but got " + ids.size();
+        assert Integer.valueOf(30).equals(ids.get(10)) : "Expected boxed access to work, but got " + ids.get(10);
+        assert map.get("weights") instanceof DoubleList : "Expected a DoubleList, but got " + map.get("weights").getClass();
+        assert ((DoubleList) map.get("weights")).getDouble(15) == 15.5 : "Expected 15.5, but got " + map.get("weights");
+        assert ArrayList.class.equals(map.get("mixed").getClass()) : "Expected mixed numbers in an ArrayList, but got " + map.get("mixed").getClass();
+        assert Double.valueOf(16.5).equals(((List<?>) map.get("mixed")).get(15)) : "Unexpected mixed " + map.get("mixed");
+    }
+
+    @Test
+    void testParallelParseKeepsSequencesWhole() {
+        StringBuilder document = new StringBuilder();
+        for (int block = 0; block < 3000; block++) {
+            document.append("list").append(block).append(":\n- a").append(block).append("\n- b\n");
+        }
+        String value = document.toString();
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Map<String, Object> parallel = yamlParser.parseYamlParallel(value, pool);
+            assert yamlParser.parseYaml(value).equals(parallel) : "Expected the parallel parse to match the sequential one";
+            assert List.of("a2999", "b").equals(parallel.get("list2999")) : "Unexpected list2999 " + parallel.get("list2999");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testNestedFlowCollections() {
+        String value = """
+                nested: {a: {b: {c: 1, d: [x, y]}}, e: 'f, g'}
+                list: [{name: a, ports: [80, 443]}, [1, [2, 3]], "q: [x], y", 'it''s', "tab\\there"]
+                empty: {list: [], map: {}}
+                trailing: [a, b, ]
+                broken: [a, {b: c]
+                url: {home: http://localhost:8080/a, plain: x}
+                """;
+
+        Map<String, Object> map = yamlParser.parseYaml(value);
+
+        Map<String, Object> nested = Map.of("a", Map.of("b", Map.of("c", 1, "d", List.of("x", "y"))), "e", "f, g");
+        assert nested.equals(map.get("nested")) : "Expected " + nested + ", but got " + map.get("nested");
+        List<Object> list = List.of(Map.of("name", "a", "ports", List.of(80, 443)), List.of(1, List.of(2, 3)), "q: [x], y", "it's", "tab\there");
+        assert list.equals(map.get("list")) : "Expected " + list + ", but got " + map.get("list");
+        assert Map.of("list", List.of(), "map", Map.of()).equals(map.get("empty")) : "Expected empty collections, but got " + map.get("empty");
+        assert List.of("a", "b").equals(map.get("trailing")) : "Expected a trailing comma to be dropped, but got " + map.get("trailing");
+        assert "[a, {b: c]".equals(map.get("broken")) : "Expected a malformed collection kept as text, but got " + map.get("broken");
+        assert Map.of("home", "http://localhost:8080/a", "plain", "x").equals(map.get("url")) : "Expected colons in values to be kept, but got " + map.get("url");
+        assert Map.of("k", Map.of("n", 1), "j", 2).equals(yamlParser.parseMap("k: {n: 1}, j: 2")) : "Expected parseMap to accept a map without braces";
+    }
+
+    @Test
+    @Perf(maxMillis = 2_000, maxAllocatedBytes = 64 * 1024 * 1024)
+    void testLongFlowCollectionsParseInLinearTime() {
+        StringBuilder document = new StringBuilder("map: {");
+        for (int i = 0; i < 50_000; i++) {
+            document.append(i == 0 ? "" : ", ").append("key").append(i).append(": 'value, ").append(i).append('\'');
+        }
+        document.append("}\n");
+
+        Map<?, ?> map = (Map<?, ?>) yamlParser.parseYaml(document.toString()).get("map");
+
+        assert map.size() == 50_000 : "Expected 50000 entries, but got " + map.size();
+        assert "value, 49999".equals(map.get("key49999")) : "Expected 'value, 49999', but got " + map.get("key49999");
+    }
 }